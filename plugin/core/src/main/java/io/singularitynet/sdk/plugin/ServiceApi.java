@@ -0,0 +1,97 @@
+package io.singularitynet.sdk.plugin;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Service which API should be downloaded. Class has no-args constructor and
+ * setters to be used as a nested element of the Maven and Gradle plugins
+ * configuration.
+ */
+public class ServiceApi implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String orgId;
+    private String serviceId;
+    private File outputDir;
+    private String javaPackage;
+
+    public ServiceApi() {
+    }
+
+    /**
+     * Constructor.
+     * @param orgId organization id.
+     * @param serviceId service id.
+     * @param outputDir directory to write service API into, if null then
+     * plugin output directory is used.
+     * @param javaPackage java package to be used for generated classes.
+     */
+    public ServiceApi(String orgId, String serviceId, File outputDir, String javaPackage) {
+        this.orgId = orgId;
+        this.serviceId = serviceId;
+        this.outputDir = outputDir;
+        this.javaPackage = javaPackage;
+    }
+
+    public String getOrgId() {
+        return orgId;
+    }
+
+    public void setOrgId(String orgId) {
+        this.orgId = orgId;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public void setServiceId(String serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    public File getOutputDir() {
+        return outputDir;
+    }
+
+    public void setOutputDir(File outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    public String getJavaPackage() {
+        return javaPackage;
+    }
+
+    public void setJavaPackage(String javaPackage) {
+        this.javaPackage = javaPackage;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ServiceApi)) {
+            return false;
+        }
+        ServiceApi that = (ServiceApi) o;
+        return Objects.equals(orgId, that.orgId)
+            && Objects.equals(serviceId, that.serviceId)
+            && Objects.equals(outputDir, that.outputDir)
+            && Objects.equals(javaPackage, that.javaPackage);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orgId, serviceId, outputDir, javaPackage);
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceApi{orgId: " + orgId + ", serviceId: " + serviceId
+            + ", outputDir: " + outputDir + ", javaPackage: " + javaPackage + "}";
+    }
+
+}
@@ -3,12 +3,25 @@ package io.singularitynet.sdk.plugin;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.MalformedURLException;
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
@@ -19,6 +32,7 @@ import org.web3j.protocol.exceptions.ClientConnectionException;
 import org.web3j.tx.gas.DefaultGasProvider;
 import org.web3j.tx.ReadonlyTransactionManager;
 import io.ipfs.api.IPFS;
+import io.ipfs.multihash.Multihash;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +41,7 @@ import io.singularitynet.sdk.contracts.Registry;
 import io.singularitynet.sdk.ethereum.Address;
 import io.singularitynet.sdk.ethereum.ContractUtils;
 import io.singularitynet.sdk.registry.IpfsMetadataStorage;
+import io.singularitynet.sdk.registry.MetadataStorage;
 import io.singularitynet.sdk.registry.RegistryMetadataProvider;
 import io.singularitynet.sdk.registry.ServiceMetadata;
 import io.singularitynet.sdk.registry.RegistryContract;
@@ -44,6 +59,8 @@ public class ServiceApiGetter {
         URL getEthereumJsonRpcEndpoint();
         String getGetterEthereumAddress();
         String getRegistryAddress();
+        File getApiCacheDir();
+        List<ServiceApi> getServices();
 
     }
 
@@ -61,11 +78,25 @@ public class ServiceApiGetter {
             return DEFAULT_REGISTRY_ADDRESS;
         }
 
+        public File getApiCacheDir() {
+            return DEFAULT_API_CACHE_DIR;
+        }
+
+        public List<ServiceApi> getServices() {
+            return Collections.emptyList();
+        }
+
     }
 
     public static final String DEFAULT_IPFS_ENDPOINT = "http://ipfs.singularitynet.io:80";
     public static final String DEFAULT_GETTER_ETHEREUM_ADDRESS = "0xdcE9c76cCB881AF94F7FB4FaC94E4ACC584fa9a5";
     public static final String DEFAULT_REGISTRY_ADDRESS = "";
+    public static final File DEFAULT_API_CACHE_DIR = new File(
+            System.getProperty("user.home"), ".snet-sdk" + File.separator + "api");
+
+    public static final int MAX_PARALLEL_DOWNLOADS = 8;
+
+    private static final String API_MARKER_FILE_PREFIX = ".snet-api-";
 
     private final static Logger log = LoggerFactory.getLogger(ServiceApiGetter.class);
 
@@ -85,10 +116,9 @@ public class ServiceApiGetter {
     }
 
     public void run() throws PluginException {
-        log.info("Downloading API of orgId: {}, serviceId: {}, javaPackage: {}, into: {}, ethereumJsonRpcEndpoint: {}",
-                parameters.getOrgId(), parameters.getServiceId(),
-                parameters.getJavaPackage(), parameters.getOutputDir(),
-                parameters.getEthereumJsonRpcEndpoint());
+        List<ServiceApi> services = getServiceApis();
+        log.info("Downloading API of services: {}, ethereumJsonRpcEndpoint: {}",
+                services, parameters.getEthereumJsonRpcEndpoint());
         log.debug("ipfsRpcEndpoint: {}, getterEthereumAddress: {}, registryAddress: {}",
                 parameters.getIpfsRpcEndpoint(), parameters.getGetterEthereumAddress(),
                 (parameters.getRegistryAddress() == null ? "<network default>" : parameters.getRegistryAddress()));
@@ -100,7 +130,7 @@ public class ServiceApiGetter {
                 registry = getRegistryContract(web3j);
                 ipfs = new IPFS(parameters.getIpfsRpcEndpoint().getHost(),
                         parameters.getIpfsRpcEndpoint().getPort());
-                runInternal();
+                runInternal(services);
             } catch (IOException | ClientConnectionException e) {
                 throw new PluginException("Could not perform operation on Ethereum RPC endpoint provided: "
                         + parameters.getEthereumJsonRpcEndpoint(), e);
@@ -108,19 +138,118 @@ public class ServiceApiGetter {
                 web3j.shutdown();
             }
         } else {
-            runInternal();
+            runInternal(services);
         }
     }
 
-    private void runInternal() throws PluginException {
+    private List<ServiceApi> getServiceApis() {
+        List<ServiceApi> services = new ArrayList<>();
+        if (parameters.getOrgId() != null || parameters.getServiceId() != null) {
+            services.add(new ServiceApi(parameters.getOrgId(), parameters.getServiceId(),
+                        parameters.getOutputDir(), parameters.getJavaPackage()));
+        }
+        if (parameters.getServices() != null) {
+            for (ServiceApi service : parameters.getServices()) {
+                services.add(new ServiceApi(service.getOrgId(), service.getServiceId(),
+                            service.getOutputDir() != null ? service.getOutputDir() : parameters.getOutputDir(),
+                            service.getJavaPackage() != null ? service.getJavaPackage() : parameters.getJavaPackage()));
+            }
+        }
+        return services;
+    }
+
+    private void runInternal(List<ServiceApi> services) throws PluginException {
+        if (services.isEmpty()) {
+            throw new PluginException("Neither orgId and serviceId nor services are set");
+        }
+        for (ServiceApi service : services) {
+            if (service.getOrgId() == null || service.getServiceId() == null
+                    || service.getOutputDir() == null || service.getJavaPackage() == null) {
+                throw new PluginException("orgId, serviceId, outputDir and javaPackage should be set for service: " + service);
+            }
+        }
+
         RegistryContract registryContract = new RegistryContract(registry);
         IpfsMetadataStorage metadataStorage = new IpfsMetadataStorage(ipfs);
-        RegistryMetadataProvider metadataProvider = new RegistryMetadataProvider(
-                parameters.getOrgId(), parameters.getServiceId(),
-                registryContract, metadataStorage);
-        ServiceMetadata metadata = metadataProvider.getServiceMetadata();
-        log.debug("service metadata: {}", metadata);
-        loadAndUnpackApi(metadataStorage, metadata.getModelIpfsHash());
+        List<List<ServiceApi>> groups = groupByOutputDir(services);
+        if (groups.size() == 1) {
+            for (ServiceApi service : groups.get(0)) {
+                getApi(service, registryContract, metadataStorage);
+            }
+            return;
+        }
+
+        // services share the same Ethereum and IPFS clients and are
+        // downloaded concurrently, services which write into the same output
+        // directory are processed sequentially
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(groups.size(), MAX_PARALLEL_DOWNLOADS));
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (List<ServiceApi> group : groups) {
+                futures.add(executor.submit(() -> {
+                    for (ServiceApi service : group) {
+                        getApi(service, registryContract, metadataStorage);
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < futures.size(); ++i) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof PluginException) {
+                        throw (PluginException) e.getCause();
+                    }
+                    throw new PluginException("Could not get API of services: " + groups.get(i), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new PluginException("Interrupted while getting API", e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Split services into groups which output directories don't overlap:
+     * services with the same output directory or with output directory
+     * nested into another one are put into the same group.
+     */
+    private static List<List<ServiceApi>> groupByOutputDir(List<ServiceApi> services)
+            throws PluginException {
+        List<File> roots = new ArrayList<>();
+        List<List<ServiceApi>> groups = new ArrayList<>();
+        List<ServiceApi> sorted = new ArrayList<>(services);
+        Map<ServiceApi, File> dirs = new HashMap<>();
+        for (ServiceApi service : services) {
+            try {
+                dirs.put(service, service.getOutputDir().getCanonicalFile());
+            } catch (IOException e) {
+                throw new PluginException("Could not resolve output directory of service: " + service, e);
+            }
+        }
+        // parent directory goes before nested ones
+        sorted.sort(Comparator.comparingInt(service -> dirs.get(service).getPath().length()));
+        for (ServiceApi service : sorted) {
+            File dir = dirs.get(service);
+            int group = -1;
+            for (int i = 0; i < roots.size(); ++i) {
+                String root = roots.get(i).getPath();
+                if (dir.getPath().equals(root) || dir.getPath().startsWith(root + File.separator)) {
+                    group = i;
+                    break;
+                }
+            }
+            if (group == -1) {
+                roots.add(dir);
+                groups.add(new ArrayList<>());
+                group = groups.size() - 1;
+            }
+            groups.get(group).add(service);
+        }
+        return groups;
     }
 
     private Registry getRegistryContract(Web3j web3j) throws PluginException {
@@ -142,31 +271,88 @@ public class ServiceApiGetter {
         return registry;
     }
 
-    private void loadAndUnpackApi(IpfsMetadataStorage metadataStorage, String ipfsHash) throws PluginException {
-        URI uri;
+    private void getApi(ServiceApi service, RegistryContract registryContract,
+            MetadataStorage metadataStorage) throws PluginException {
+        RegistryMetadataProvider metadataProvider = new RegistryMetadataProvider(
+                service.getOrgId(), service.getServiceId(),
+                registryContract, metadataStorage);
+        ServiceMetadata metadata = metadataProvider.getServiceMetadata();
+        log.debug("service metadata: {}", metadata);
+
+        String ipfsHash = metadata.getModelIpfsHash();
+        Multihash hash;
         try {
-            uri = new URI("ipfs://" + ipfsHash);
-            log.info("IPFS uri: {}", uri);
-        } catch (URISyntaxException e) {
+            hash = Multihash.fromBase58(ipfsHash);
+            log.info("IPFS hash: {}", hash);
+        } catch (RuntimeException e) {
             throw new PluginException("Incorrect IPFS hash in metadata: " + ipfsHash, e);
         }
-        byte[] apiTar = metadataStorage.get(uri);
-        log.info("API size {} bytes", apiTar.length);
-        unpackApi(apiTar);
+
+        File outputDir = service.getOutputDir();
+        String marker = hash.toBase58() + " " + service.getJavaPackage();
+        File markerFile = new File(outputDir, API_MARKER_FILE_PREFIX
+                + service.getOrgId() + "-" + service.getServiceId());
+        try {
+            if (markerFile.isFile() && marker.equals(readString(markerFile))) {
+                log.info("API of {} is up to date, skip downloading", service.getServiceId());
+                return;
+            }
+
+            File cachedApi = new File(parameters.getApiCacheDir(), hash.toBase58());
+            if (cachedApi.isDirectory()) {
+                log.info("API is found in cache: {}", cachedApi);
+            } else {
+                loadAndUnpackApi(hash, cachedApi);
+            }
+            copyApi(cachedApi.toPath(), outputDir.toPath(), service.getJavaPackage());
+            Files.write(markerFile.toPath(), marker.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new PluginException("Could not copy API into " + outputDir, e);
+        }
+    }
+
+    private void loadAndUnpackApi(Multihash hash, File cachedApi) throws PluginException, IOException {
+        File cacheDir = cachedApi.getParentFile();
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            throw new IOException("failed to create directory " + cacheDir);
+        }
+        // archive is unpacked into temporary directory which is renamed when
+        // it is complete, so concurrent builds never see partial API
+        Path tempDir = Files.createTempDirectory(cacheDir.toPath(), hash.toBase58() + ".");
+        try {
+            // archive is unpacked while it is downloaded to not keep it in memory
+            try (InputStream apiTar = new BufferedInputStream(ipfs.catStream(hash))) {
+                unpackApi(apiTar, tempDir.toFile());
+            } catch (IOException e) {
+                throw new PluginException("Could not download API", e);
+            }
+            if (!tempDir.toFile().renameTo(cachedApi) && !cachedApi.isDirectory()) {
+                throw new IOException("failed to rename " + tempDir + " to " + cachedApi);
+            }
+            log.info("API is saved in cache: {}", cachedApi);
+        } finally {
+            deleteRecursively(tempDir);
+        }
     }
 
-    private void unpackApi(byte[] apiTar) throws PluginException {
-        ArchiveInputStream is = new TarArchiveInputStream(
-                new ByteArrayInputStream(apiTar));
+    private void unpackApi(InputStream apiTar, File targetDir) throws PluginException {
+        ArchiveInputStream is = new TarArchiveInputStream(apiTar);
         try {
+            File target = targetDir.getCanonicalFile();
+            String targetPath = target.getPath() + File.separator;
             ArchiveEntry entry = null;
             while ((entry = is.getNextEntry()) != null) {
                 if (!is.canReadEntryData(entry)) {
                     throw new PluginException("Cannot read entry in API archive: " + entry);
                 }
                 log.info("Unpacking {}", entry.getName());
-                String name = new File(parameters.getOutputDir(), entry.getName()).getAbsolutePath();
-                File f = new File(name);
+                File f = new File(targetDir, entry.getName()).getCanonicalFile();
+                // entry with ".." or absolute path can overwrite files
+                // outside of the target directory
+                if (!f.equals(target) && !f.getPath().startsWith(targetPath)) {
+                    throw new PluginException("API archive entry is outside of the target directory: "
+                            + entry.getName());
+                }
                 if (entry.isDirectory()) {
                     if (!f.isDirectory() && !f.mkdirs()) {
                         throw new IOException("failed to create directory " + f);
@@ -178,10 +364,6 @@ public class ServiceApiGetter {
                     }
                     try (OutputStream o = Files.newOutputStream(f.toPath())) {
                         IOUtils.copy(is, o);
-                        if (name.endsWith(".proto")) {
-                            log.debug("Adding package to protobuf file: {}", name);
-                            o.write(("\noption java_package = \"" + parameters.getJavaPackage() + "\";\n").getBytes());
-                        }
                     }
                 }
             }
@@ -196,4 +378,41 @@ public class ServiceApiGetter {
         }
     }
 
+    private void copyApi(Path from, Path to, String javaPackage) throws IOException {
+        try (Stream<Path> files = Files.walk(from)) {
+            for (Path source : (Iterable<Path>) files::iterator) {
+                Path target = to.resolve(from.relativize(source).toString());
+                if (Files.isDirectory(source)) {
+                    Files.createDirectories(target);
+                    continue;
+                }
+                log.info("Copying {}", target);
+                try (OutputStream o = Files.newOutputStream(target)) {
+                    Files.copy(source, o);
+                    if (target.toString().endsWith(".proto")) {
+                        log.debug("Adding package to protobuf file: {}", target);
+                        o.write(("\noption java_package = \"" + javaPackage + "\";\n").getBytes());
+                    }
+                }
+            }
+        }
+    }
+
+    private static String readString(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder())
+                .collect(Collectors.toList());
+            for (Path file : paths) {
+                Files.delete(file);
+            }
+        }
+    }
+
 }
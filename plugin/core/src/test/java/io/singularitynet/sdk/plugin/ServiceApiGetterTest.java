@@ -7,6 +7,8 @@ import org.junit.rules.ExpectedException;
 
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
@@ -14,10 +16,13 @@ import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import io.ipfs.api.IPFS;
 import io.ipfs.multihash.Multihash;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.web3j.protocol.core.RemoteCall;
 import org.web3j.tuples.generated.Tuple4;
 
@@ -28,6 +33,7 @@ public class ServiceApiGetterTest {
 
     private final static String ORG_ID = "example-org";
     private final static String SERVICE_ID = "example-service";
+    private final static String OTHER_SERVICE_ID = "other-service";
     private final static String METADATA_HASH = "QmV4HtrgRwUVHCyDBvkeXFPPCsgweWA86uCj328wZq5Y2q";
     private final static String MODEL_IPFS_HASH = "QmPKvg2rMmACYJsVQfAa4uLB5rVV7fXF3xuet95Zinxct9";
 
@@ -51,11 +57,23 @@ public class ServiceApiGetterTest {
                                     Collections.emptyList());
                         }));
 
+        when(registry.getServiceRegistrationById(
+                    eq(Utils.strToBytes32(ORG_ID)),
+                    eq(Utils.strToBytes32(OTHER_SERVICE_ID))))
+            .thenReturn(new RemoteCall<>(
+                        () -> {
+                            return new Tuple4<>(true,
+                                    Utils.strToBytes32(OTHER_SERVICE_ID),
+                                    Utils.strToBytes("ipfs://" + METADATA_HASH),
+                                    Collections.emptyList());
+                        }));
+
         ipfs = mock(IPFS.class);
         when(ipfs.cat(eq(Multihash.fromBase58(METADATA_HASH))))
             .thenReturn(readResource("/example-service-metadata.json"));
-        when(ipfs.cat(eq(Multihash.fromBase58(MODEL_IPFS_HASH))))
-            .thenReturn(readResource("/example-service-model.tar"));
+        when(ipfs.catStream(eq(Multihash.fromBase58(MODEL_IPFS_HASH))))
+            .thenAnswer(invocation -> new ByteArrayInputStream(
+                        readResource("/example-service-model.tar")));
     }
 
     private static byte[] readResource(String name) {
@@ -81,20 +99,139 @@ public class ServiceApiGetterTest {
     @Test
     public void getServiceApi() throws IOException, PluginException {
         File outputDir = testFolder.newFolder("output");
+        ServiceApiGetter getter = new ServiceApiGetter(registry, ipfs, newParameters(outputDir));
+
+        getter.run();
+
+        assertEquals("API Protobuf file",
+                readFileAsString(getResourcePath("/example_service.proto")),
+                readFileAsString(outputDir.toPath().resolve("example_service.proto")));
+    }
+
+    @Test
+    public void cachedApiIsNotDownloadedAgain() throws IOException, PluginException {
+        File firstDir = testFolder.newFolder("first");
+        File secondDir = testFolder.newFolder("second");
+
+        new ServiceApiGetter(registry, ipfs, newParameters(firstDir)).run();
+        new ServiceApiGetter(registry, ipfs, newParameters(secondDir)).run();
+
+        assertEquals("API Protobuf file",
+                readFileAsString(getResourcePath("/example_service.proto")),
+                readFileAsString(secondDir.toPath().resolve("example_service.proto")));
+        verify(ipfs, times(1)).catStream(any());
+    }
+
+    @Test
+    public void upToDateApiIsNotRewritten() throws IOException, PluginException {
+        File outputDir = testFolder.newFolder("output");
+        Path protoFile = outputDir.toPath().resolve("example_service.proto");
+        new ServiceApiGetter(registry, ipfs, newParameters(outputDir)).run();
+        Files.write(protoFile, Utils.strToBytes("modified"));
+
+        new ServiceApiGetter(registry, ipfs, newParameters(outputDir)).run();
+
+        assertEquals("API Protobuf file", "modified", readFileAsString(protoFile));
+    }
+
+    @Test
+    public void getApiOfSeveralServices() throws IOException, PluginException {
+        File firstDir = testFolder.newFolder("first");
+        File secondDir = testFolder.newFolder("second");
+        File apiCacheDir = new File(testFolder.getRoot(), "api-cache");
         ServiceApiGetter.Parameters params = new ServiceApiGetter.DefaultParameters() {
-            public String getOrgId() { return ORG_ID; }
-            public String getServiceId() { return SERVICE_ID; }
+            public String getOrgId() { return null; }
+            public String getServiceId() { return null; }
+            public File getOutputDir() { return firstDir; }
+            public String getJavaPackage() { return "org.example.exampleservice"; }
+            public URL getEthereumJsonRpcEndpoint() { return Utils.wrapExceptions(() -> new URL("http://localhost:8545")); }
+            public File getApiCacheDir() { return apiCacheDir; }
+            public List<ServiceApi> getServices() {
+                return Arrays.asList(
+                        new ServiceApi(ORG_ID, SERVICE_ID, null, null),
+                        new ServiceApi(ORG_ID, OTHER_SERVICE_ID, secondDir, null));
+            }
+        };
+
+        new ServiceApiGetter(registry, ipfs, params).run();
+
+        assertEquals("First service API Protobuf file",
+                readFileAsString(getResourcePath("/example_service.proto")),
+                readFileAsString(firstDir.toPath().resolve("example_service.proto")));
+        assertEquals("Second service API Protobuf file",
+                readFileAsString(getResourcePath("/example_service.proto")),
+                readFileAsString(secondDir.toPath().resolve("example_service.proto")));
+    }
+
+    @Test
+    public void servicesWithSameOutputDirAreProcessedSequentially() throws IOException, PluginException {
+        File outputDir = testFolder.newFolder("output");
+        File nestedDir = new File(outputDir, "nested");
+        File apiCacheDir = new File(testFolder.getRoot(), "api-cache");
+        ServiceApiGetter.Parameters params = new ServiceApiGetter.DefaultParameters() {
+            public String getOrgId() { return null; }
+            public String getServiceId() { return null; }
             public File getOutputDir() { return outputDir; }
             public String getJavaPackage() { return "org.example.exampleservice"; }
             public URL getEthereumJsonRpcEndpoint() { return Utils.wrapExceptions(() -> new URL("http://localhost:8545")); }
+            public File getApiCacheDir() { return apiCacheDir; }
+            public List<ServiceApi> getServices() {
+                return Arrays.asList(
+                        new ServiceApi(ORG_ID, SERVICE_ID, null, null),
+                        new ServiceApi(ORG_ID, OTHER_SERVICE_ID, nestedDir, null));
+            }
         };
-        ServiceApiGetter getter = new ServiceApiGetter(registry, ipfs, params);
 
-        getter.run();
+        new ServiceApiGetter(registry, ipfs, params).run();
 
-        assertEquals("API Protobuf file",
+        assertEquals("First service API Protobuf file",
                 readFileAsString(getResourcePath("/example_service.proto")),
                 readFileAsString(outputDir.toPath().resolve("example_service.proto")));
+        assertEquals("Second service API Protobuf file",
+                readFileAsString(getResourcePath("/example_service.proto")),
+                readFileAsString(nestedDir.toPath().resolve("example_service.proto")));
+        // second service finds API in cache because it is processed after
+        // the first one
+        verify(ipfs, times(1)).catStream(any());
+    }
+
+    @Test
+    public void archiveEntryOutsideOfTargetDirIsRejected() throws IOException {
+        File outputDir = testFolder.newFolder("output");
+        byte[] content = Utils.strToBytes("evil");
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream os = new TarArchiveOutputStream(tar)) {
+            TarArchiveEntry entry = new TarArchiveEntry("../../evil.proto");
+            entry.setSize(content.length);
+            os.putArchiveEntry(entry);
+            os.write(content);
+            os.closeArchiveEntry();
+        }
+        when(ipfs.catStream(eq(Multihash.fromBase58(MODEL_IPFS_HASH))))
+            .thenAnswer(invocation -> new ByteArrayInputStream(tar.toByteArray()));
+
+        try {
+            new ServiceApiGetter(registry, ipfs, newParameters(outputDir)).run();
+            fail("PluginException is expected");
+        } catch (PluginException e) {
+            assertTrue("Error message: " + e.getMessage(),
+                    e.getMessage().contains("outside of the target directory"));
+        }
+
+        assertFalse("File outside of target directory",
+                new File(testFolder.getRoot(), "evil.proto").exists());
+    }
+
+    private ServiceApiGetter.Parameters newParameters(File outputDir) {
+        File apiCacheDir = new File(testFolder.getRoot(), "api-cache");
+        return new ServiceApiGetter.DefaultParameters() {
+            public String getOrgId() { return ORG_ID; }
+            public String getServiceId() { return SERVICE_ID; }
+            public File getOutputDir() { return outputDir; }
+            public String getJavaPackage() { return "org.example.exampleservice"; }
+            public URL getEthereumJsonRpcEndpoint() { return Utils.wrapExceptions(() -> new URL("http://localhost:8545")); }
+            public File getApiCacheDir() { return apiCacheDir; }
+        };
     }
 
     @Rule
@@ -3,14 +3,22 @@ package io.singularitynet.sdk.gradle;
 import org.gradle.api.Task;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectories;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.TaskAction;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 import lombok.Setter;
 
 import io.singularitynet.sdk.common.Utils;
+import io.singularitynet.sdk.plugin.ServiceApi;
 import io.singularitynet.sdk.plugin.ServiceApiGetter;
 import io.singularitynet.sdk.plugin.PluginException;
 
@@ -32,11 +40,16 @@ public class GetSingularityNetServiceApi extends DefaultTask implements ServiceA
     private String getterEthereumAddress;
     @Setter
     private String registryAddress;
+    @Setter
+    private File apiCacheDir;
+    @Setter
+    private List<ServiceApi> services = new ArrayList<>();
 
     public GetSingularityNetServiceApi() {
         ipfsRpcEndpoint = Utils.strToUrl(ServiceApiGetter.DEFAULT_IPFS_ENDPOINT);
         getterEthereumAddress = ServiceApiGetter.DEFAULT_GETTER_ETHEREUM_ADDRESS;
         registryAddress = ServiceApiGetter.DEFAULT_REGISTRY_ADDRESS;
+        apiCacheDir = ServiceApiGetter.DEFAULT_API_CACHE_DIR;
 
         for (Task task : getProject().getTasksByName("preBuild", false)) {
             task.dependsOn(this);
@@ -44,11 +57,13 @@ public class GetSingularityNetServiceApi extends DefaultTask implements ServiceA
     }
 
     @Input
+    @Optional
     public String getOrgId() {
         return orgId;
     }
 
     @Input
+    @Optional
     public String getServiceId() {
         return serviceId;
     }
@@ -59,6 +74,7 @@ public class GetSingularityNetServiceApi extends DefaultTask implements ServiceA
     }
 
     @Input
+    @Optional
     public String getJavaPackage() {
         return javaPackage;
     }
@@ -83,6 +99,52 @@ public class GetSingularityNetServiceApi extends DefaultTask implements ServiceA
         return registryAddress;
     }
 
+    @Internal
+    public File getApiCacheDir() {
+        return apiCacheDir;
+    }
+
+    @Input
+    public List<ServiceApi> getServices() {
+        return services;
+    }
+
+    /**
+     * Return output directories of the services which don't use the task
+     * output directory, so Gradle tracks their content as the task outputs.
+     * @return list of the services output directories.
+     */
+    @OutputDirectories
+    public List<File> getServiceOutputDirs() {
+        return services.stream()
+            .map(ServiceApi::getOutputDir)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Add service to download API of. API is written into the task output
+     * directory.
+     * @param orgId organization id.
+     * @param serviceId service id.
+     * @param javaPackage java package to be used for generated classes.
+     */
+    public void service(String orgId, String serviceId, String javaPackage) {
+        services.add(new ServiceApi(orgId, serviceId, null, javaPackage));
+    }
+
+    /**
+     * Add service to download API of into the separate directory.
+     * @param orgId organization id.
+     * @param serviceId service id.
+     * @param outputDir directory to write service API into.
+     * @param javaPackage java package to be used for generated classes.
+     */
+    public void service(String orgId, String serviceId, File outputDir,
+            String javaPackage) {
+        services.add(new ServiceApi(orgId, serviceId, outputDir, javaPackage));
+    }
+
     @TaskAction
     void getSingularityNetServiceApi() {
         try {
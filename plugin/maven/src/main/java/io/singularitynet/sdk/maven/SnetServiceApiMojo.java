@@ -9,8 +9,10 @@ import org.apache.maven.plugins.annotations.Parameter;
 
 import java.io.File;
 import java.net.URL;
+import java.util.List;
 import lombok.Getter;
 
+import io.singularitynet.sdk.plugin.ServiceApi;
 import io.singularitynet.sdk.plugin.ServiceApiGetter;
 import io.singularitynet.sdk.plugin.PluginException;
 
@@ -18,11 +20,11 @@ import io.singularitynet.sdk.plugin.PluginException;
 public class SnetServiceApiMojo extends AbstractMojo implements ServiceApiGetter.Parameters {
 
     @Getter
-    @Parameter(property = "orgId", required = true)
+    @Parameter(property = "orgId", required = false)
     private String orgId;
 
     @Getter
-    @Parameter(property = "serviceId", required = true)
+    @Parameter(property = "serviceId", required = false)
     private String serviceId;
 
     @Getter
@@ -30,7 +32,7 @@ public class SnetServiceApiMojo extends AbstractMojo implements ServiceApiGetter
     private File outputDir;
 
     @Getter
-    @Parameter(property = "javaPackage", required = true)
+    @Parameter(property = "javaPackage", required = false)
     private String javaPackage;
 
     @Getter
@@ -49,6 +51,14 @@ public class SnetServiceApiMojo extends AbstractMojo implements ServiceApiGetter
     @Parameter(defaultValue = ServiceApiGetter.DEFAULT_REGISTRY_ADDRESS, property = "registryAddress", required = false)
     private String registryAddress;
 
+    @Getter
+    @Parameter(defaultValue = "${user.home}/.snet-sdk/api", property = "apiCacheDir", required = true)
+    private File apiCacheDir;
+
+    @Getter
+    @Parameter(required = false)
+    private List<ServiceApi> services;
+
     public void execute() throws MojoExecutionException {
         try {
             new ServiceApiGetter(this).run();
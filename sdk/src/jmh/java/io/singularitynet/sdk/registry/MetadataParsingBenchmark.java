@@ -0,0 +1,70 @@
+package io.singularitynet.sdk.registry;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares parsing of the service metadata by the streaming type adapters
+ * directly from bytes with parsing through the intermediate String and JSON
+ * tree. Run it from the sdk directory, allocation rate is reported by the
+ * GC profiler:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetadataParsingBenchmark {
+
+    @Param({ "1", "16" })
+    private int groups;
+
+    private byte[] metadata;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder()
+            .append("{\"version\": 1, \"display_name\": \"Example Service\",")
+            .append("\"encoding\": \"proto\", \"service_type\": \"grpc\",")
+            .append("\"model_ipfs_hash\": \"QmRmYMW3DLLpdux2CrE86dWobpCGYCDtYXqr9cbjMwLL2g\",")
+            .append("\"mpe_address\": \"0x5C7a4290F6F8FF64c69eEffDFAFc8644A4Ec3a4E\",")
+            .append("\"groups\": [");
+        for (int i = 0; i < groups; ++i) {
+            if (i > 0) {
+                json.append(",");
+            }
+            json.append("{\"group_name\": \"group_").append(i).append("\",")
+                .append("\"pricing\": [{\"price_model\": \"fixed_price\", \"price_in_cogs\": 1, \"default\": true}],")
+                .append("\"endpoints\": [\"https://example-").append(i).append(".service.io:8088\"],")
+                .append("\"group_id\": \"7G8/7SPnr5qLDdHOdqsRolu8wx1eQaAmzGwsnYUUI8c=\",")
+                .append("\"free_calls\": 15,")
+                .append("\"free_call_signer_address\": \"0x592E3C0f3B038A0D673F19a18a773F993d4b2610\",")
+                .append("\"daemon_addresses\": [\"0x3b2b3C2e2E7C93db335E69D827F3CC4bC2A2A2cB\"]}");
+        }
+        json.append("],")
+            .append("\"service_description\": {\"url\": \"https://example.service.users.guide\",")
+            .append("\"description\": \"Example service description\"},")
+            .append("\"tags\": [\"example\", \"test\"]}");
+        metadata = json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ServiceMetadata streaming() {
+        return RegistryMetadataProvider.parseServiceMetadata(metadata);
+    }
+
+    @Benchmark
+    public ServiceMetadata tree() {
+        JsonElement tree = new JsonParser().parse(
+                new String(metadata, StandardCharsets.UTF_8));
+        return RegistryMetadataProvider.GSON.fromJson(tree, ServiceMetadata.class);
+    }
+
+}
@@ -1,5 +1,8 @@
 package io.singularitynet.sdk.client;
 
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Consumer;
 import io.grpc.*;
@@ -9,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import io.singularitynet.sdk.daemon.DaemonConnection;
 import io.singularitynet.sdk.payment.Payment;
 import io.singularitynet.sdk.registry.MetadataProvider;
+import io.singularitynet.sdk.mpe.EscrowPayment;
 import io.singularitynet.sdk.mpe.PaymentChannelStateProvider;
 import io.singularitynet.sdk.freecall.FreeCallStateService;
 
@@ -98,6 +102,7 @@ public class BaseServiceClient implements ServiceClient {
 
     @Override
     public void close() {
+        paymentStrategy.release(this);
         daemonConnection.shutdownNow();
         log.info("Service client shutdown");
     }
@@ -106,7 +111,11 @@ public class BaseServiceClient implements ServiceClient {
      * Class responsibility is injecting payment information into gRPC metadata
      * before making remote gRPC call. It uses PaymentStrategy instance to
      * calculate payment and ClientCallWrapper instance to inject payment into
-     * gRPC metadata.
+     * gRPC metadata. Payment is calculated asynchronously and real call is
+     * started by DelayedClientCall after payment is ready. Blocking
+     * operations of the payment strategy are executed using the call options
+     * executor if it is set (blocking stubs set it to make calls on the
+     * caller thread) or SDK executor otherwise.
      */
     private static class PaymentClientInterceptor implements ClientInterceptor {
 
@@ -125,19 +134,89 @@ public class BaseServiceClient implements ServiceClient {
                 MethodDescriptor<ReqT,RespT> method,
                 CallOptions callOptions,
                 Channel next) {
-            log.debug("Calculating payment");
-            final Payment payment = paymentStrategy.getPayment(
-                    new GrpcCallParameters<>(method, callOptions, next),
-                    serviceClient);
-            log.debug("Payment calculated: {}", payment);
-            if (payment == Payment.INVALID_PAYMENT) {
-                // TODO: throw exception which explains the reason of invalid
-                // payment correctly. For instance when number of free calls is
-                // zero user should know it.
-                throw new IllegalStateException("No payment returned by PaymentStrategy");
+            Executor executor = callOptions.getExecutor() != null ?
+                callOptions.getExecutor() : serviceClient.getSdk().getExecutor();
+            return new DelayedClientCall<>(() -> {
+                log.debug("Calculating payment");
+                return paymentStrategy.getPaymentAsync(
+                        new GrpcCallParameters<>(method, callOptions, next),
+                        serviceClient, executor)
+                    .thenApply(payment -> {
+                        log.debug("Payment calculated: {}", payment);
+                        if (payment == Payment.INVALID_PAYMENT) {
+                            // TODO: return status which explains the reason of
+                            // invalid payment correctly. For instance when
+                            // number of free calls is zero user should know it.
+                            throw Status.FAILED_PRECONDITION
+                                .withDescription("No payment returned by PaymentStrategy")
+                                .asRuntimeException();
+                        }
+                        return new ClientCallWrapper<>(next.newCall(method, callOptions),
+                                headers -> payment.toMetadata(headers),
+                                listener -> wrapListener(listener, payment));
+                    });
+            }, callOptions.getExecutor());
+        }
+
+        private <RespT> ClientCall.Listener<RespT> wrapListener(
+                ClientCall.Listener<RespT> listener, Payment payment) {
+            if (!(payment instanceof EscrowPayment)) {
+                return listener;
+            }
+            return new EscrowPaymentStatusListener<>(listener,
+                    (EscrowPayment) payment,
+                    serviceClient.getPaymentChannelStateProvider(),
+                    serviceClient.getSdk());
+        }
+
+    }
+
+    /**
+     * Status codes which are returned by the daemon when escrow payment is
+     * not accepted.
+     */
+    private static final Set<Status.Code> PAYMENT_ERROR_CODES = EnumSet.of(
+            Status.Code.UNAUTHENTICATED, Status.Code.FAILED_PRECONDITION);
+
+    /**
+     * Response listener which reports the result of the escrow payment to the
+     * payment channel state provider. Daemon commits the payment only when
+     * call is completed successfully, it rolls back the payment on the call
+     * error. Rejected payment also resets the amount allocated for the
+     * channel, amount of the call failed by any other reason is rolled back.
+     */
+    private static class EscrowPaymentStatusListener<RespT>
+        extends ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT> {
+
+        private final EscrowPayment payment;
+        private final PaymentChannelStateProvider channelStateProvider;
+        private final Sdk sdk;
+
+        public EscrowPaymentStatusListener(ClientCall.Listener<RespT> delegate,
+                EscrowPayment payment,
+                PaymentChannelStateProvider channelStateProvider,
+                Sdk sdk) {
+            super(delegate);
+            this.payment = payment;
+            this.channelStateProvider = channelStateProvider;
+            this.sdk = sdk;
+        }
+
+        @Override
+        public void onClose(Status status, Metadata trailers) {
+            if (status.isOk()) {
+                channelStateProvider.paymentAccepted(payment);
+            } else if (PAYMENT_ERROR_CODES.contains(status.getCode())) {
+                log.warn("Payment is not accepted by daemon, status: {}, payment: {}",
+                        status, payment);
+                channelStateProvider.paymentRejected(payment);
+                sdk.getPaymentChannelAmountAllocator()
+                    .reset(sdk.getMultiPartyEscrowAddress(), payment);
+            } else {
+                sdk.getPaymentChannelAmountAllocator()
+                    .release(sdk.getMultiPartyEscrowAddress(), payment);
             }
-            return new ClientCallWrapper<>(next.newCall(method, callOptions),
-                    headers -> payment.toMetadata(headers));
+            super.onClose(status, trailers);
         }
 
     }
@@ -146,17 +225,21 @@ public class BaseServiceClient implements ServiceClient {
      * This class is io.grpc.ClientCall wrapper injecting custom gRPC metadata
      * before client call. Class overrides start() method and updates metadata
      * before passing it to wrapped io.grpc.ClientCall instance. This is the
-     * only way of metadata injection in gRPC client call interceptor. 
+     * only way of metadata injection in gRPC client call interceptor. Response
+     * listener is wrapped in start() as well to track the call result.
      */
     private static class ClientCallWrapper<ReqT, RespT> extends ClientCall<ReqT, RespT> {
 
         private final ClientCall<ReqT, RespT> delegate;
         private Consumer<Metadata> metadataUpdater;
+        private Function<ClientCall.Listener<RespT>, ClientCall.Listener<RespT>> listenerWrapper;
 
         public ClientCallWrapper(ClientCall<ReqT, RespT> delegate,
-                Consumer<Metadata> metadataUpdater) {
+                Consumer<Metadata> metadataUpdater,
+                Function<ClientCall.Listener<RespT>, ClientCall.Listener<RespT>> listenerWrapper) {
             this.delegate = delegate;
             this.metadataUpdater = metadataUpdater;
+            this.listenerWrapper = listenerWrapper;
         }
 
         @Override
@@ -197,7 +280,7 @@ public class BaseServiceClient implements ServiceClient {
         @Override
         public void start(ClientCall.Listener<RespT> responseListener, Metadata headers) {
             metadataUpdater.accept(headers);
-            delegate.start(responseListener, headers);
+            delegate.start(listenerWrapper.apply(responseListener), headers);
         }
 
     }
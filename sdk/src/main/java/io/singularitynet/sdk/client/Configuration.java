@@ -1,8 +1,12 @@
 package io.singularitynet.sdk.client;
 
+import java.io.File;
 import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -51,6 +55,17 @@ public class Configuration {
      */
     public static final BigInteger DEFAULT_GAS_LIMIT = new BigInteger("200000");
 
+    /**
+     * Default delay before the same metadata is requested from the next
+     * IPFS endpoint.
+     */
+    public static final long DEFAULT_IPFS_HEDGE_DELAY_MILLIS = 500;
+
+    /**
+     * Default number of gRPC connections opened to the service daemon.
+     */
+    public static final int DEFAULT_DAEMON_CONNECTION_POOL_SIZE = 1;
+
     /**
      * Type of the identity.
      */
@@ -74,6 +89,10 @@ public class Configuration {
     private final Optional<Address> multiPartyEscrowAddress;
     private final BigInteger gasPrice;
     private final BigInteger gasLimit;
+    private final Optional<File> cacheDirectory;
+    private final List<URL> ipfsGatewayEndpoints;
+    private final long ipfsHedgeDelayMillis;
+    private final int daemonConnectionPoolSize;
 
     public static Builder newBuilder() {
         return new Builder();
@@ -93,6 +112,11 @@ public class Configuration {
         this.multiPartyEscrowAddress = builder.multiPartyEscrowAddress;
         this.gasPrice = builder.gasPrice;
         this.gasLimit = builder.gasLimit;
+        this.cacheDirectory = builder.cacheDirectory;
+        this.ipfsGatewayEndpoints = Collections.unmodifiableList(
+                new ArrayList<>(builder.ipfsGatewayEndpoints));
+        this.ipfsHedgeDelayMillis = builder.ipfsHedgeDelayMillis;
+        this.daemonConnectionPoolSize = builder.daemonConnectionPoolSize;
     }
 
     /**
@@ -158,6 +182,36 @@ public class Configuration {
         return gasLimit;
     }
 
+    /**
+     * @return directory to keep SDK caches between restarts.
+     */
+    public Optional<File> getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * @return IPFS HTTP gateway endpoints which are used in addition to the
+     * IPFS RPC endpoint to read metadata.
+     */
+    public List<URL> getIpfsGatewayEndpoints() {
+        return ipfsGatewayEndpoints;
+    }
+
+    /**
+     * @return delay in milliseconds before the same metadata is requested
+     * from the next IPFS endpoint.
+     */
+    public long getIpfsHedgeDelayMillis() {
+        return ipfsHedgeDelayMillis;
+    }
+
+    /**
+     * @return number of gRPC connections opened to the service daemon.
+     */
+    public int getDaemonConnectionPoolSize() {
+        return daemonConnectionPoolSize;
+    }
+
     public static class Builder {
 
         private URL ethereumJsonRpcEndpoint;
@@ -169,6 +223,10 @@ public class Configuration {
         private Optional<Address> multiPartyEscrowAddress;
         private BigInteger gasPrice;
         private BigInteger gasLimit;
+        private Optional<File> cacheDirectory;
+        private List<URL> ipfsGatewayEndpoints;
+        private long ipfsHedgeDelayMillis;
+        private int daemonConnectionPoolSize;
 
         private Builder() {
             this.ipfsEndpoint = DEFAULT_IPFS_ENDPOINT;
@@ -178,6 +236,10 @@ public class Configuration {
             this.multiPartyEscrowAddress = Optional.<Address>empty();
             this.gasPrice = DEFAULT_GAS_PRICE; 
             this.gasLimit = DEFAULT_GAS_LIMIT;
+            this.cacheDirectory = Optional.<File>empty();
+            this.ipfsGatewayEndpoints = new ArrayList<>();
+            this.ipfsHedgeDelayMillis = DEFAULT_IPFS_HEDGE_DELAY_MILLIS;
+            this.daemonConnectionPoolSize = DEFAULT_DAEMON_CONNECTION_POOL_SIZE;
         }
 
         private Builder(Configuration object) {
@@ -190,6 +252,10 @@ public class Configuration {
             this.multiPartyEscrowAddress = object.multiPartyEscrowAddress;
             this.gasPrice = object.gasPrice;
             this.gasLimit = object.gasLimit;
+            this.cacheDirectory = object.cacheDirectory;
+            this.ipfsGatewayEndpoints = new ArrayList<>(object.ipfsGatewayEndpoints);
+            this.ipfsHedgeDelayMillis = object.ipfsHedgeDelayMillis;
+            this.daemonConnectionPoolSize = object.daemonConnectionPoolSize;
         }
 
         /**
@@ -377,6 +443,94 @@ public class Configuration {
             return gasLimit;
         }
 
+        /**
+         * Optional. Set directory to keep SDK caches between restarts, for
+         * instance payment channel index. Nothing is kept when not set.
+         * @param cacheDirectory cache directory.
+         * @return builder.
+         */
+        public Builder setCacheDirectory(File cacheDirectory) {
+            this.cacheDirectory = Optional.of(cacheDirectory);
+            return this;
+        }
+
+        /**
+         * Optional. Set directory to keep SDK caches between restarts as a
+         * String.
+         * @param cacheDirectory cache directory path.
+         * @return builder.
+         */
+        public Builder setCacheDirectory(String cacheDirectory) {
+            return setCacheDirectory(new File(cacheDirectory));
+        }
+
+        public Optional<File> getCacheDirectory() {
+            return cacheDirectory;
+        }
+
+        /**
+         * Optional. Add IPFS HTTP gateway endpoint to read metadata. When
+         * gateways are added metadata is requested from the endpoint with
+         * the lowest latency first and then from the next endpoint if the
+         * first one doesn't respond within hedge delay.
+         * @param ipfsGatewayEndpoint gateway URL.
+         * @return builder.
+         */
+        public Builder addIpfsGatewayEndpoint(URL ipfsGatewayEndpoint) {
+            this.ipfsGatewayEndpoints.add(ipfsGatewayEndpoint);
+            return this;
+        }
+
+        /**
+         * Optional. Add IPFS HTTP gateway endpoint as a String.
+         * @param ipfsGatewayEndpoint gateway URL as a string.
+         * @return builder.
+         */
+        public Builder addIpfsGatewayEndpoint(String ipfsGatewayEndpoint) {
+            try {
+                return addIpfsGatewayEndpoint(new URL(ipfsGatewayEndpoint));
+            } catch(MalformedURLException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+
+        public List<URL> getIpfsGatewayEndpoints() {
+            return ipfsGatewayEndpoints;
+        }
+
+        /**
+         * Optional. Set delay before the same metadata is requested from the
+         * next IPFS endpoint. Default value is
+         * Configuration.DEFAULT_IPFS_HEDGE_DELAY_MILLIS.
+         * @param ipfsHedgeDelayMillis delay in milliseconds.
+         * @return builder.
+         */
+        public Builder setIpfsHedgeDelayMillis(long ipfsHedgeDelayMillis) {
+            this.ipfsHedgeDelayMillis = ipfsHedgeDelayMillis;
+            return this;
+        }
+
+        public long getIpfsHedgeDelayMillis() {
+            return ipfsHedgeDelayMillis;
+        }
+
+        /**
+         * Optional. Set number of gRPC connections opened to the service
+         * daemon by each service client. Calls are distributed between
+         * connections in round-robin order. Default value is
+         * Configuration.DEFAULT_DAEMON_CONNECTION_POOL_SIZE.
+         * @param daemonConnectionPoolSize number of connections.
+         * @return builder.
+         */
+        public Builder setDaemonConnectionPoolSize(int daemonConnectionPoolSize) {
+            this.daemonConnectionPoolSize = daemonConnectionPoolSize;
+            return this;
+        }
+
+        public int getDaemonConnectionPoolSize() {
+            return daemonConnectionPoolSize;
+        }
+
         public Configuration build() {
             return new Configuration(this);
         }
@@ -1,13 +1,15 @@
 package io.singularitynet.sdk.client;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.List;
+import java.util.Optional;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.http.HttpService;
 import org.web3j.protocol.exceptions.ClientConnectionException;
 import org.web3j.tx.gas.StaticGasProvider;
 import org.web3j.tx.gas.DefaultGasProvider;
-import org.web3j.tx.RawTransactionManager;
 import org.web3j.tx.TransactionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,8 +20,10 @@ import io.singularitynet.sdk.common.Utils;
 import io.singularitynet.sdk.contracts.Registry;
 import io.singularitynet.sdk.contracts.MultiPartyEscrow;
 import io.singularitynet.sdk.ethereum.Address;
+import io.singularitynet.sdk.ethereum.BlockPollingReceiptProcessor;
 import io.singularitynet.sdk.ethereum.ContractUtils;
 import io.singularitynet.sdk.ethereum.Identity;
+import io.singularitynet.sdk.ethereum.LocalNonceTransactionManager;
 import io.singularitynet.sdk.ethereum.MnemonicIdentity;
 import io.singularitynet.sdk.ethereum.PrivateKeyIdentity;
 import io.singularitynet.sdk.contracts.Registry;
@@ -37,6 +41,11 @@ public class ConfigurationDependencyFactory implements DependencyFactory {
     private final Identity identity;
     private final Registry registry;
     private final MultiPartyEscrow mpe;
+    private final BlockPollingReceiptProcessor receiptProcessor;
+    private final Optional<File> cacheDirectory;
+    private final List<URL> ipfsGatewayEndpoints;
+    private final long ipfsHedgeDelayMillis;
+    private final int daemonConnectionPoolSize;
 
     /**
      * Constructor.
@@ -50,6 +59,8 @@ public class ConfigurationDependencyFactory implements DependencyFactory {
 
         log.info("Construct SDK dependencies");
 
+        this.cacheDirectory = config.getCacheDirectory();
+
         log.info("Open connection to Ethereum RPC endpoint, ethereumJsonRpcEndpoint: {}", config.getEthereumJsonRpcEndpoint());
         this.web3j = Web3j.build(new HttpService(config.getEthereumJsonRpcEndpoint().toString()));
         try {
@@ -62,10 +73,14 @@ public class ConfigurationDependencyFactory implements DependencyFactory {
         URL ipfsEndpoint = config.getIpfsEndpoint();
         log.info("Open connection to IPFS RPC endpoint, ipfsEndpoint: {}", ipfsEndpoint);
         this.ipfs = new IPFS(ipfsEndpoint.getHost(), ipfsEndpoint.getPort());
+        this.ipfsGatewayEndpoints = config.getIpfsGatewayEndpoints();
+        this.ipfsHedgeDelayMillis = config.getIpfsHedgeDelayMillis();
+        this.daemonConnectionPoolSize = config.getDaemonConnectionPoolSize();
 
         StaticGasProvider gasProvider = new StaticGasProvider(
                 config.getGasPrice(), config.getGasLimit());
         TransactionManager transactionManager;
+        this.receiptProcessor = new BlockPollingReceiptProcessor(web3j);
 
         log.info("New identity, type: {}", config.getIdentityType());
         switch (config.getIdentityType()) {
@@ -73,7 +88,8 @@ public class ConfigurationDependencyFactory implements DependencyFactory {
                 {
                     Preconditions.checkArgument(config.getIdentityMnemonic().isPresent(), "No identity mnemonic specified");
                     PrivateKeyIdentity identity = new MnemonicIdentity(config.getIdentityMnemonic().get(), 0);
-                    transactionManager = new RawTransactionManager(web3j, identity.getCredentials());
+                    transactionManager = new LocalNonceTransactionManager(web3j,
+                            identity.getCredentials(), receiptProcessor);
                     this.identity = identity;
                 }
                 break;
@@ -81,7 +97,8 @@ public class ConfigurationDependencyFactory implements DependencyFactory {
                 {
                     Preconditions.checkArgument(config.getIdentityPrivateKey().isPresent(), "No identity private key specified");
                     PrivateKeyIdentity identity = new PrivateKeyIdentity(config.getIdentityPrivateKey().get());
-                    transactionManager = new RawTransactionManager(web3j, identity.getCredentials());
+                    transactionManager = new LocalNonceTransactionManager(web3j,
+                            identity.getCredentials(), receiptProcessor);
                     this.identity = identity;
                 }
                 break;
@@ -142,4 +159,29 @@ public class ConfigurationDependencyFactory implements DependencyFactory {
         return mpe;
     }
 
+    @Override
+    public Optional<BlockPollingReceiptProcessor> getReceiptProcessor() {
+        return Optional.of(receiptProcessor);
+    }
+
+    @Override
+    public Optional<File> getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    @Override
+    public List<URL> getIpfsGatewayEndpoints() {
+        return ipfsGatewayEndpoints;
+    }
+
+    @Override
+    public long getIpfsHedgeDelayMillis() {
+        return ipfsHedgeDelayMillis;
+    }
+
+    @Override
+    public int getDaemonConnectionPoolSize() {
+        return daemonConnectionPoolSize;
+    }
+
 }
@@ -36,6 +36,7 @@ public class ConfigurationUtils {
         Optional.ofNullable(props.getProperty("multi.party.escrow.address")).map(Address::new).ifPresent(builder::setMultiPartyEscrowAddress);
         Optional.ofNullable(props.getProperty("gas.price")).map(BigInteger::new).ifPresent(builder::setGasPrice);
         Optional.ofNullable(props.getProperty("gas.limit")).map(BigInteger::new).ifPresent(builder::setGasLimit);
+        Optional.ofNullable(props.getProperty("cache.directory")).ifPresent(builder::setCacheDirectory);
 
         return builder.build();
     }
@@ -50,6 +51,7 @@ public class ConfigurationUtils {
         String multiPartyEscrowAddress;
         String gasLimit;
         String gasPrice;
+        String cacheDirectory;
     }
 
     /**
@@ -72,6 +74,7 @@ public class ConfigurationUtils {
         Optional.ofNullable(config.multiPartyEscrowAddress).map(Address::new).ifPresent(builder::setMultiPartyEscrowAddress);
         Optional.ofNullable(config.gasPrice).map(BigInteger::new).ifPresent(builder::setGasPrice);
         Optional.ofNullable(config.gasLimit).map(BigInteger::new).ifPresent(builder::setGasLimit);
+        Optional.ofNullable(config.cacheDirectory).ifPresent(builder::setCacheDirectory);
 
         return builder.build();
     }
@@ -0,0 +1,236 @@
+package io.singularitynet.sdk.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import io.grpc.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.common.Preconditions;
+
+/**
+ * Client call which postpones the start of the real call until it is
+ * asynchronously prepared. It is used to calculate the payment without
+ * blocking the thread which starts the call. Real call is requested when
+ * start() method is called. All methods called before real call is ready are
+ * queued and replayed in the same order after real call is started. If real
+ * call cannot be prepared then the call is closed with the error status. If
+ * call is cancelled before real call is ready then real call is started and
+ * cancelled immediately without passing events to the call listener.
+ * @param <ReqT> type of the gRPC request of the call.
+ * @param <RespT> type of the gRPC response of the call.
+ */
+class DelayedClientCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+
+    private final static Logger log = LoggerFactory.getLogger(DelayedClientCall.class);
+
+    private final Supplier<CompletableFuture<ClientCall<ReqT, RespT>>> callSupplier;
+    private final Executor listenerExecutor;
+
+    private final Object lock = new Object();
+    // guarded by lock
+    private List<Runnable> pendingCalls = new ArrayList<>();
+    private boolean passThrough;
+    private ClientCall<ReqT, RespT> delegate;
+    private ClientCall.Listener<RespT> listener;
+    private Status closeStatus;
+
+    /**
+     * Constructor.
+     * @param callSupplier starts preparing the real call and returns the
+     * future of it.
+     * @param listenerExecutor executor to notify listener about preparation
+     * failure, direct call is used when null.
+     */
+    public DelayedClientCall(
+            Supplier<CompletableFuture<ClientCall<ReqT, RespT>>> callSupplier,
+            Executor listenerExecutor) {
+        this.callSupplier = callSupplier;
+        this.listenerExecutor = listenerExecutor;
+    }
+
+    @Override
+    public void start(ClientCall.Listener<RespT> responseListener, Metadata headers) {
+        Status status;
+        synchronized (lock) {
+            Preconditions.checkState(listener == null, "Call is already started");
+            listener = responseListener;
+            status = closeStatus;
+        }
+        if (status != null) {
+            closeListener(responseListener, status);
+            return;
+        }
+
+        CompletableFuture<ClientCall<ReqT, RespT>> future;
+        try {
+            future = callSupplier.get();
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((call, error) -> {
+            if (error != null) {
+                fail(toStatus(error));
+            } else {
+                startCall(call, responseListener, headers);
+            }
+        });
+    }
+
+    private void startCall(ClientCall<ReqT, RespT> call,
+            ClientCall.Listener<RespT> responseListener, Metadata headers) {
+        Status status;
+        synchronized (lock) {
+            status = closeStatus;
+            if (status == null) {
+                delegate = call;
+            }
+        }
+        if (status != null) {
+            log.debug("Call is cancelled before it is started");
+            // prepared call is started and cancelled to let its listener
+            // release resources allocated for it, like amount of the payment,
+            // response listener is closed already
+            call.start(new ClientCall.Listener<RespT>() {}, headers);
+            call.cancel("Call is cancelled before it is started", status.getCause());
+            return;
+        }
+        call.start(responseListener, headers);
+        drainPendingCalls();
+    }
+
+    private void fail(Status status) {
+        ClientCall.Listener<RespT> responseListener;
+        synchronized (lock) {
+            if (closeStatus != null) {
+                return;
+            }
+            closeStatus = status;
+            pendingCalls = null;
+            responseListener = listener;
+        }
+        log.warn("Cannot start the call, status: {}", status);
+        closeListener(responseListener, status);
+    }
+
+    private void closeListener(ClientCall.Listener<RespT> responseListener, Status status) {
+        Runnable close = () -> responseListener.onClose(status, new Metadata());
+        if (listenerExecutor != null) {
+            listenerExecutor.execute(close);
+        } else {
+            close.run();
+        }
+    }
+
+    private static Status toStatus(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        Status status = Status.fromThrowable(error);
+        if (status.getCode() == Status.Code.UNKNOWN) {
+            return Status.INTERNAL
+                .withDescription("Cannot prepare the call: " + error.getMessage())
+                .withCause(error);
+        }
+        return status;
+    }
+
+    private void delayOrExecute(Runnable runnable) {
+        synchronized (lock) {
+            if (!passThrough) {
+                if (closeStatus == null) {
+                    pendingCalls.add(runnable);
+                }
+                return;
+            }
+        }
+        runnable.run();
+    }
+
+    private void drainPendingCalls() {
+        List<Runnable> toRun = new ArrayList<>();
+        while (true) {
+            synchronized (lock) {
+                if (pendingCalls.isEmpty()) {
+                    pendingCalls = null;
+                    passThrough = true;
+                    break;
+                }
+                List<Runnable> drained = pendingCalls;
+                pendingCalls = toRun;
+                toRun = drained;
+            }
+            for (Runnable runnable : toRun) {
+                runnable.run();
+            }
+            toRun.clear();
+        }
+    }
+
+    @Override
+    public void cancel(String message, Throwable cause) {
+        ClientCall<ReqT, RespT> call;
+        ClientCall.Listener<RespT> responseListener = null;
+        Status status = null;
+        synchronized (lock) {
+            call = delegate;
+            if (call == null) {
+                if (closeStatus != null) {
+                    return;
+                }
+                status = Status.CANCELLED.withDescription(message);
+                if (cause != null) {
+                    status = status.withCause(cause);
+                }
+                closeStatus = status;
+                pendingCalls = null;
+                responseListener = listener;
+            }
+        }
+        if (call != null) {
+            delayOrExecute(() -> call.cancel(message, cause));
+        } else if (responseListener != null) {
+            closeListener(responseListener, status);
+        }
+    }
+
+    @Override
+    public Attributes getAttributes() {
+        synchronized (lock) {
+            return passThrough ? delegate.getAttributes() : Attributes.EMPTY;
+        }
+    }
+
+    @Override
+    public void halfClose() {
+        delayOrExecute(() -> delegate.halfClose());
+    }
+
+    @Override
+    public boolean isReady() {
+        synchronized (lock) {
+            return passThrough && delegate.isReady();
+        }
+    }
+
+    @Override
+    public void request(int numMessages) {
+        delayOrExecute(() -> delegate.request(numMessages));
+    }
+
+    @Override
+    public void sendMessage(ReqT message) {
+        delayOrExecute(() -> delegate.sendMessage(message));
+    }
+
+    @Override
+    public void setMessageCompression(boolean enabled) {
+        delayOrExecute(() -> delegate.setMessageCompression(enabled));
+    }
+
+}
@@ -1,8 +1,14 @@
 package io.singularitynet.sdk.client;
 
+import java.io.File;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import org.web3j.protocol.Web3j;
 import io.ipfs.api.IPFS;
 
+import io.singularitynet.sdk.ethereum.BlockPollingReceiptProcessor;
 import io.singularitynet.sdk.ethereum.Identity;
 import io.singularitynet.sdk.contracts.Registry;
 import io.singularitynet.sdk.contracts.MultiPartyEscrow;
@@ -37,4 +43,44 @@ public interface DependencyFactory {
      */
     MultiPartyEscrow getMultiPartyEscrow();
 
+    /**
+     * @return receipt processor used by the contracts transaction manager,
+     * empty by default. SDK starts it on its block clock and closes it on
+     * close.
+     */
+    default Optional<BlockPollingReceiptProcessor> getReceiptProcessor() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return directory to keep SDK caches between restarts, empty by
+     * default.
+     */
+    default Optional<File> getCacheDirectory() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return IPFS HTTP gateway endpoints which are used in addition to the
+     * IPFS instance to read metadata, empty by default.
+     */
+    default List<URL> getIpfsGatewayEndpoints() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return delay before the same metadata is requested from the next
+     * IPFS endpoint.
+     */
+    default long getIpfsHedgeDelayMillis() {
+        return Configuration.DEFAULT_IPFS_HEDGE_DELAY_MILLIS;
+    }
+
+    /**
+     * @return number of gRPC connections opened to the service daemon.
+     */
+    default int getDaemonConnectionPoolSize() {
+        return Configuration.DEFAULT_DAEMON_CONNECTION_POOL_SIZE;
+    }
+
 }
@@ -1,9 +1,20 @@
 package io.singularitynet.sdk.client;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import io.singularitynet.sdk.payment.Payment;
 
 /**
- * The strategy provides a payment for the client call.
+ * The strategy provides a payment for the client call. Payment is calculated
+ * asynchronously before the call is started, so the strategy errors are
+ * reported as the call failure: the gRPC stub throws
+ * io.grpc.StatusRuntimeException instead of the exception thrown by the
+ * strategy. Status is FAILED_PRECONDITION when Payment.INVALID_PAYMENT is
+ * returned, status of the io.grpc.StatusRuntimeException or
+ * io.grpc.StatusException thrown by the strategy, and INTERNAL with the
+ * original exception as a cause for any other exception, for instance
+ * IllegalStateException.
  */
 public interface PaymentStrategy {
 
@@ -19,4 +30,35 @@ public interface PaymentStrategy {
      */
     <ReqT, RespT> Payment getPayment(GrpcCallParameters<ReqT, RespT> parameters, ServiceClient serviceClient);
 
+    /**
+     * Return the payment for the client call asynchronously. The client call
+     * is started when returned future is completed, so the thread which
+     * starts the call is not blocked. Default implementation runs
+     * getPayment() using the executor passed. Strategies which are able to
+     * calculate the payment without blocking can override this method.
+     * @param <ReqT> type of the gRPC request of the call.
+     * @param <RespT> type of the gRPC response of the call.
+     * @param parameters provides the information about the gRPC call context.
+     * @param serviceClient provides the information about the platform service
+     * context.
+     * @param executor executor to run blocking operations.
+     * @return future which is completed by the instance of the Payment class
+     * or Payment.INVALID_PAYMENT if constructing payment is not possible.
+     */
+    default <ReqT, RespT> CompletableFuture<Payment> getPaymentAsync(
+            GrpcCallParameters<ReqT, RespT> parameters,
+            ServiceClient serviceClient, Executor executor) {
+        return CompletableFuture.supplyAsync(
+                () -> getPayment(parameters, serviceClient), executor);
+    }
+
+    /**
+     * Release resources kept by the strategy for the service client given.
+     * It is called when service client is closed. Default implementation
+     * does nothing.
+     * @param serviceClient service client which is closed.
+     */
+    default void release(ServiceClient serviceClient) {
+    }
+
 }
@@ -1,27 +1,46 @@
 package io.singularitynet.sdk.client;
 
 import io.ipfs.api.IPFS;
+import java.io.File;
 import java.math.BigInteger;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import org.web3j.protocol.Web3j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.singularitynet.sdk.common.Utils;
 import io.singularitynet.sdk.contracts.Registry;
 import io.singularitynet.sdk.contracts.MultiPartyEscrow;
 import io.singularitynet.sdk.registry.RegistryContract;
 import io.singularitynet.sdk.registry.MetadataStorage;
 import io.singularitynet.sdk.registry.IpfsMetadataStorage;
+import io.singularitynet.sdk.registry.CachingMetadataStorage;
+import io.singularitynet.sdk.registry.HedgedMetadataStorage;
+import io.singularitynet.sdk.registry.IpfsGatewayMetadataStorage;
+import io.singularitynet.sdk.registry.MetadataCache;
 import io.singularitynet.sdk.registry.MetadataProvider;
-import io.singularitynet.sdk.registry.CachingMetadataProvider;
-import io.singularitynet.sdk.registry.RegistryMetadataProvider;
+import io.singularitynet.sdk.registry.ServiceIdentifier;
+import io.singularitynet.sdk.registry.ServiceMetadata;
 import io.singularitynet.sdk.daemon.DaemonConnection;
 import io.singularitynet.sdk.daemon.BaseDaemonConnection;
 import io.singularitynet.sdk.daemon.EndpointSelector;
 import io.singularitynet.sdk.daemon.FixedGroupEndpointSelector;
 import io.singularitynet.sdk.mpe.AskDaemonFirstPaymentChannelProvider;
 import io.singularitynet.sdk.mpe.BlockchainPaymentChannelManager;
+import io.singularitynet.sdk.mpe.CachingPaymentChannelStateProvider;
+import io.singularitynet.sdk.mpe.ChannelOpenEventIndexer;
+import io.singularitynet.sdk.mpe.CheckpointStorage;
+import io.singularitynet.sdk.mpe.FileCheckpointStorage;
 import io.singularitynet.sdk.mpe.MpePaymentChannelManager;
 import io.singularitynet.sdk.mpe.MultiPartyEscrowContract;
+import io.singularitynet.sdk.mpe.PaymentChannelAmountAllocator;
 import io.singularitynet.sdk.mpe.PaymentChannelStateProvider;
 import io.singularitynet.sdk.mpe.PaymentChannelStateService;
 import io.singularitynet.sdk.freecall.FreeCallStateService;
@@ -29,6 +48,8 @@ import io.singularitynet.sdk.client.PaymentStrategy;
 import io.singularitynet.sdk.client.ServiceClient;
 import io.singularitynet.sdk.client.BaseServiceClient;
 import io.singularitynet.sdk.ethereum.Identity;
+import io.singularitynet.sdk.ethereum.BlockClock;
+import io.singularitynet.sdk.ethereum.BlockPollingReceiptProcessor;
 import io.singularitynet.sdk.ethereum.Ethereum;
 import io.singularitynet.sdk.ethereum.Address;
 
@@ -49,11 +70,18 @@ public class Sdk implements AutoCloseable {
     private final Registry registry;
     private final MultiPartyEscrow mpe;
 
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private final BlockClock blockClock;
+    private final Optional<BlockPollingReceiptProcessor> receiptProcessor;
     private final Ethereum ethereum;
     private final MultiPartyEscrowContract mpeContract;
     private final MetadataStorage metadataStorage;
     private final RegistryContract registryContract;
+    private final MetadataCache metadataCache;
     private final MpePaymentChannelManager paymentChannelManager;
+    private final PaymentChannelAmountAllocator amountAllocator;
+    private final int daemonConnectionPoolSize;
 
     /**
      * New SDK instance for the configuration given.
@@ -68,8 +96,54 @@ public class Sdk implements AutoCloseable {
      * @param factory dependency factory instance.
      */
     public Sdk(DependencyFactory factory) {
-        this(factory.getWeb3j(), factory.getIpfs(), factory.getIdentity(),
-                factory.getRegistry(), factory.getMultiPartyEscrow());
+        this.web3j = factory.getWeb3j();
+        this.ipfs = factory.getIpfs();
+        this.identity = factory.getIdentity();
+        this.registry = factory.getRegistry();
+        this.mpe = factory.getMultiPartyEscrow();
+
+        this.executor = Executors.newCachedThreadPool(
+                Utils.newDaemonThreadFactory("snet-sdk"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Utils.newDaemonThreadFactory("snet-sdk-scheduler"));
+        this.blockClock = new BlockClock(web3j,
+                BlockClock.DEFAULT_MAX_STALENESS_MILLIS);
+        this.blockClock.start(scheduler, BlockClock.DEFAULT_REFRESH_PERIOD_MILLIS);
+        this.receiptProcessor = factory.getReceiptProcessor();
+        this.receiptProcessor.ifPresent(processor -> processor.start(blockClock, executor));
+        this.ethereum = new Ethereum(web3j, blockClock);
+        this.mpeContract = new MultiPartyEscrowContract(web3j, mpe, blockClock);
+        this.metadataStorage = new CachingMetadataStorage(
+                newIpfsMetadataStorage(factory),
+                CachingMetadataStorage.DEFAULT_MAX_MEMORY_ENTRIES,
+                factory.getCacheDirectory().map(dir -> new File(dir, "ipfs")));
+        this.registryContract = new RegistryContract(registry);
+        this.metadataCache = new MetadataCache(registryContract, metadataStorage,
+                MetadataCache.DEFAULT_MAX_ENTRIES,
+                MetadataCache.DEFAULT_TTL_MILLIS, executor);
+        CheckpointStorage channelIndexStorage = factory.getCacheDirectory()
+            .<CheckpointStorage>map(dir -> new FileCheckpointStorage(new File(dir,
+                            "channels-" + mpeContract.getContractAddress() + ".json")))
+            .orElse(CheckpointStorage.none());
+        this.paymentChannelManager = new MpePaymentChannelManager(mpeContract,
+                new ChannelOpenEventIndexer(mpeContract, blockClock,
+                    channelIndexStorage), executor);
+        this.amountAllocator = new PaymentChannelAmountAllocator();
+        this.daemonConnectionPoolSize = factory.getDaemonConnectionPoolSize();
+    }
+
+    private MetadataStorage newIpfsMetadataStorage(DependencyFactory factory) {
+        MetadataStorage ipfsStorage = new IpfsMetadataStorage(ipfs);
+        if (factory.getIpfsGatewayEndpoints().isEmpty()) {
+            return ipfsStorage;
+        }
+        List<MetadataStorage> storages = new ArrayList<>();
+        storages.add(ipfsStorage);
+        for (URL gateway : factory.getIpfsGatewayEndpoints()) {
+            storages.add(new IpfsGatewayMetadataStorage(gateway));
+        }
+        return new HedgedMetadataStorage(storages,
+                factory.getIpfsHedgeDelayMillis(), executor, scheduler);
     }
 
     /**
@@ -82,17 +156,28 @@ public class Sdk implements AutoCloseable {
      */
     public Sdk(Web3j web3j, IPFS ipfs, Identity identity, Registry registry,
             MultiPartyEscrow mpe) {
-        this.web3j = web3j;
-        this.ipfs = ipfs;
-        this.identity = identity;
-        this.registry = registry;
-        this.mpe = mpe;
-
-        this.ethereum = new Ethereum(web3j);
-        this.mpeContract = new MultiPartyEscrowContract(web3j, mpe);
-        this.metadataStorage = new IpfsMetadataStorage(ipfs);
-        this.registryContract = new RegistryContract(registry);
-        this.paymentChannelManager = new MpePaymentChannelManager(mpeContract);
+        this(new DependencyFactory() {
+            @Override
+            public Web3j getWeb3j() {
+                return web3j;
+            }
+            @Override
+            public IPFS getIpfs() {
+                return ipfs;
+            }
+            @Override
+            public Identity getIdentity() {
+                return identity;
+            }
+            @Override
+            public Registry getRegistry() {
+                return registry;
+            }
+            @Override
+            public MultiPartyEscrow getMultiPartyEscrow() {
+                return mpe;
+            }
+        });
     }
 
     /**
@@ -125,13 +210,18 @@ public class Sdk implements AutoCloseable {
                 orgId, serviceId, endpointSelector, paymentStrategy);
 
         MetadataProvider metadataProvider = getMetadataProvider(orgId, serviceId);
+        // start loading both metadata in parallel, clients wait only for the
+        // metadata they use
+        metadataProvider.getServiceMetadataAsync();
+        metadataProvider.getOrganizationMetadataAsync();
 
         DaemonConnection connection = new BaseDaemonConnection(
-                endpointSelector, metadataProvider);
+                endpointSelector, metadataProvider, daemonConnectionPoolSize);
 
         PaymentChannelStateProvider paymentChannelStateProvider =
-            new AskDaemonFirstPaymentChannelProvider(mpeContract, connection,
-                    ethereum);
+            new CachingPaymentChannelStateProvider(
+                    new AskDaemonFirstPaymentChannelProvider(mpeContract,
+                        connection, ethereum));
         FreeCallStateService freeCallStateService = new FreeCallStateService(
                 orgId, serviceId, connection, ethereum);
 
@@ -139,6 +229,20 @@ public class Sdk implements AutoCloseable {
                 paymentChannelStateProvider, freeCallStateService, paymentStrategy); 
     }
 
+    /**
+     * @return executor which is used to run SDK asynchronous tasks.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return scheduler which is used to run SDK periodic background tasks.
+     */
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
     /**
      * @return Ethereum wrapper.
      */
@@ -165,14 +269,29 @@ public class Sdk implements AutoCloseable {
 
     /**
      * Return metadata provider for the given organiation and service id.
+     * Providers of the same service share metadata cached by SDK instance.
+     * Metadata is refreshed in background when its time to live is expired.
      * @param orgId organization id.
      * @param serviceId service id.
      * @return metadata provider instance.
      */
     public MetadataProvider getMetadataProvider(String orgId, String serviceId) {
-        return new CachingMetadataProvider(
-                new RegistryMetadataProvider(orgId, serviceId, registryContract,
-                    metadataStorage));
+        return metadataCache.getMetadataProvider(orgId, serviceId);
+    }
+
+    /**
+     * Load Registry records and metadata of the given services concurrently
+     * in background, so service clients created later don't wait for them.
+     * Metadata of the organization shared by several services is loaded
+     * once.
+     * @param services list of the services to load metadata.
+     * @param parallelism maximum number of concurrent loads.
+     * @return list of futures in the same order as the services passed,
+     * each future is completed when metadata of the service is loaded.
+     */
+    public List<CompletableFuture<ServiceMetadata>> prefetchMetadata(
+            List<ServiceIdentifier> services, int parallelism) {
+        return metadataCache.prefetch(services, parallelism);
     }
 
     /**
@@ -182,11 +301,30 @@ public class Sdk implements AutoCloseable {
         return paymentChannelManager;
     }
 
+    /**
+     * @return MultiPartyEscrow contract address.
+     */
+    public Address getMultiPartyEscrowAddress() {
+        return mpeContract.getContractAddress();
+    }
+
+    /**
+     * @return payment channel amount allocator which is shared by all
+     * service clients of the SDK instance.
+     */
+    public PaymentChannelAmountAllocator getPaymentChannelAmountAllocator() {
+        return amountAllocator;
+    }
+
     /**
      * Close SDK and release all resources aquired.
      */
     @Override
     public void close() {
+        receiptProcessor.ifPresent(BlockPollingReceiptProcessor::close);
+        blockClock.stop();
+        scheduler.shutdownNow();
+        executor.shutdownNow();
         web3j.shutdown();
         log.info("SDK is closed");
     }
@@ -40,7 +40,10 @@ public interface ServiceClient extends AutoCloseable {
     FreeCallStateService getFreeCallStateService();
 
     /**
-     * Construct new gRPC stub to call the platform service.
+     * Construct new gRPC stub to call the platform service. When payment for
+     * the call cannot be made the call fails with
+     * io.grpc.StatusRuntimeException, see PaymentStrategy for the status
+     * codes.
      * @param <T> type of the gRPC service stub.
      * @param constructor constructs new gRPC stub from the passed gRPC
      * channel.
@@ -1,38 +1,112 @@
 package io.singularitynet.sdk.daemon;
 
 import io.grpc.*;
-import java.math.BigInteger;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
 import java.net.URL;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.singularitynet.sdk.common.Preconditions;
 import io.singularitynet.sdk.registry.MetadataProvider;
 
+/**
+ * Daemon connection which opens one or several gRPC channels to the
+ * endpoints returned by endpoint selector. When more than one channel is
+ * opened each call is sent to the less loaded channel, see
+ * LoadBalancingChannel. It allows using more than one HTTP/2 connection and
+ * thus not being limited by the daemon max concurrent streams setting and
+ * single TCP connection throughput. When endpoint selector returns
+ * different endpoints, calls are distributed between them as well.
+ *
+ * When call fails because of the transport error or channel goes into
+ * TRANSIENT_FAILURE state the next endpoint is requested from the endpoint
+ * selector and the channel is transparently replaced by the channel to the
+ * new endpoint. Call failure is considered a transport error when call is
+ * closed with UNAVAILABLE status which is caused by the client side
+ * exception or after which the channel is not ready anymore. UNAVAILABLE
+ * status returned by the daemon itself keeps the endpoint. Calls in progress
+ * are completed on the old channel. Calls which could not connect to the
+ * daemon are re-issued on the new channel, request messages are buffered
+ * until the first response is received to replay them. Other failed calls
+ * are completed with UNAVAILABLE status.
+ *
+ * Client calls interceptor is applied on top of the channels pool, thus
+ * channel is selected and call is started after the payment is calculated,
+ * and time spent on the payment, including the payment channel transactions,
+ * is not counted as the call latency. Re-issued call carries the payment of
+ * the original call because the failed attempt didn't reach the daemon.
+ */
 // @ThreadSafe
 public class BaseDaemonConnection implements DaemonConnection {
 
     private final static Logger log = LoggerFactory.getLogger(BaseDaemonConnection.class);
 
+    /**
+     * Default number of gRPC channels opened to the daemon.
+     */
+    public static final int DEFAULT_POOL_SIZE = 1;
+
+    private static final int MAX_CALL_ATTEMPTS = 3;
+    private static final int MAX_BUFFERED_MESSAGES = 16;
+
     private final EndpointSelector endpointSelector;
     private final ClientInterceptorProxy interceptorProxy;
     private final MetadataProvider metadataProvider;
+    private final int poolSize;
+    private final IntUnaryOperator random;
 
-    private AtomicReference<ManagedChannel> channel = new AtomicReference<>();
-    private volatile Endpoint endpoint;
+    private AtomicReference<ChannelPool> channel = new AtomicReference<>();
+    private volatile boolean shutdown = false;
 
     public BaseDaemonConnection(EndpointSelector endpointSelector,
             MetadataProvider metadataProvider) {
-        log.info("New daemon connection, endpointSelector: {}", endpointSelector);
+        this(endpointSelector, metadataProvider, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * @param endpointSelector endpoint selection strategy, it is called
+     * once per each channel opened and each time channel fails.
+     * @param metadataProvider service metadata provider.
+     * @param poolSize number of gRPC channels to open.
+     */
+    public BaseDaemonConnection(EndpointSelector endpointSelector,
+            MetadataProvider metadataProvider, int poolSize) {
+        this(endpointSelector, metadataProvider, poolSize,
+                bound -> ThreadLocalRandom.current().nextInt(bound));
+    }
+
+    /**
+     * Constructor.
+     * @param endpointSelector endpoint selection strategy.
+     * @param metadataProvider service metadata provider.
+     * @param poolSize number of gRPC channels to open.
+     * @param random source of random numbers to select pooled channels.
+     */
+    BaseDaemonConnection(EndpointSelector endpointSelector,
+            MetadataProvider metadataProvider, int poolSize,
+            IntUnaryOperator random) {
+        Preconditions.checkArgument(poolSize > 0, "Pool size should be positive");
+        log.info("New daemon connection, endpointSelector: {}, poolSize: {}", endpointSelector, poolSize);
         this.endpointSelector = endpointSelector;
         this.interceptorProxy = new ClientInterceptorProxy();
         this.metadataProvider = metadataProvider;
+        this.poolSize = poolSize;
+        this.random = random;
     }
 
     @Override
     public <T> T getGrpcStub(Function<Channel, T> constructor) {
-        return constructor.apply(getChannelLazy());
+        return constructor.apply(getChannelLazy().asChannel());
     }
 
     @Override
@@ -42,23 +116,29 @@ public class BaseDaemonConnection implements DaemonConnection {
 
     @Override
     public Endpoint getEndpoint() {
-        return endpoint;
+        ChannelPool value = channel.get();
+        return value == null ? null : value.slots.get(0).current.get().endpoint;
     }
 
     @Override
     public void shutdownNow() {
-        channel.get().shutdownNow();
+        shutdown = true;
+        ChannelPool value = channel.get();
+        if (value != null) {
+            value.shutdownNow();
+        }
         log.info("gRPC channel to daemon closed");
     }
 
-    private ManagedChannel getChannelLazy() {
-        ManagedChannel value = channel.get();
+    private ChannelPool getChannelLazy() {
+        ChannelPool value = channel.get();
         if (value != null) {
             return value;
         }
 
-        value = getChannel();
+        value = newChannelPool();
         if (channel.compareAndSet(null, value)) {
+            value.watchState();
             return value;
         }
         value.shutdownNow();
@@ -68,20 +148,360 @@ public class BaseDaemonConnection implements DaemonConnection {
     // TODO: make this part of the configuration
     private static int MAX_GRPC_INBOUND_MESSAGE_SIZE = 1 << 24;
 
-    private ManagedChannel getChannel() {
-        endpoint = endpointSelector.nextEndpoint(metadataProvider);
+    private ChannelPool newChannelPool() {
+        List<Slot> slots = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; ++i) {
+            slots.add(new Slot(newConnection(endpointSelector.nextEndpoint(metadataProvider))));
+        }
+        return new ChannelPool(slots, interceptorProxy, random);
+    }
+
+    private Connection newConnection(Endpoint endpoint) {
         URL url = endpoint.getUrl();
         ManagedChannelBuilder builder = ManagedChannelBuilder
             .forAddress(url.getHost(), url.getPort())
             .maxInboundMessageSize(MAX_GRPC_INBOUND_MESSAGE_SIZE)
-            .intercept(interceptorProxy);
+            // enables transparent retry of the calls which didn't reach
+            // the daemon
+            .enableRetry();
         // TODO: test HTTPS connections
         if ("http".equals(url.getProtocol())) {
             builder.usePlaintext();
         }
         ManagedChannel channel = builder.build();
         log.info("gRPC channel created, channel: {}", channel);
-        return channel;
+        return new Connection(endpoint, channel);
+    }
+
+    private static class Connection {
+
+        private final Endpoint endpoint;
+        private final ManagedChannel channel;
+
+        private Connection(Endpoint endpoint, ManagedChannel channel) {
+            this.endpoint = endpoint;
+            this.channel = channel;
+        }
+
+    }
+
+    /**
+     * Channel which sends calls to the current connection and replaces it by
+     * connection to the next endpoint when current one fails.
+     */
+    // @ThreadSafe
+    private class Slot extends Channel {
+
+        private final AtomicReference<Connection> current;
+
+        private Slot(Connection connection) {
+            this.current = new AtomicReference<>(connection);
+        }
+
+        @Override
+        public <ReqT,RespT> ClientCall<ReqT,RespT> newCall(
+                MethodDescriptor<ReqT,RespT> method,
+                CallOptions callOptions) {
+            return new FailoverCall<>(method, callOptions);
+        }
+
+        private Connection getConnection() {
+            Connection value = current.get();
+            // connection could be replaced and shut down concurrently
+            return value.channel.isShutdown() ? current.get() : value;
+        }
+
+        @Override
+        public String authority() {
+            return current.get().channel.authority();
+        }
+
+        private void watchState(Connection connection) {
+            ConnectivityState state = connection.channel.getState(false);
+            if (state == ConnectivityState.SHUTDOWN) {
+                return;
+            }
+            if (state == ConnectivityState.TRANSIENT_FAILURE) {
+                log.warn("Channel failed, endpoint: {}", connection.endpoint.getUrl());
+                failover(connection);
+            }
+            // watching is stopped when channel is shut down after failover
+            connection.channel.notifyWhenStateChanged(state,
+                    () -> watchState(connection));
+        }
+
+        private void failover(Connection failed) {
+            if (shutdown || current.get() != failed) {
+                return;
+            }
+            Endpoint next;
+            try {
+                next = endpointSelector.nextEndpoint(metadataProvider);
+            } catch (RuntimeException e) {
+                log.error("Could not select next endpoint", e);
+                return;
+            }
+            if (next.getUrl().toExternalForm().equals(failed.endpoint.getUrl().toExternalForm())) {
+                // gRPC channel reconnects to the same endpoint itself
+                log.info("No other endpoint selected, keep reconnecting to: {}", next.getUrl());
+                return;
+            }
+            Connection replacement = newConnection(next);
+            if (!current.compareAndSet(failed, replacement)) {
+                replacement.channel.shutdownNow();
+                return;
+            }
+            log.info("Switched from endpoint: {} to endpoint: {}",
+                    failed.endpoint.getUrl(), next.getUrl());
+            // calls in progress are completed before channel is closed
+            failed.channel.shutdown();
+            if (shutdown) {
+                replacement.channel.shutdownNow();
+                return;
+            }
+            watchState(replacement);
+        }
+
+        private void shutdownNow() {
+            current.get().channel.shutdownNow();
+        }
+
+        /**
+         * Call which is re-issued on the replacement connection when it fails
+         * to connect to the daemon. Request messages are buffered until the
+         * first response is received to replay them on the next attempt.
+         */
+        // @ThreadSafe
+        private class FailoverCall<ReqT,RespT> extends ClientCall<ReqT,RespT> {
+
+            private final MethodDescriptor<ReqT,RespT> method;
+            private final CallOptions callOptions;
+
+            // guarded by this
+            private final List<Consumer<ClientCall<ReqT,RespT>>> buffer = new ArrayList<>();
+            // guarded by this
+            private int bufferedMessages = 0;
+            // guarded by this
+            private boolean replayable = true;
+            // guarded by this
+            private boolean cancelled = false;
+            // guarded by this
+            private int attempts = 0;
+            // guarded by this
+            private ClientCall<ReqT,RespT> attempt;
+            // guarded by this
+            private Listener<RespT> listener;
+            // guarded by this
+            private Metadata headers;
+
+            private FailoverCall(MethodDescriptor<ReqT,RespT> method,
+                    CallOptions callOptions) {
+                this.method = method;
+                this.callOptions = callOptions;
+            }
+
+            @Override
+            public synchronized void start(Listener<RespT> listener, Metadata headers) {
+                this.listener = listener;
+                // gRPC modifies headers passed, so each attempt gets a copy
+                this.headers = copy(headers);
+                startAttempt(getConnection());
+            }
+
+            // guarded by this
+            private void startAttempt(Connection connection) {
+                ++attempts;
+                ClientCall<ReqT,RespT> call = connection.channel.newCall(method, callOptions);
+                attempt = call;
+                call.start(new AttemptListener(connection, call), copy(headers));
+                for (Consumer<ClientCall<ReqT,RespT>> action : buffer) {
+                    action.accept(call);
+                }
+            }
+
+            @Override
+            public synchronized void request(int numMessages) {
+                record(call -> call.request(numMessages));
+                attempt.request(numMessages);
+            }
+
+            @Override
+            public synchronized void cancel(String message, Throwable cause) {
+                cancelled = true;
+                if (attempt != null) {
+                    attempt.cancel(message, cause);
+                }
+            }
+
+            @Override
+            public synchronized void halfClose() {
+                record(ClientCall::halfClose);
+                attempt.halfClose();
+            }
+
+            @Override
+            public synchronized void sendMessage(ReqT message) {
+                if (replayable && ++bufferedMessages > MAX_BUFFERED_MESSAGES) {
+                    log.debug("Too many request messages to buffer, call cannot be re-issued");
+                    stopBuffering();
+                }
+                record(call -> call.sendMessage(message));
+                attempt.sendMessage(message);
+            }
+
+            @Override
+            public synchronized void setMessageCompression(boolean enabled) {
+                record(call -> call.setMessageCompression(enabled));
+                attempt.setMessageCompression(enabled);
+            }
+
+            @Override
+            public synchronized boolean isReady() {
+                return attempt.isReady();
+            }
+
+            @Override
+            public synchronized Attributes getAttributes() {
+                return attempt.getAttributes();
+            }
+
+            // guarded by this
+            private void record(Consumer<ClientCall<ReqT,RespT>> action) {
+                if (replayable) {
+                    buffer.add(action);
+                }
+            }
+
+            private synchronized void stopBuffering() {
+                replayable = false;
+                buffer.clear();
+            }
+
+            private synchronized Listener<RespT> getListener() {
+                return listener;
+            }
+
+            private synchronized boolean isCurrent(ClientCall<ReqT,RespT> call) {
+                return attempt == call;
+            }
+
+            private synchronized boolean reissue(Status status, Connection failed) {
+                if (cancelled || !replayable || attempts >= MAX_CALL_ATTEMPTS
+                        || !isNotConnected(status)) {
+                    return false;
+                }
+                Connection replacement = current.get();
+                if (replacement == failed || replacement.channel.isShutdown()) {
+                    return false;
+                }
+                log.info("Re-issue call which didn't reach endpoint: {} on endpoint: {}",
+                        failed.endpoint.getUrl(), replacement.endpoint.getUrl());
+                startAttempt(replacement);
+                return true;
+            }
+
+            private class AttemptListener extends Listener<RespT> {
+
+                private final Connection connection;
+                private final ClientCall<ReqT,RespT> call;
+
+                private AttemptListener(Connection connection, ClientCall<ReqT,RespT> call) {
+                    this.connection = connection;
+                    this.call = call;
+                }
+
+                @Override
+                public void onHeaders(Metadata headers) {
+                    // call reached the daemon, it cannot be re-issued
+                    stopBuffering();
+                    getListener().onHeaders(headers);
+                }
+
+                @Override
+                public void onMessage(RespT message) {
+                    stopBuffering();
+                    getListener().onMessage(message);
+                }
+
+                @Override
+                public void onReady() {
+                    if (isCurrent(call)) {
+                        getListener().onReady();
+                    }
+                }
+
+                @Override
+                public void onClose(Status status, Metadata trailers) {
+                    if (isTransportFailure(status, connection)) {
+                        log.warn("Call failed, endpoint: {}, status: {}",
+                                connection.endpoint.getUrl(), status);
+                        failover(connection);
+                        if (reissue(status, connection)) {
+                            return;
+                        }
+                    }
+                    getListener().onClose(status, trailers);
+                }
+
+            }
+
+        }
+
+    }
+
+    private static Metadata copy(Metadata headers) {
+        Metadata copy = new Metadata();
+        copy.merge(headers);
+        return copy;
+    }
+
+    private static boolean isTransportFailure(Status status, Connection connection) {
+        if (status.getCode() != Status.Code.UNAVAILABLE) {
+            return false;
+        }
+        // UNAVAILABLE status of the call processed by the daemon has no cause
+        // and connection stays ready
+        return status.getCause() != null
+            || connection.channel.getState(false) != ConnectivityState.READY;
+    }
+
+    private static boolean isNotConnected(Status status) {
+        for (Throwable cause = status.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException
+                    || cause instanceof NoRouteToHostException
+                    || cause instanceof UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // @ThreadSafe
+    private static class ChannelPool {
+
+        private final List<Slot> slots;
+        private final Channel channel;
+
+        private ChannelPool(List<Slot> slots, ClientInterceptor interceptor,
+                IntUnaryOperator random) {
+            this.slots = slots;
+            Channel balancer = slots.size() == 1 ? slots.get(0)
+                : new LoadBalancingChannel(slots, System::nanoTime, random);
+            this.channel = ClientInterceptors.intercept(balancer, interceptor);
+        }
+
+        private Channel asChannel() {
+            return channel;
+        }
+
+        private void watchState() {
+            slots.forEach(slot -> slot.watchState(slot.current.get()));
+        }
+
+        private void shutdownNow() {
+            slots.forEach(Slot::shutdownNow);
+        }
+
     }
 
     // @ThreadSafe
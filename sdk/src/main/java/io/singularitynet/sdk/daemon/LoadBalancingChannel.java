@@ -0,0 +1,173 @@
+package io.singularitynet.sdk.daemon;
+
+import io.grpc.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * gRPC channel which distributes calls between several underlying channels
+ * using power of two choices. Two channels are selected randomly and the
+ * call is sent to the one which has lower score. Score depends on the
+ * exponentially weighted moving average of the calls latency and the number
+ * of calls in progress. Thus slow and overloaded channels receive less
+ * calls. Latency of the call is measured from its start till the response
+ * headers are received, or till the call is closed when there are no
+ * headers, so lifetime of the streaming call is not counted. Latency decays
+ * exponentially with time since the last call was measured, so channel
+ * which doesn't receive calls because it was slow or unavailable gets a call
+ * again after a while and its latency is measured again.
+ */
+// @ThreadSafe
+class LoadBalancingChannel extends Channel {
+
+    private static final double EWMA_WEIGHT = 0.3;
+    private static final long FAILURE_LATENCY_MILLIS = 30_000;
+    private static final long LATENCY_DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final List<Subchannel> subchannels;
+    private final LongSupplier nanoClock;
+    private final IntUnaryOperator random;
+
+    /**
+     * Constructor.
+     * @param channels underlying channels, at least one.
+     * @param nanoClock source of the time in nanoseconds to measure latency.
+     */
+    LoadBalancingChannel(List<? extends Channel> channels, LongSupplier nanoClock) {
+        this(channels, nanoClock, bound -> ThreadLocalRandom.current().nextInt(bound));
+    }
+
+    /**
+     * Constructor.
+     * @param channels underlying channels, at least one.
+     * @param nanoClock source of the time in nanoseconds to measure latency.
+     * @param random returns random number from zero inclusive to the bound
+     * passed exclusive, it is used to select channels to compare.
+     */
+    LoadBalancingChannel(List<? extends Channel> channels, LongSupplier nanoClock,
+            IntUnaryOperator random) {
+        this.subchannels = new ArrayList<>(channels.size());
+        for (Channel channel : channels) {
+            subchannels.add(new Subchannel(channel));
+        }
+        this.nanoClock = nanoClock;
+        this.random = random;
+    }
+
+    @Override
+    public <ReqT,RespT> ClientCall<ReqT,RespT> newCall(
+            MethodDescriptor<ReqT,RespT> method,
+            CallOptions callOptions) {
+        Subchannel subchannel = choose();
+        return new ForwardingClientCall.SimpleForwardingClientCall<ReqT,RespT>(
+                subchannel.channel.newCall(method, callOptions)) {
+
+            @Override
+            public void start(Listener<RespT> listener, Metadata headers) {
+                long start = nanoClock.getAsLong();
+                subchannel.outstanding.incrementAndGet();
+                try {
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(listener) {
+
+                        // listener methods are called sequentially
+                        private boolean sampled = false;
+
+                        @Override
+                        public void onHeaders(Metadata headers) {
+                            if (!sampled) {
+                                sampled = true;
+                                subchannel.sample(Status.OK, start, nanoClock.getAsLong());
+                            }
+                            super.onHeaders(headers);
+                        }
+
+                        @Override
+                        public void onClose(Status status, Metadata trailers) {
+                            subchannel.outstanding.decrementAndGet();
+                            if (!sampled) {
+                                sampled = true;
+                                subchannel.sample(status, start, nanoClock.getAsLong());
+                            }
+                            super.onClose(status, trailers);
+                        }
+
+                    }, headers);
+                } catch (RuntimeException e) {
+                    subchannel.outstanding.decrementAndGet();
+                    throw e;
+                }
+            }
+
+        };
+    }
+
+    @Override
+    public String authority() {
+        return subchannels.get(0).channel.authority();
+    }
+
+    private Subchannel choose() {
+        int size = subchannels.size();
+        if (size == 1) {
+            return subchannels.get(0);
+        }
+        int first = random.applyAsInt(size);
+        int second = random.applyAsInt(size - 1);
+        if (second >= first) {
+            ++second;
+        }
+        Subchannel a = subchannels.get(first);
+        Subchannel b = subchannels.get(second);
+        long now = nanoClock.getAsLong();
+        return a.getScore(now) <= b.getScore(now) ? a : b;
+    }
+
+    private static class Subchannel {
+
+        private final Channel channel;
+        private final AtomicInteger outstanding = new AtomicInteger(0);
+        // guarded by this
+        private double latency = 0;
+        // guarded by this
+        private boolean sampled = false;
+        // guarded by this
+        private long sampledAt = 0;
+
+        private Subchannel(Channel channel) {
+            this.channel = channel;
+        }
+
+        private double getScore(long now) {
+            synchronized (this) {
+                return (getLatency(now) + 1) * (outstanding.get() + 1);
+            }
+        }
+
+        // guarded by this
+        private double getLatency(long now) {
+            long elapsed = Math.max(0, now - sampledAt);
+            return latency * Math.exp(-(double) elapsed / LATENCY_DECAY_NANOS);
+        }
+
+        private void sample(Status status, long start, long end) {
+            long millis = status.getCode() == Status.Code.UNAVAILABLE
+                ? FAILURE_LATENCY_MILLIS : TimeUnit.NANOSECONDS.toMillis(end - start);
+            synchronized (this) {
+                if (sampled) {
+                    latency = EWMA_WEIGHT * millis + (1 - EWMA_WEIGHT) * getLatency(end);
+                } else {
+                    latency = millis;
+                    sampled = true;
+                }
+                sampledAt = end;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.singularitynet.sdk.daemon;
+
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.registry.MetadataProvider;
+import io.singularitynet.sdk.registry.ServiceMetadata;
+import io.singularitynet.sdk.registry.EndpointGroup;
+
+/**
+ * Endpoint selection strategy which returns endpoints of the specified
+ * endpoint group in turn starting from the random one. Being used with
+ * the daemon connection pool of the size equal or greater than number of
+ * endpoints in the group it opens channels to all replicas of the service
+ * and calls are balanced between them according to their latency and load.
+ * @see io.singularitynet.sdk.client.Configuration.Builder#setDaemonConnectionPoolSize
+ */
+@ToString
+public class RoundRobinGroupEndpointSelector implements EndpointSelector {
+
+    private final static Logger log = LoggerFactory.getLogger(RoundRobinGroupEndpointSelector.class);
+
+    private final String endpointGroupName;
+    @ToString.Exclude
+    private final AtomicInteger next = new AtomicInteger(
+            ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+
+    /**
+     * @param endpointGroupName name of the endpoint group to connect.
+     */
+    public RoundRobinGroupEndpointSelector(String endpointGroupName) {
+        this.endpointGroupName = endpointGroupName;
+    }
+
+    @Override
+    public Endpoint nextEndpoint(MetadataProvider metadataProvider) {
+        ServiceMetadata serviceMetadata = metadataProvider.getServiceMetadata();
+        EndpointGroup group = serviceMetadata
+            .getEndpointGroupByName(endpointGroupName).get();
+        List<URL> endpoints = group.getEndpoints();
+        URL url = endpoints.get(Math.floorMod(next.getAndIncrement(), endpoints.size()));
+        log.info("Next endpoint selected: {}", url);
+        return new Endpoint() {
+
+            public EndpointGroup getGroup() {
+                return group;
+            }
+
+            public URL getUrl() {
+                return url;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,195 @@
+package io.singularitynet.sdk.ethereum;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.web3j.protocol.Web3j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.common.Utils;
+
+/**
+ * Keeps the latest known Ethereum block number. Block number is refreshed in
+ * background while clock is in use. When the known block number is older
+ * than maximum staleness value it is requested from the Ethereum node
+ * synchronously on read. Block number never goes back even if Ethereum node
+ * returns lower value. Listeners are notified when new block number is
+ * observed, background refresh is not paused while there are listeners.
+ */
+// @ThreadSafe
+public class BlockClock {
+
+    private final static Logger log = LoggerFactory.getLogger(BlockClock.class);
+
+    /**
+     * Default period of the background block number refresh in milliseconds.
+     */
+    public static final long DEFAULT_REFRESH_PERIOD_MILLIS = 5_000;
+    /**
+     * Default maximum age of the block number returned in milliseconds.
+     */
+    public static final long DEFAULT_MAX_STALENESS_MILLIS = 15_000;
+    /**
+     * Background refresh is paused when clock is not read longer than this
+     * time in milliseconds.
+     */
+    public static final long IDLE_TIMEOUT_MILLIS = 60_000;
+
+    private final Web3j web3j;
+    private final long maxStalenessMillis;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private volatile long lastReadMillis;
+    private volatile ScheduledFuture<?> refreshTask;
+    private final List<Consumer<BigInteger>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * New clock which requests block number on each read.
+     * @param web3j web3j instance.
+     */
+    public BlockClock(Web3j web3j) {
+        this(web3j, 0);
+    }
+
+    /**
+     * New clock with bounded staleness.
+     * @param web3j web3j instance.
+     * @param maxStalenessMillis maximum age of the block number returned in
+     * milliseconds.
+     */
+    public BlockClock(Web3j web3j, long maxStalenessMillis) {
+        this.web3j = web3j;
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    /**
+     * Start refreshing block number in background.
+     * @param scheduler scheduler to run refresh task.
+     * @param refreshPeriodMillis period of the refresh in milliseconds.
+     */
+    public void start(ScheduledExecutorService scheduler, long refreshPeriodMillis) {
+        refreshTask = scheduler.scheduleWithFixedDelay(this::refreshInBackground,
+                0, refreshPeriodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop refreshing block number in background.
+     */
+    public void stop() {
+        ScheduledFuture<?> task = refreshTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Return the latest known block number, request it from Ethereum node if
+     * it is too old.
+     * @return Ethereum block number.
+     */
+    public BigInteger getBlockNumber() {
+        long now = System.currentTimeMillis();
+        lastReadMillis = now;
+        Snapshot current = snapshot.get();
+        if (current == null || now - current.updatedMillis >= maxStalenessMillis) {
+            return refresh();
+        }
+        return current.blockNumber;
+    }
+
+    /**
+     * @return time of the last block number update in milliseconds since
+     * epoch, 0 if block number was not requested yet.
+     */
+    public long getLastUpdatedMillis() {
+        Snapshot current = snapshot.get();
+        return current == null ? 0 : current.updatedMillis;
+    }
+
+    /**
+     * Request block number from Ethereum node and update the clock.
+     * @return Ethereum block number.
+     */
+    public BigInteger refresh() {
+        BigInteger blockNumber = Utils.wrapExceptions(() -> web3j.ethBlockNumber()
+                .send().getBlockNumber());
+        return advance(blockNumber);
+    }
+
+    /**
+     * Update the clock using the block number observed by another
+     * component, for instance block number of the transaction receipt.
+     * @param blockNumber block number observed.
+     * @return the latest known block number.
+     */
+    public BigInteger advance(BigInteger blockNumber) {
+        Snapshot update = new Snapshot(blockNumber, System.currentTimeMillis());
+        Snapshot prev = snapshot.getAndAccumulate(update, (current, next) -> {
+            if (current == null || current.blockNumber.compareTo(next.blockNumber) <= 0) {
+                return next;
+            }
+            return new Snapshot(current.blockNumber, next.updatedMillis);
+        });
+        if (prev != null && prev.blockNumber.compareTo(blockNumber) >= 0) {
+            return prev.blockNumber;
+        }
+        for (Consumer<BigInteger> listener : listeners) {
+            try {
+                listener.accept(blockNumber);
+            } catch (RuntimeException e) {
+                log.warn("Block number listener failed", e);
+            }
+        }
+        return blockNumber;
+    }
+
+    /**
+     * Add listener which is called each time new block number is observed.
+     * Listener is called by the thread which updates the clock so it
+     * should not block.
+     * @param listener listener to add.
+     */
+    public void addListener(Consumer<BigInteger> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove listener added before.
+     * @param listener listener to remove.
+     */
+    public void removeListener(Consumer<BigInteger> listener) {
+        listeners.remove(listener);
+    }
+
+    private void refreshInBackground() {
+        if (listeners.isEmpty()
+                && System.currentTimeMillis() - lastReadMillis > IDLE_TIMEOUT_MILLIS) {
+            return;
+        }
+        try {
+            BigInteger blockNumber = refresh();
+            log.debug("Block number refreshed: {}", blockNumber);
+        } catch (RuntimeException e) {
+            log.warn("Cannot refresh block number", e);
+        }
+    }
+
+    private static class Snapshot {
+
+        private final BigInteger blockNumber;
+        private final long updatedMillis;
+
+        public Snapshot(BigInteger blockNumber, long updatedMillis) {
+            this.blockNumber = blockNumber;
+            this.updatedMillis = updatedMillis;
+        }
+
+    }
+
+}
@@ -0,0 +1,214 @@
+package io.singularitynet.sdk.ethereum;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionException;
+import org.web3j.tx.response.TransactionReceiptProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Transaction receipt processor which is shared by all pending transactions.
+ * Instead of sleeping between receipt requests of each transaction it
+ * listens to the block number updates of the {@link BlockClock} and requests
+ * receipts of all pending transactions as soon as new block is mined. So
+ * receipt is returned within one block clock refresh period after
+ * transaction is included. Processor listens to the clock only while there
+ * are pending transactions. It should be started before the first
+ * transaction is sent.
+ */
+// @ThreadSafe
+public class BlockPollingReceiptProcessor extends TransactionReceiptProcessor
+    implements AutoCloseable {
+
+    private final static Logger log = LoggerFactory.getLogger(BlockPollingReceiptProcessor.class);
+
+    /**
+     * Default time to wait for the transaction receipt.
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 600_000;
+
+    private final Web3j web3j;
+    private final long timeoutMillis;
+    private final ConcurrentMap<String, CompletableFuture<TransactionReceipt>> pending =
+        new ConcurrentHashMap<>();
+    private final Consumer<BigInteger> listener = this::onNewBlock;
+    private final AtomicBoolean checking = new AtomicBoolean(false);
+
+    // guarded by this
+    private BlockClock blockClock;
+    // guarded by this
+    private Executor executor;
+    // guarded by this
+    private boolean listening = false;
+    // guarded by this
+    private boolean closed = false;
+
+    /**
+     * New processor with default timeout.
+     * @param web3j web3j instance.
+     */
+    public BlockPollingReceiptProcessor(Web3j web3j) {
+        this(web3j, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * New processor.
+     * @param web3j web3j instance.
+     * @param timeoutMillis time to wait for the transaction receipt.
+     */
+    public BlockPollingReceiptProcessor(Web3j web3j, long timeoutMillis) {
+        super(web3j);
+        this.web3j = web3j;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Start processing receipts on the block number updates.
+     * @param blockClock clock which notifies about new blocks, it should be
+     * refreshed in background.
+     * @param executor executor to request receipts, block clock thread is
+     * not blocked by requests.
+     */
+    public void start(BlockClock blockClock, Executor executor) {
+        synchronized (this) {
+            this.blockClock = blockClock;
+            this.executor = executor;
+            if (!pending.isEmpty()) {
+                startListening();
+            }
+        }
+    }
+
+    @Override
+    public TransactionReceipt waitForTransactionReceipt(String transactionHash)
+            throws IOException, TransactionException {
+        CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Receipt processor is closed");
+            }
+            CompletableFuture<TransactionReceipt> prev = pending.putIfAbsent(transactionHash, future);
+            if (prev != null) {
+                future = prev;
+            }
+            if (blockClock != null) {
+                startListening();
+            }
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TransactionException("Transaction receipt was not generated after "
+                    + timeoutMillis / 1000 + " seconds for transaction: " + transactionHash);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TransactionException) {
+                throw (TransactionException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            pending.remove(transactionHash, future);
+        }
+    }
+
+    // guarded by this
+    private void startListening() {
+        if (!listening) {
+            log.debug("Start listening to new blocks");
+            blockClock.addListener(listener);
+            listening = true;
+        }
+    }
+
+    private void onNewBlock(BigInteger block) {
+        Executor executor;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                log.debug("No pending transactions, stop listening to new blocks");
+                blockClock.removeListener(listener);
+                listening = false;
+                return;
+            }
+            executor = this.executor;
+        }
+        if (!checking.compareAndSet(false, true)) {
+            log.debug("New block: {}, previous check is in progress", block);
+            return;
+        }
+        try {
+            executor.execute(() -> checkPending(block));
+        } catch (RejectedExecutionException e) {
+            checking.set(false);
+            log.warn("Cannot check pending transactions", e);
+        }
+    }
+
+    private void checkPending(BigInteger block) {
+        try {
+            log.debug("New block: {}, check pending transactions: {}", block, pending.size());
+            for (Map.Entry<String, CompletableFuture<TransactionReceipt>> entry : pending.entrySet()) {
+                try {
+                    checkReceipt(entry.getKey(), entry.getValue());
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Error while requesting transaction receipt, transactionHash: {}",
+                            entry.getKey(), e);
+                }
+            }
+        } finally {
+            checking.set(false);
+        }
+    }
+
+    private void checkReceipt(String transactionHash,
+            CompletableFuture<TransactionReceipt> future) throws IOException {
+        EthGetTransactionReceipt response = web3j
+            .ethGetTransactionReceipt(transactionHash).send();
+        if (response.hasError()) {
+            future.completeExceptionally(new TransactionException(
+                        "Error processing request: " + response.getError().getMessage()));
+            return;
+        }
+        Optional<TransactionReceipt> receipt = response.getTransactionReceipt();
+        if (receipt.isPresent()) {
+            log.debug("Transaction receipt received, transactionHash: {}", transactionHash);
+            future.complete(receipt.get());
+        }
+    }
+
+    /**
+     * Stop listening to new blocks and fail pending transactions.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (listening) {
+                blockClock.removeListener(listener);
+                listening = false;
+            }
+        }
+        IOException error = new IOException("Receipt processor is closed");
+        for (CompletableFuture<TransactionReceipt> future : pending.values()) {
+            future.completeExceptionally(error);
+        }
+    }
+
+}
@@ -3,30 +3,47 @@ package io.singularitynet.sdk.ethereum;
 import java.math.BigInteger;
 import org.web3j.protocol.Web3j;
 
-import io.singularitynet.sdk.common.Utils;
-
 /**
  * Web3j wrapper to provide single point of access to the Ethereum JSON RPC.
+ * Block number is read using block clock which can cache it.
  */
 public class Ethereum {
 
     private final Web3j web3j;
+    private final BlockClock blockClock;
 
     /**
-     * Constructor.
+     * Constructor. Block number is requested from Ethereum node on each call.
      * @param web3j web3j instance.
      */
     public Ethereum(Web3j web3j) {
+        this(web3j, new BlockClock(web3j));
+    }
+
+    /**
+     * Constructor.
+     * @param web3j web3j instance.
+     * @param blockClock block clock to read block number.
+     */
+    public Ethereum(Web3j web3j, BlockClock blockClock) {
         this.web3j = web3j;
+        this.blockClock = blockClock;
     }
 
     /**
-     * Return latest Ethereum block number.
+     * Return latest Ethereum block number. Block number can be stale up to
+     * the maximum staleness value of the block clock.
      * @return ethereum block number.
      */
     public BigInteger getEthBlockNumber() {
-        return Utils.wrapExceptions(() -> web3j.ethBlockNumber().send()
-                .getBlockNumber());
+        return blockClock.getBlockNumber();
+    }
+
+    /**
+     * @return block clock instance.
+     */
+    public BlockClock getBlockClock() {
+        return blockClock;
     }
 
 }
@@ -0,0 +1,71 @@
+package io.singularitynet.sdk.ethereum;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import org.web3j.crypto.Credentials;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.tx.FastRawTransactionManager;
+import org.web3j.tx.response.TransactionReceiptProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Transaction manager which assigns transaction nonces locally. Nonce is
+ * requested from the Ethereum node before the first transaction only and
+ * then incremented for each next transaction, so several transactions of
+ * the same identity can be sent without waiting for the previous ones to be
+ * mined. When transaction cannot be sent the assigned nonce is not used by
+ * node, so manager forgets the local nonce and requests it from the node
+ * again before the next transaction.
+ */
+// @ThreadSafe
+public class LocalNonceTransactionManager extends FastRawTransactionManager {
+
+    private final static Logger log = LoggerFactory.getLogger(LocalNonceTransactionManager.class);
+
+    private static final BigInteger UNKNOWN_NONCE = BigInteger.valueOf(-1);
+
+    /**
+     * Constructor.
+     * @param web3j web3j instance.
+     * @param credentials credentials to sign transactions.
+     */
+    public LocalNonceTransactionManager(Web3j web3j, Credentials credentials) {
+        super(web3j, credentials);
+    }
+
+    /**
+     * Constructor.
+     * @param web3j web3j instance.
+     * @param credentials credentials to sign transactions.
+     * @param receiptProcessor processor to wait for transaction receipts.
+     */
+    public LocalNonceTransactionManager(Web3j web3j, Credentials credentials,
+            TransactionReceiptProcessor receiptProcessor) {
+        super(web3j, credentials, receiptProcessor);
+    }
+
+    @Override
+    public EthSendTransaction sendTransaction(BigInteger gasPrice,
+            BigInteger gasLimit, String to, String data, BigInteger value)
+            throws IOException {
+        EthSendTransaction response;
+        try {
+            response = super.sendTransaction(gasPrice, gasLimit, to, data, value);
+        } catch (IOException | RuntimeException e) {
+            forgetNonce(e.getMessage());
+            throw e;
+        }
+        if (response.hasError()) {
+            forgetNonce(response.getError().getMessage());
+        }
+        return response;
+    }
+
+    private void forgetNonce(String reason) {
+        log.warn("Transaction is not sent, nonce will be requested from node, reason: {}", reason);
+        setNonce(UNKNOWN_NONCE);
+    }
+
+}
@@ -22,6 +22,7 @@ import io.singularitynet.sdk.daemon.DaemonConnection;
  * strategy. Nevetherless it can be useful when calls are rare and there are
  * few clients using the same payment channel. Under such conditions it allows
  * sharing channel state via daemon without additional synchronization.
+ * @see io.singularitynet.sdk.mpe.CachingPaymentChannelStateProvider
  */
 public class AskDaemonFirstPaymentChannelProvider implements PaymentChannelStateProvider {
 
@@ -1,6 +1,7 @@
 package io.singularitynet.sdk.mpe;
 
 import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 import io.singularitynet.sdk.ethereum.Address;
@@ -38,6 +39,30 @@ public interface BlockchainPaymentChannelManager {
     PaymentChannel openPaymentChannel(PaymentGroup paymentGroup,
             WithAddress signer, BigInteger value, BigInteger expiration);
 
+    /**
+     * Open channel for the given payment group of the organization
+     * asynchronously. Default implementation calls openPaymentChannel() in
+     * the caller thread. Implementations which send transactions to the
+     * network should override it to allow opening several channels at once.
+     * @param paymentGroup payment group to open channel.
+     * @param signer identity which can be used to sign payments on this
+     * channel.
+     * @param value initial value in the channel in cogs.
+     * @param expiration the block number at which channel is expired.
+     * @return future which is completed by created payment channel.
+     */
+    default CompletableFuture<PaymentChannel> openPaymentChannelAsync(
+            PaymentGroup paymentGroup, WithAddress signer, BigInteger value,
+            BigInteger expiration) {
+        CompletableFuture<PaymentChannel> future = new CompletableFuture<>();
+        try {
+            future.complete(openPaymentChannel(paymentGroup, signer, value, expiration));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     /**
      * Add funds to the channel value.
      * @param channel payment channel to add funds.
@@ -46,6 +71,24 @@ public interface BlockchainPaymentChannelManager {
      */
     PaymentChannel addFundsToChannel(PaymentChannel channel, BigInteger amount);
 
+    /**
+     * Add funds to the channel value asynchronously. Default implementation
+     * calls addFundsToChannel() in the caller thread.
+     * @param channel payment channel to add funds.
+     * @param amount number of cogs to add.
+     * @return future which is completed by updated payment channel state.
+     */
+    default CompletableFuture<PaymentChannel> addFundsToChannelAsync(PaymentChannel channel,
+            BigInteger amount) {
+        CompletableFuture<PaymentChannel> future = new CompletableFuture<>();
+        try {
+            future.complete(addFundsToChannel(channel, amount));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     /**
      * Extend channel expiration block. Expiration block can be increased
      * only.
@@ -55,6 +98,24 @@ public interface BlockchainPaymentChannelManager {
      */
     PaymentChannel extendChannel(PaymentChannel channel, BigInteger expiration);
 
+    /**
+     * Extend channel expiration block asynchronously. Default implementation
+     * calls extendChannel() in the caller thread.
+     * @param channel payment channel to extend.
+     * @param expiration new expiration block.
+     * @return future which is completed by updated payment channel state.
+     */
+    default CompletableFuture<PaymentChannel> extendChannelAsync(PaymentChannel channel,
+            BigInteger expiration) {
+        CompletableFuture<PaymentChannel> future = new CompletableFuture<>();
+        try {
+            future.complete(extendChannel(channel, expiration));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     /**
      * Extend channel expiration block and add funds to channel at once. This
      * operation is more effective then combination of extendChannel and
@@ -68,4 +129,24 @@ public interface BlockchainPaymentChannelManager {
     PaymentChannel extendAndAddFundsToChannel(PaymentChannel channel,
             BigInteger expiration, BigInteger amount);
 
+    /**
+     * Extend channel expiration block and add funds to channel at once
+     * asynchronously. Default implementation calls
+     * extendAndAddFundsToChannel() in the caller thread.
+     * @param channel payment channel to update
+     * @param expiration new expiration block, can be increased only.
+     * @param amount number of cogs to add.
+     * @return future which is completed by updated payment channel state.
+     */
+    default CompletableFuture<PaymentChannel> extendAndAddFundsToChannelAsync(
+            PaymentChannel channel, BigInteger expiration, BigInteger amount) {
+        CompletableFuture<PaymentChannel> future = new CompletableFuture<>();
+        try {
+            future.complete(extendAndAddFundsToChannel(channel, expiration, amount));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
 }
@@ -0,0 +1,83 @@
+package io.singularitynet.sdk.mpe;
+
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.ethereum.Identity;
+
+/**
+ * Payment channel state provider which keeps local ledger of the channel
+ * states. It asks the delegate provider for the channel state only once and
+ * then tracks spent amount, nonce and value of the channel locally using
+ * notifications about accepted payments and channel updates. Channel state is
+ * requested from the delegate again when the nonce of the channel is changed
+ * or when the daemon rejects a payment. The provider assumes that the client
+ * is the only user of the channel; when it is not true the daemon rejects
+ * the payment and the provider syncs the channel state again.
+ */
+public class CachingPaymentChannelStateProvider implements PaymentChannelStateProvider {
+
+    private final static Logger log = LoggerFactory.getLogger(CachingPaymentChannelStateProvider.class);
+
+    private final PaymentChannelStateProvider delegate;
+    private final ConcurrentMap<BigInteger, PaymentChannel> channelById = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param delegate provider which is used to sync the channel state.
+     */
+    public CachingPaymentChannelStateProvider(PaymentChannelStateProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public PaymentChannel getChannelStateById(BigInteger channelId, Identity requestor) {
+        PaymentChannel channel = channelById.get(channelId);
+        if (channel != null) {
+            log.debug("Local channel state, channel: {}", channel);
+            return channel;
+        }
+        log.debug("Sync channel state, channelId: {}", channelId);
+        channel = delegate.getChannelStateById(channelId, requestor);
+        PaymentChannel previous = channelById.putIfAbsent(channelId, channel);
+        return previous != null ? previous : channel;
+    }
+
+    @Override
+    public void channelStateUpdated(PaymentChannel channel) {
+        channelById.merge(channel.getChannelId(), channel, (known, updated) -> {
+            if (!known.getNonce().equals(updated.getNonce())) {
+                return updated;
+            }
+            return updated.toBuilder()
+                .setSpentAmount(known.getSpentAmount().max(updated.getSpentAmount()))
+                .build();
+        });
+    }
+
+    @Override
+    public void paymentAccepted(EscrowPayment payment) {
+        channelById.computeIfPresent(payment.getChannelId(), (id, channel) -> {
+            if (!channel.getNonce().equals(payment.getChannelNonce())) {
+                log.info("Channel nonce is changed, channel: {}, payment: {}", channel, payment);
+                return null;
+            }
+            if (channel.getSpentAmount().compareTo(payment.getAmount()) >= 0) {
+                return channel;
+            }
+            return channel.toBuilder()
+                .setSpentAmount(payment.getAmount())
+                .build();
+        });
+    }
+
+    @Override
+    public void paymentRejected(EscrowPayment payment) {
+        log.info("Payment is rejected, forget local channel state, payment: {}", payment);
+        channelById.remove(payment.getChannelId());
+    }
+
+}
@@ -0,0 +1,203 @@
+package io.singularitynet.sdk.mpe;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import com.google.gson.Gson;
+import lombok.EqualsAndHashCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.common.Utils;
+import io.singularitynet.sdk.ethereum.Address;
+import io.singularitynet.sdk.ethereum.BlockClock;
+import io.singularitynet.sdk.ethereum.WithAddress;
+import io.singularitynet.sdk.registry.PaymentGroupId;
+
+/**
+ * Incremental index of the MultiPartyEscrow ChannelOpen events. Index is
+ * kept separately for each pair of payment group and identity which were
+ * requested. Indexer remembers the last indexed block of each pair and
+ * requests events from the new blocks only. Events are filtered by the
+ * payment group which is an indexed event field on the Ethereum node side.
+ * Signer is not an indexed field of the ChannelOpen event, so channels
+ * where identity is a sender or a signer are selected locally from the
+ * single query result. Each update scans last
+ * RESCAN_DEPTH_BLOCKS blocks again, so events which were missed because of
+ * chain reorganization or Ethereum node which returns logs lagging behind
+ * its block number are indexed by the next update. Channels are
+ * deduplicated by id. Indexed channels and the last indexed blocks are
+ * saved to the checkpoint storage when new channels are found and loaded on
+ * start, so restarted process doesn't scan the blockchain history again.
+ */
+// @ThreadSafe
+public class ChannelOpenEventIndexer {
+
+    private final static Logger log = LoggerFactory.getLogger(ChannelOpenEventIndexer.class);
+
+    /**
+     * Number of the already indexed blocks which are scanned again on each
+     * update.
+     */
+    public static final BigInteger RESCAN_DEPTH_BLOCKS = BigInteger.valueOf(12);
+
+    private final MultiPartyEscrowContract mpe;
+    private final BlockClock blockClock;
+    private final CheckpointStorage storage;
+    private final Gson gson = new Gson();
+
+    // guarded by this
+    private final Map<IndexKey, Index> indexByKey = new HashMap<>();
+
+    /**
+     * Constructor.
+     * @param mpe MultiPartyEscrow contract adapter.
+     * @param blockClock block clock to get the latest block to index.
+     * @param storage storage to keep the checkpoint.
+     */
+    public ChannelOpenEventIndexer(MultiPartyEscrowContract mpe,
+            BlockClock blockClock, CheckpointStorage storage) {
+        this.mpe = mpe;
+        this.blockClock = blockClock;
+        this.storage = storage;
+        loadCheckpoint();
+    }
+
+    /**
+     * Index events from the blocks added after the last update and return
+     * channels of the payment group which can be used by the identity given.
+     * @param paymentGroupId payment group id.
+     * @param identity sender or signer of the channels.
+     * @return list of the channels in the state of the moment of opening
+     * ordered by channel id.
+     */
+    public synchronized List<PaymentChannel> getChannelsAccessibleBy(
+            PaymentGroupId paymentGroupId, WithAddress identity) {
+        IndexKey key = new IndexKey(paymentGroupId, identity.getAddress());
+        Index index = indexByKey.computeIfAbsent(key, k -> new Index());
+        update(key, index);
+        return new ArrayList<>(index.channelById.values());
+    }
+
+    /**
+     * Index events from the blocks added after the last update for all pairs
+     * of payment group and identity which were requested before.
+     */
+    public synchronized void update() {
+        indexByKey.forEach(this::update);
+    }
+
+    private void update(IndexKey key, Index index) {
+        BigInteger toBlock = blockClock.getBlockNumber();
+        if (index.lastIndexedBlock.compareTo(toBlock) >= 0) {
+            return;
+        }
+        BigInteger fromBlock = index.lastIndexedBlock.add(BigInteger.ONE)
+            .subtract(RESCAN_DEPTH_BLOCKS).max(BigInteger.ZERO);
+        log.debug("Indexing ChannelOpen events, paymentGroupId: {}, address: {}, fromBlock: {}, toBlock: {}",
+                key.paymentGroupId, key.address, fromBlock, toBlock);
+        WithAddress identity = () -> key.address;
+        List<PaymentChannel> channels = mpe.getChannelOpenEvents(fromBlock,
+                toBlock, Optional.empty(), Optional.empty(),
+                Optional.of(key.paymentGroupId))
+            .filter(ch -> ch.isAccessibleBy(identity))
+            .collect(Collectors.toList());
+        int added = 0;
+        for (PaymentChannel channel : channels) {
+            if (index.channelById.putIfAbsent(channel.getChannelId(), channel) == null) {
+                ++added;
+            }
+        }
+        boolean firstUpdate = index.lastIndexedBlock.signum() < 0;
+        index.lastIndexedBlock = toBlock;
+        log.debug("ChannelOpen events indexed, new channels found: {}", added);
+        // checkpoint which keeps older last indexed block is still valid,
+        // the blocks after it are scanned on restart
+        if (firstUpdate || added > 0) {
+            saveCheckpoint();
+        }
+    }
+
+    private synchronized void loadCheckpoint() {
+        Optional<byte[]> bytes = storage.load();
+        if (!bytes.isPresent()) {
+            return;
+        }
+        try {
+            Checkpoint checkpoint = gson.fromJson(Utils.bytesToStr(bytes.get()),
+                    Checkpoint.class);
+            if (!mpe.getContractAddress().toString().equalsIgnoreCase(checkpoint.mpeAddress)
+                    || checkpoint.entries == null) {
+                log.warn("Checkpoint is saved for another MultiPartyEscrow contract or in old format, ignore it, mpeAddress: {}",
+                        checkpoint.mpeAddress);
+                return;
+            }
+            for (CheckpointEntry entry : checkpoint.entries) {
+                Index index = new Index();
+                index.lastIndexedBlock = entry.lastIndexedBlock;
+                entry.channels.forEach(ch -> index.channelById.put(ch.getChannelId(), ch));
+                indexByKey.put(new IndexKey(entry.paymentGroupId, entry.address), index);
+            }
+            log.info("Checkpoint loaded, entries: {}", checkpoint.entries.size());
+        } catch (RuntimeException e) {
+            log.warn("Cannot load checkpoint, indexing from the beginning", e);
+            indexByKey.clear();
+        }
+    }
+
+    private void saveCheckpoint() {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.mpeAddress = mpe.getContractAddress().toString();
+        checkpoint.entries = indexByKey.entrySet().stream()
+            .map(e -> {
+                CheckpointEntry entry = new CheckpointEntry();
+                entry.paymentGroupId = e.getKey().paymentGroupId;
+                entry.address = e.getKey().address;
+                entry.lastIndexedBlock = e.getValue().lastIndexedBlock;
+                entry.channels = new ArrayList<>(e.getValue().channelById.values());
+                return entry;
+            })
+            .collect(Collectors.toList());
+        try {
+            storage.save(Utils.strToBytes(gson.toJson(checkpoint)));
+        } catch (RuntimeException e) {
+            log.warn("Cannot save checkpoint", e);
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class IndexKey {
+
+        private final PaymentGroupId paymentGroupId;
+        private final Address address;
+
+        public IndexKey(PaymentGroupId paymentGroupId, Address address) {
+            this.paymentGroupId = paymentGroupId;
+            this.address = address;
+        }
+
+    }
+
+    private static class Index {
+        private BigInteger lastIndexedBlock = BigInteger.valueOf(-1);
+        private final Map<BigInteger, PaymentChannel> channelById = new TreeMap<>();
+    }
+
+    private static class Checkpoint {
+        private String mpeAddress;
+        private List<CheckpointEntry> entries;
+    }
+
+    private static class CheckpointEntry {
+        private PaymentGroupId paymentGroupId;
+        private Address address;
+        private BigInteger lastIndexedBlock;
+        private List<PaymentChannel> channels;
+    }
+
+}
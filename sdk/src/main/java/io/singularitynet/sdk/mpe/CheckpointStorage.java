@@ -0,0 +1,39 @@
+package io.singularitynet.sdk.mpe;
+
+import java.util.Optional;
+
+/**
+ * Storage to persist the checkpoint of the blockchain events indexing
+ * between SDK restarts.
+ */
+public interface CheckpointStorage {
+
+    /**
+     * Load the last checkpoint saved.
+     * @return checkpoint content or empty value if there is no checkpoint.
+     */
+    Optional<byte[]> load();
+
+    /**
+     * Save the checkpoint replacing the previous one.
+     * @param checkpoint checkpoint content.
+     */
+    void save(byte[] checkpoint);
+
+    /**
+     * Return storage which doesn't persist anything.
+     * @return storage instance.
+     */
+    static CheckpointStorage none() {
+        return new CheckpointStorage() {
+            @Override
+            public Optional<byte[]> load() {
+                return Optional.empty();
+            }
+            @Override
+            public void save(byte[] checkpoint) {
+            }
+        };
+    }
+
+}
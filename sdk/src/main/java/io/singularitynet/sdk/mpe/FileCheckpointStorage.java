@@ -0,0 +1,64 @@
+package io.singularitynet.sdk.mpe;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.common.Utils;
+
+/**
+ * Checkpoint storage which keeps checkpoint in the file. New checkpoint is
+ * written into the unique temporary file in the same directory which then
+ * atomically replaces the previous one, so checkpoint file is not corrupted
+ * or lost if process is stopped while saving, and concurrent saves don't
+ * overwrite each other's temporary files.
+ */
+public class FileCheckpointStorage implements CheckpointStorage {
+
+    private final static Logger log = LoggerFactory.getLogger(FileCheckpointStorage.class);
+
+    private final File file;
+
+    /**
+     * Constructor.
+     * @param file file to keep checkpoint.
+     */
+    public FileCheckpointStorage(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public Optional<byte[]> load() {
+        if (!file.exists()) {
+            log.debug("No checkpoint file found, file: {}", file);
+            return Optional.empty();
+        }
+        return Utils.wrapExceptions(() -> Optional.of(Files.readAllBytes(file.toPath())));
+    }
+
+    @Override
+    public void save(byte[] checkpoint) {
+        Utils.wrapExceptions(() -> {
+            Path target = file.getAbsoluteFile().toPath();
+            Path dir = target.getParent();
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, file.getName(), ".tmp");
+            try {
+                Files.write(temp, checkpoint);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            log.debug("Checkpoint saved, file: {}", file);
+            return null;
+        });
+    }
+
+}
@@ -1,39 +1,112 @@
 package io.singularitynet.sdk.mpe;
 
 import java.math.BigInteger;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import java.util.stream.Collectors;
 
+import io.singularitynet.sdk.common.Preconditions;
+import io.singularitynet.sdk.common.Utils;
+
 import io.singularitynet.sdk.ethereum.Address;
 import io.singularitynet.sdk.ethereum.WithAddress;
 import io.singularitynet.sdk.registry.PaymentGroup;
 import io.singularitynet.sdk.registry.PaymentGroupId;
 
 /**
- * Blockchain payment channel manager implementation.
+ * Blockchain payment channel manager implementation. Channel states are
+ * requested from the MultiPartyEscrow contract in parallel using the
+ * executor given, so the time to get all channels of the identity doesn't
+ * grow linearly with the number of channels. Number of requests in
+ * progress is limited to not exhaust executor threads and not hit the
+ * Ethereum RPC provider rate limits.
  */
 public class MpePaymentChannelManager implements BlockchainPaymentChannelManager {
 
+    /**
+     * Default maximum number of channel state requests in progress.
+     */
+    public static final int DEFAULT_MAX_PARALLEL_REQUESTS = 8;
+
     private final MultiPartyEscrowContract mpe;
+    private final ChannelOpenEventIndexer indexer;
+    private final Executor executor;
+    private final int maxParallelRequests;
     
+    /**
+     * Constructor. Channel states are requested sequentially in the caller
+     * thread.
+     * @param mpe MultiPartyEscrow contract adapter.
+     * @param indexer index of the ChannelOpen events.
+     */
+    public MpePaymentChannelManager(MultiPartyEscrowContract mpe,
+            ChannelOpenEventIndexer indexer) {
+        this(mpe, indexer, Runnable::run);
+    }
+
+    /**
+     * Constructor.
+     * @param mpe MultiPartyEscrow contract adapter.
+     * @param indexer index of the ChannelOpen events.
+     * @param executor executor to request channel states in parallel.
+     */
+    public MpePaymentChannelManager(MultiPartyEscrowContract mpe,
+            ChannelOpenEventIndexer indexer, Executor executor) {
+        this(mpe, indexer, executor, DEFAULT_MAX_PARALLEL_REQUESTS);
+    }
+
     /**
      * Constructor.
      * @param mpe MultiPartyEscrow contract adapter.
+     * @param indexer index of the ChannelOpen events.
+     * @param executor executor to request channel states in parallel.
+     * @param maxParallelRequests maximum number of channel state requests in
+     * progress.
      */
-    public MpePaymentChannelManager(MultiPartyEscrowContract mpe) {
+    public MpePaymentChannelManager(MultiPartyEscrowContract mpe,
+            ChannelOpenEventIndexer indexer, Executor executor,
+            int maxParallelRequests) {
+        Preconditions.checkArgument(maxParallelRequests > 0,
+                "Maximum number of parallel requests should be positive");
         this.mpe = mpe;
+        this.indexer = indexer;
+        this.executor = executor;
+        this.maxParallelRequests = maxParallelRequests;
     }
 
     @Override
     public Stream<PaymentChannel> getChannelsAccessibleBy(
             PaymentGroupId paymentGroupId, WithAddress identity) {
-        return mpe.getChannelOpenEvents()
-            // TODO: move paymentGroupId checking into Ethereum filter
-            .filter(ch -> ch.getPaymentGroupId().equals(paymentGroupId))
-            .filter(ch -> ch.isAccessibleBy(identity))
+        List<BigInteger> ids = indexer
+            .getChannelsAccessibleBy(paymentGroupId, identity).stream()
             .map(ch -> ch.getChannelId())
-            .map(id -> mpe.getChannelById(id).get());
+            .collect(Collectors.toList());
+        List<CompletableFuture<PaymentChannel>> channels = ids.stream()
+            .map(id -> new CompletableFuture<PaymentChannel>())
+            .collect(Collectors.toList());
+        // each worker requests next channel state when previous one is
+        // received, so at most maxParallelRequests are in progress
+        AtomicInteger next = new AtomicInteger(0);
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < ids.size()) {
+                try {
+                    channels.get(i).complete(mpe.getChannelById(ids.get(i)).get());
+                } catch (RuntimeException e) {
+                    channels.get(i).completeExceptionally(e);
+                }
+            }
+        };
+        int workers = Math.min(maxParallelRequests, ids.size());
+        for (int i = 0; i < workers; ++i) {
+            executor.execute(worker);
+        }
+        return channels.stream()
+            .map(future -> Utils.wrapExceptions(future::get));
     }
 
     @Override
@@ -47,6 +120,15 @@ public class MpePaymentChannelManager implements BlockchainPaymentChannelManager
         return channel;
     }
 
+    @Override
+    public CompletableFuture<PaymentChannel> openPaymentChannelAsync(
+            PaymentGroup paymentGroup, WithAddress signer, BigInteger value,
+            BigInteger expiration) {
+        return mpe.openChannelAsync(signer.getAddress(),
+                paymentGroup.getPaymentDetails().getPaymentAddress(),
+                paymentGroup.getPaymentGroupId(), value, expiration);
+    }
+
     @Override
     public PaymentChannel addFundsToChannel(PaymentChannel channel, BigInteger amount) {
         BigInteger valueInc = mpe.channelAddFunds(channel.getChannelId(), amount);
@@ -55,6 +137,15 @@ public class MpePaymentChannelManager implements BlockchainPaymentChannelManager
             .build();
     }
 
+    @Override
+    public CompletableFuture<PaymentChannel> addFundsToChannelAsync(
+            PaymentChannel channel, BigInteger amount) {
+        return mpe.channelAddFundsAsync(channel.getChannelId(), amount)
+            .thenApply(valueInc -> channel.toBuilder()
+                    .setValue(channel.getValue().add(valueInc))
+                    .build());
+    }
+
     @Override
     public PaymentChannel extendChannel(PaymentChannel channel, BigInteger expiration) {
         BigInteger newExpiration = mpe.channelExtend(channel.getChannelId(), expiration);
@@ -63,6 +154,15 @@ public class MpePaymentChannelManager implements BlockchainPaymentChannelManager
             .build();
     }
 
+    @Override
+    public CompletableFuture<PaymentChannel> extendChannelAsync(
+            PaymentChannel channel, BigInteger expiration) {
+        return mpe.channelExtendAsync(channel.getChannelId(), expiration)
+            .thenApply(newExpiration -> channel.toBuilder()
+                    .setExpiration(newExpiration)
+                    .build());
+    }
+
     @Override
     public PaymentChannel extendAndAddFundsToChannel(PaymentChannel channel,
             BigInteger expiration, BigInteger amount) {
@@ -74,4 +174,15 @@ public class MpePaymentChannelManager implements BlockchainPaymentChannelManager
             .build();
     }
 
+    @Override
+    public CompletableFuture<PaymentChannel> extendAndAddFundsToChannelAsync(
+            PaymentChannel channel, BigInteger expiration, BigInteger amount) {
+        return mpe.channelExtendAndAddFundsAsync(channel.getChannelId(),
+                expiration, amount)
+            .thenApply(response -> channel.toBuilder()
+                    .setExpiration(response.expiration)
+                    .setValue(channel.getValue().add(response.valueIncrement))
+                    .build());
+    }
+
 }
@@ -5,6 +5,7 @@ import java.math.BigInteger;
 import java.util.Optional;
 import java.util.Spliterators;
 import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
@@ -14,13 +15,16 @@ import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.methods.request.EthFilter;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.core.DefaultBlockParameter;
 import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.tuples.generated.Tuple7;
 import org.web3j.tx.Contract;
+import org.web3j.utils.Numeric;
 
 import io.singularitynet.sdk.contracts.MultiPartyEscrow;
 import io.singularitynet.sdk.common.Utils;
 import io.singularitynet.sdk.ethereum.Address;
+import io.singularitynet.sdk.ethereum.BlockClock;
 import io.singularitynet.sdk.registry.PaymentGroupId;
 
 /**
@@ -33,6 +37,7 @@ public class MultiPartyEscrowContract {
 
     private final Web3j web3j;
     private final MultiPartyEscrow mpe;
+    private final BlockClock blockClock;
 
     /**
      * New adapter from web3j generated contract.
@@ -40,8 +45,21 @@ public class MultiPartyEscrowContract {
      * @param mpe MultiPartyEscrow generated contract.
      */
     public MultiPartyEscrowContract(Web3j web3j, MultiPartyEscrow mpe) {
+        this(web3j, mpe, new BlockClock(web3j));
+    }
+
+    /**
+     * New adapter from web3j generated contract.
+     * @param web3j web3j instance.
+     * @param mpe MultiPartyEscrow generated contract.
+     * @param blockClock block clock which is updated by block numbers of
+     * the transactions sent.
+     */
+    public MultiPartyEscrowContract(Web3j web3j, MultiPartyEscrow mpe,
+            BlockClock blockClock) {
         this.web3j = web3j;
         this.mpe = mpe;
+        this.blockClock = blockClock;
     }
 
     /**
@@ -97,21 +115,55 @@ public class MultiPartyEscrowContract {
     public PaymentChannel openChannel(Address signer, Address recipient,
             PaymentGroupId groupId, BigInteger value, BigInteger expiration) {
         return Utils.wrapExceptions(() -> {
-            TransactionReceipt transaction = mpe.openChannel(signer.toString(),
+            return toOpenedChannel(observe(mpe.openChannel(signer.toString(),
                     recipient.toString(), groupId.getBytes(), value,
                     shiftToNextBlock(expiration))
-                .send();
-            MultiPartyEscrow.ChannelOpenEventResponse event =
-                mpe.getChannelOpenEvents(transaction).get(0);
-            return channelOpenEventAsPaymentChannel(event);
+                .send()));
         });
     }
 
+    /**
+     * Open MultiPartyEscrow channel asynchronously. Method doesn't wait for
+     * the transaction: it is signed and sent by the web3j async executor.
+     * Nonces are assigned by the transaction manager, so when it is
+     * LocalNonceTransactionManager several transactions can be in flight at
+     * once.
+     * @param signer address of the identity which will be able to sign checks
+     * in this channel.
+     * @param recipient checks recipient.
+     * @param groupId payment group id.
+     * @param value number of cogs to add into channel.
+     * @param expiration payment channel expiration time in Ethereum blocks.
+     * @return future which is completed by the opened payment channel data
+     * when transaction is mined.
+     * @see io.singularitynet.sdk.mpe.MultiPartyEscrowContract#openChannel
+     * @see io.singularitynet.sdk.ethereum.LocalNonceTransactionManager
+     */
+    public CompletableFuture<PaymentChannel> openChannelAsync(Address signer,
+            Address recipient, PaymentGroupId groupId, BigInteger value,
+            BigInteger expiration) {
+        return mpe.openChannel(signer.toString(), recipient.toString(),
+                groupId.getBytes(), value, shiftToNextBlock(expiration))
+            .sendAsync()
+            .thenApply(this::observe)
+            .thenApply(this::toOpenedChannel);
+    }
+
+    private PaymentChannel toOpenedChannel(TransactionReceipt transaction) {
+        MultiPartyEscrow.ChannelOpenEventResponse event =
+            mpe.getChannelOpenEvents(transaction).get(0);
+        return channelOpenEventAsPaymentChannel(event);
+    }
+
     private BigInteger shiftToNextBlock(BigInteger expiration) {
-        return Utils.wrapExceptions(() -> {
-            BigInteger blockBeforeCall = Utils.wrapExceptions(() -> web3j.ethBlockNumber().send().getBlockNumber());
-            return blockBeforeCall.add(expiration).add(BigInteger.valueOf(1));
-        });
+        // block clock can be stale, request actual block number
+        BigInteger blockBeforeCall = blockClock.refresh();
+        return blockBeforeCall.add(expiration).add(BigInteger.valueOf(1));
+    }
+
+    private TransactionReceipt observe(TransactionReceipt transaction) {
+        blockClock.advance(transaction.getBlockNumber());
+        return transaction;
     }
 
     private PaymentChannel channelOpenEventAsPaymentChannel(MultiPartyEscrow.ChannelOpenEventResponse event) {
@@ -136,12 +188,11 @@ public class MultiPartyEscrowContract {
      */
     public void transfer(Address receiver, BigInteger value) {
         Utils.wrapExceptions(() -> {
-            mpe.transfer(receiver.toString(), value).send();
+            observe(mpe.transfer(receiver.toString(), value).send());
             return null;
         });
     }
 
-    // TODO: use server side filtering to restrict number of channels
     /**
      * Return stream of the channel open events up to the latest block.
      * @return payment channel stream. Elements of the stream contains channel
@@ -150,10 +201,66 @@ public class MultiPartyEscrowContract {
      * @see io.singularitynet.sdk.mpe.MultiPartyEscrowContract#getChannelById
      */
     public Stream<PaymentChannel> getChannelOpenEvents() {
+        return getChannelOpenEvents(DefaultBlockParameterName.EARLIEST,
+                DefaultBlockParameterName.LATEST);
+    }
+
+    /**
+     * Return stream of the channel open events within the range of blocks
+     * given.
+     * @param fromBlock first block of the range, inclusive.
+     * @param toBlock last block of the range, inclusive.
+     * @return payment channel stream. Elements of the stream contains channel
+     * state on the moment of the channel opening. It doesn't contain later
+     * channel modifications.
+     * @see io.singularitynet.sdk.mpe.MultiPartyEscrowContract#getChannelById
+     */
+    public Stream<PaymentChannel> getChannelOpenEvents(BigInteger fromBlock,
+            BigInteger toBlock) {
+        return getChannelOpenEvents(fromBlock, toBlock, Optional.empty(),
+                Optional.empty(), Optional.empty());
+    }
+
+    /**
+     * Return stream of the channel open events within the range of blocks
+     * given. Events are filtered by indexed event fields on the Ethereum node
+     * side. Signer is not indexed field of the event so it cannot be used to
+     * filter events.
+     * @param fromBlock first block of the range, inclusive.
+     * @param toBlock last block of the range, inclusive.
+     * @param sender return only channels of the sender if present.
+     * @param recipient return only channels of the recipient if present.
+     * @param groupId return only channels of the payment group if present.
+     * @return payment channel stream. Elements of the stream contains channel
+     * state on the moment of the channel opening. It doesn't contain later
+     * channel modifications.
+     * @see io.singularitynet.sdk.mpe.MultiPartyEscrowContract#getChannelById
+     */
+    public Stream<PaymentChannel> getChannelOpenEvents(BigInteger fromBlock,
+            BigInteger toBlock, Optional<Address> sender,
+            Optional<Address> recipient, Optional<PaymentGroupId> groupId) {
+        return getChannelOpenEvents(DefaultBlockParameter.valueOf(fromBlock),
+                DefaultBlockParameter.valueOf(toBlock), sender, recipient, groupId);
+    }
+
+    private Stream<PaymentChannel> getChannelOpenEvents(
+            DefaultBlockParameter fromBlock, DefaultBlockParameter toBlock) {
+        return getChannelOpenEvents(fromBlock, toBlock, Optional.empty(),
+                Optional.empty(), Optional.empty());
+    }
+
+    private Stream<PaymentChannel> getChannelOpenEvents(
+            DefaultBlockParameter fromBlock, DefaultBlockParameter toBlock,
+            Optional<Address> sender, Optional<Address> recipient,
+            Optional<PaymentGroupId> groupId) {
         return Utils.wrapExceptions(() -> {
-            EthFilter filter = new EthFilter(DefaultBlockParameterName.EARLIEST,
-                    DefaultBlockParameterName.LATEST, getContractAddress().toString());
+            EthFilter filter = new EthFilter(fromBlock, toBlock,
+                    getContractAddress().toString());
+            // topics order: event signature, sender, recipient, groupId
             filter.addSingleTopic(EventEncoder.encode(MultiPartyEscrow.CHANNELOPEN_EVENT));
+            addOptionalTopic(filter, sender.map(MultiPartyEscrowContract::addressToTopic));
+            addOptionalTopic(filter, recipient.map(MultiPartyEscrowContract::addressToTopic));
+            addOptionalTopic(filter, groupId.map(id -> Numeric.toHexString(id.getBytes())));
 
             return web3j.ethGetLogs(filter).send().getLogs().stream()
                 .map(res -> (Log)res)
@@ -175,6 +282,19 @@ public class MultiPartyEscrowContract {
         });
     }
 
+    private static void addOptionalTopic(EthFilter filter, Optional<String> topic) {
+        if (topic.isPresent()) {
+            filter.addSingleTopic(topic.get());
+        } else {
+            filter.addNullTopic();
+        }
+    }
+
+    private static String addressToTopic(Address address) {
+        return Numeric.toHexStringWithPrefixZeroPadded(
+                new BigInteger(1, address.toByteArray()), 64);
+    }
+
     /**
      * Add funds to the payment channel.
      * @param channelId id of the channel to be updated.
@@ -183,14 +303,31 @@ public class MultiPartyEscrowContract {
      */
     public BigInteger channelAddFunds(BigInteger channelId, BigInteger amount) {
         return Utils.wrapExceptions(() -> {
-            TransactionReceipt transaction = mpe.channelAddFunds(
-                    channelId, amount).send();
-            MultiPartyEscrow.ChannelAddFundsEventResponse event =
-                mpe.getChannelAddFundsEvents(transaction).get(0);
-            return event.additionalFunds;
+            return toAddedFunds(observe(mpe.channelAddFunds(
+                    channelId, amount).send()));
         });
     }
 
+    /**
+     * Add funds to the payment channel asynchronously.
+     * @param channelId id of the channel to be updated.
+     * @param amount number of cogs to add.
+     * @return future which is completed by number of cogs added when
+     * transaction is mined.
+     */
+    public CompletableFuture<BigInteger> channelAddFundsAsync(BigInteger channelId,
+            BigInteger amount) {
+        return mpe.channelAddFunds(channelId, amount).sendAsync()
+            .thenApply(this::observe)
+            .thenApply(this::toAddedFunds);
+    }
+
+    private BigInteger toAddedFunds(TransactionReceipt transaction) {
+        MultiPartyEscrow.ChannelAddFundsEventResponse event =
+            mpe.getChannelAddFundsEvents(transaction).get(0);
+        return event.additionalFunds;
+    }
+
     /**
      * Extend payment channel expiration date.
      * @param channelId id of the channel to update.
@@ -201,14 +338,33 @@ public class MultiPartyEscrowContract {
      */
     public BigInteger channelExtend(BigInteger channelId, BigInteger expiration) {
         return Utils.wrapExceptions(() -> {
-            TransactionReceipt transaction = mpe.channelExtend(
-                    channelId, shiftToNextBlock(expiration)).send();
-            MultiPartyEscrow.ChannelExtendEventResponse event =
-                mpe.getChannelExtendEvents(transaction).get(0);
-            return event.newExpiration;
+            return toNewExpiration(observe(mpe.channelExtend(
+                    channelId, shiftToNextBlock(expiration)).send()));
         });
     }
 
+    /**
+     * Extend payment channel expiration date asynchronously.
+     * @param channelId id of the channel to update.
+     * @param expiration new expiration block, see channelExtend.
+     * @return future which is completed by new expiration block when
+     * transaction is mined.
+     * @see io.singularitynet.sdk.mpe.MultiPartyEscrowContract#channelExtend
+     */
+    public CompletableFuture<BigInteger> channelExtendAsync(BigInteger channelId,
+            BigInteger expiration) {
+        return mpe.channelExtend(channelId, shiftToNextBlock(expiration))
+            .sendAsync()
+            .thenApply(this::observe)
+            .thenApply(this::toNewExpiration);
+    }
+
+    private BigInteger toNewExpiration(TransactionReceipt transaction) {
+        MultiPartyEscrow.ChannelExtendEventResponse event =
+            mpe.getChannelExtendEvents(transaction).get(0);
+        return event.newExpiration;
+    }
+
     /**
      * Pair of number of cogs added and expiration block.
      */
@@ -243,16 +399,37 @@ public class MultiPartyEscrowContract {
     public ExtendAndAddFundsResponse channelExtendAndAddFunds(BigInteger channelId,
             BigInteger expiration, BigInteger amount) {
         return Utils.wrapExceptions(() -> {
-            TransactionReceipt transaction = mpe.channelExtendAndAddFunds(
-                    channelId, shiftToNextBlock(expiration), amount).send();
-            MultiPartyEscrow.ChannelExtendEventResponse extendsEvent =
-                mpe.getChannelExtendEvents(transaction).get(0);
-            MultiPartyEscrow.ChannelAddFundsEventResponse addFundsEvent =
-                mpe.getChannelAddFundsEvents(transaction).get(0);
-            return new ExtendAndAddFundsResponse(
-                    extendsEvent.newExpiration,
-                    addFundsEvent.additionalFunds);
+            return toExtendAndAddFundsResponse(observe(mpe.channelExtendAndAddFunds(
+                    channelId, shiftToNextBlock(expiration), amount).send()));
         });
     }
 
+    /**
+     * Extend expiration time and add funds to the channel asynchronously.
+     * @param channelId id of the channel to be updated.
+     * @param expiration new expiration block, see channelExtendAndAddFunds.
+     * @param amount number of cogs to add.
+     * @return future which is completed by pair of number of cogs added and
+     * new expiration block when transaction is mined.
+     * @see io.singularitynet.sdk.mpe.MultiPartyEscrowContract#channelExtendAndAddFunds
+     */
+    public CompletableFuture<ExtendAndAddFundsResponse> channelExtendAndAddFundsAsync(
+            BigInteger channelId, BigInteger expiration, BigInteger amount) {
+        return mpe.channelExtendAndAddFunds(channelId, shiftToNextBlock(expiration),
+                amount).sendAsync()
+            .thenApply(this::observe)
+            .thenApply(this::toExtendAndAddFundsResponse);
+    }
+
+    private ExtendAndAddFundsResponse toExtendAndAddFundsResponse(
+            TransactionReceipt transaction) {
+        MultiPartyEscrow.ChannelExtendEventResponse extendsEvent =
+            mpe.getChannelExtendEvents(transaction).get(0);
+        MultiPartyEscrow.ChannelAddFundsEventResponse addFundsEvent =
+            mpe.getChannelAddFundsEvents(transaction).get(0);
+        return new ExtendAndAddFundsResponse(
+                extendsEvent.newExpiration,
+                addFundsEvent.additionalFunds);
+    }
+
 }
@@ -0,0 +1,201 @@
+package io.singularitynet.sdk.mpe;
+
+import java.math.BigInteger;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.ethereum.Address;
+
+/**
+ * Allocates payment amounts of the payment channels. Allocator is shared
+ * between all service clients of the SDK instance, so two threads or two
+ * service clients which use the same payment channel never sign the same
+ * amount. Amounts are allocated without locking: each channel has an
+ * atomic reference to the last allocated amount which is updated using
+ * compare-and-set. Allocation is reset when channel nonce is changed (after
+ * the channel is claimed by the recipient) and when payment is rejected by
+ * the daemon. Allocation of the call which failed by other reason is rolled
+ * back if no other amount is allocated after it. Allocator also provides
+ * per channel locks to not fund or extend the same channel twice when it is
+ * updated by payment strategy and by PaymentChannelMaintainer at once.
+ */
+// @ThreadSafe
+public class PaymentChannelAmountAllocator {
+
+    private final static Logger log = LoggerFactory.getLogger(PaymentChannelAmountAllocator.class);
+
+    private final ConcurrentMap<ChannelKey, AtomicReference<Allocation>> allocations =
+        new ConcurrentHashMap<>();
+    private final ConcurrentMap<ChannelKey, Semaphore> updateLocks =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Allocate next amount to pay via the channel given. Returned amount is
+     * strictly greater than all amounts returned before for the same channel
+     * and nonce.
+     * @param channel actual payment channel state.
+     * @param price price of the call.
+     * @return new amount to sign.
+     */
+    public BigInteger allocate(PaymentChannel channel, BigInteger price) {
+        return allocate(channel, price, null).get();
+    }
+
+    /**
+     * Allocate next amount to pay via the channel given if it doesn't exceed
+     * the limit. Check and allocation are made atomically, so two callers
+     * cannot both take the last part of the channel balance.
+     * @param channel actual payment channel state.
+     * @param price price of the call.
+     * @param limit maximum amount which can be allocated, usually channel
+     * value.
+     * @return new amount to sign or empty value if it would exceed the limit.
+     */
+    public Optional<BigInteger> tryAllocate(PaymentChannel channel,
+            BigInteger price, BigInteger limit) {
+        return allocate(channel, price, limit);
+    }
+
+    private Optional<BigInteger> allocate(PaymentChannel channel,
+            BigInteger price, BigInteger limit) {
+        AtomicReference<Allocation> ref = allocations.computeIfAbsent(
+                new ChannelKey(channel), k -> new AtomicReference<>());
+        while (true) {
+            Allocation current = ref.get();
+            BigInteger base = channel.getSpentAmount();
+            if (current != null && current.nonce.equals(channel.getNonce())) {
+                base = base.max(current.amount);
+            }
+            Allocation next = new Allocation(channel.getNonce(), base.add(price), base);
+            if (limit != null && next.amount.compareTo(limit) > 0) {
+                return Optional.empty();
+            }
+            if (ref.compareAndSet(current, next)) {
+                log.debug("Amount allocated, channelId: {}, allocation: {}",
+                        channel.getChannelId(), next);
+                return Optional.of(next.amount);
+            }
+        }
+    }
+
+    /**
+     * Return the last amount allocated for the channel given, or channel
+     * spent amount if it is greater. The difference between channel value
+     * and this amount is the balance which is not promised to the calls
+     * in-flight yet.
+     * @param channel actual payment channel state.
+     * @return the last allocated amount.
+     */
+    public BigInteger getAllocatedAmount(PaymentChannel channel) {
+        AtomicReference<Allocation> ref = allocations.get(new ChannelKey(channel));
+        Allocation current = ref != null ? ref.get() : null;
+        if (current == null || !current.nonce.equals(channel.getNonce())) {
+            return channel.getSpentAmount();
+        }
+        return channel.getSpentAmount().max(current.amount);
+    }
+
+    /**
+     * Forget amount allocated for the channel of the payment given, so next
+     * allocation starts from the channel state. It is called when payment is
+     * rejected by the daemon.
+     * @param mpeContractAddress address of the MultiPartyEscrow contract of
+     * the channel.
+     * @param payment rejected payment.
+     */
+    public void reset(Address mpeContractAddress, EscrowPayment payment) {
+        AtomicReference<Allocation> ref = allocations.get(
+                new ChannelKey(mpeContractAddress, payment.getChannelId()));
+        if (ref == null) {
+            return;
+        }
+        Allocation current = ref.get();
+        if (current != null && current.nonce.equals(payment.getChannelNonce())
+                && ref.compareAndSet(current, null)) {
+            log.debug("Allocation is reset, channelId: {}", payment.getChannelId());
+        }
+    }
+
+    /**
+     * Roll back the amount allocated for the payment given. It is called
+     * when the call is failed and daemon didn't commit the payment. Amount
+     * is rolled back only when it is the last amount allocated for the
+     * channel, otherwise the calls which are already in-flight would sign
+     * the same amount again. When later amount is allocated the gap is left
+     * as is, and the daemon rejects the next payment, which resets the
+     * allocation.
+     * @param mpeContractAddress address of the MultiPartyEscrow contract of
+     * the channel.
+     * @param payment payment of the failed call.
+     */
+    public void release(Address mpeContractAddress, EscrowPayment payment) {
+        AtomicReference<Allocation> ref = allocations.get(
+                new ChannelKey(mpeContractAddress, payment.getChannelId()));
+        if (ref == null) {
+            return;
+        }
+        Allocation current = ref.get();
+        if (current == null || !current.nonce.equals(payment.getChannelNonce())
+                || !current.amount.equals(payment.getAmount())) {
+            return;
+        }
+        Allocation previous = new Allocation(current.nonce, current.previous, current.previous);
+        if (ref.compareAndSet(current, previous)) {
+            log.debug("Allocation is rolled back, channelId: {}, allocation: {}",
+                    payment.getChannelId(), previous);
+        }
+    }
+
+    /**
+     * Return the lock to be held while channel is funded or extended. Caller
+     * should get actual channel state after taking the lock and update the
+     * channel only if it is still required. Lock is a semaphore with single
+     * permit, it is not bound to the thread, so it can be released when
+     * asynchronous transaction is mined.
+     * @param channel payment channel.
+     * @return lock of the channel.
+     */
+    public Semaphore getUpdateLock(PaymentChannel channel) {
+        return updateLocks.computeIfAbsent(new ChannelKey(channel), k -> new Semaphore(1));
+    }
+
+    @EqualsAndHashCode
+    private static class ChannelKey {
+
+        private final Address mpeContractAddress;
+        private final BigInteger channelId;
+
+        public ChannelKey(PaymentChannel channel) {
+            this(channel.getMpeContractAddress(), channel.getChannelId());
+        }
+
+        public ChannelKey(Address mpeContractAddress, BigInteger channelId) {
+            this.mpeContractAddress = mpeContractAddress;
+            this.channelId = channelId;
+        }
+
+    }
+
+    @ToString
+    private static class Allocation {
+
+        private final BigInteger nonce;
+        private final BigInteger amount;
+        private final BigInteger previous;
+
+        public Allocation(BigInteger nonce, BigInteger amount, BigInteger previous) {
+            this.nonce = nonce;
+            this.amount = amount;
+            this.previous = previous;
+        }
+
+    }
+
+}
@@ -23,4 +23,31 @@ public interface PaymentChannelStateProvider {
      */
     PaymentChannel getChannelStateById(BigInteger channelId, Identity requestor);
 
+    /**
+     * Notify provider that the client changed the blockchain part of the
+     * channel state, for instance added funds or extended expiration date.
+     * Default implementation does nothing because stateless providers read
+     * the actual state on each call.
+     * @param channel updated channel state.
+     */
+    default void channelStateUpdated(PaymentChannel channel) {
+    }
+
+    /**
+     * Notify provider that the daemon accepted the payment and completed the
+     * call successfully. Default implementation does nothing.
+     * @param payment payment accepted.
+     */
+    default void paymentAccepted(EscrowPayment payment) {
+    }
+
+    /**
+     * Notify provider that the daemon rejected the payment. Locally known
+     * channel state cannot be trusted after that. Default implementation
+     * does nothing.
+     * @param payment payment rejected.
+     */
+    default void paymentRejected(EscrowPayment payment) {
+    }
+
 }
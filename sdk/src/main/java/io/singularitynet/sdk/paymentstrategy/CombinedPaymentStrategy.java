@@ -1,5 +1,7 @@
 package io.singularitynet.sdk.paymentstrategy;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import lombok.ToString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,4 +45,28 @@ public class CombinedPaymentStrategy implements PaymentStrategy {
         return Payment.INVALID_PAYMENT; 
     }
 
+    @Override
+    public <ReqT, RespT> CompletableFuture<Payment> getPaymentAsync(
+            GrpcCallParameters<ReqT, RespT> parameters,
+            ServiceClient serviceClient, Executor executor) {
+        CompletableFuture<Payment> result = CompletableFuture.completedFuture(Payment.INVALID_PAYMENT);
+        for (PaymentStrategy strategy : strategies) {
+            result = result.thenCompose(payment -> {
+                if (payment != Payment.INVALID_PAYMENT) {
+                    return CompletableFuture.completedFuture(payment);
+                }
+                log.debug("Try payment strategy: {}", strategy);
+                return strategy.getPaymentAsync(parameters, serviceClient, executor);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public void release(ServiceClient serviceClient) {
+        for (PaymentStrategy strategy : strategies) {
+            strategy.release(serviceClient);
+        }
+    }
+
 }
@@ -1,11 +1,15 @@
 package io.singularitynet.sdk.paymentstrategy;
 
 import java.math.BigInteger;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.singularitynet.sdk.payment.Payment;
 import io.singularitynet.sdk.mpe.PaymentChannel;
+import io.singularitynet.sdk.mpe.PaymentChannelAmountAllocator;
+import io.singularitynet.sdk.mpe.BlockchainPaymentChannelManager;
 import io.singularitynet.sdk.mpe.EscrowPayment;
 import io.singularitynet.sdk.registry.*;
 import io.singularitynet.sdk.client.PaymentStrategy;
@@ -40,14 +44,102 @@ public abstract class EscrowPaymentStrategy implements PaymentStrategy {
         PaymentChannel channel = selectChannel(serviceClient);
         BigInteger price = getPrice(channel, serviceClient);
         // TODO: test on price exceeds channel value
-        BigInteger newAmount = channel.getSpentAmount().add(price);
+        BigInteger newAmount = serviceClient.getSdk()
+            .getPaymentChannelAmountAllocator().allocate(channel, price);
+        return newPayment(serviceClient, channel, newAmount);
+    }
+
+    /**
+     * Return payment of the amount allocated in the channel.
+     * @param serviceClient service client instance.
+     * @param channel payment channel state.
+     * @param amount amount allocated for the call.
+     * @return escrow payment signed by SDK identity.
+     */
+    protected Payment newPayment(ServiceClient serviceClient,
+            PaymentChannel channel, BigInteger amount) {
         return EscrowPayment.newBuilder()
             .setPaymentChannel(channel)
-            .setAmount(newAmount)
+            .setAmount(amount)
             .setSigner(serviceClient.getSdk().getIdentity())
             .build();
     }
 
+    /**
+     * Check whether channel can be used to pay the price: its balance
+     * minus amount allocated for the calls in-flight is enough and it
+     * expires after the block given.
+     * @param channel payment channel state.
+     * @param allocator allocator of the channel amounts.
+     * @param price price of the call.
+     * @param minExpiration block after which channel should expire.
+     * @return true if channel is usable.
+     */
+    protected static boolean isUsable(PaymentChannel channel,
+            PaymentChannelAmountAllocator allocator, BigInteger price,
+            BigInteger minExpiration) {
+        return hasBalance(channel, allocator, price)
+            && channel.getExpiration().compareTo(minExpiration) > 0;
+    }
+
+    /**
+     * Allocate the price of the call in the channel if it is usable. Balance
+     * check and allocation are made atomically.
+     * @param channel payment channel state.
+     * @param allocator allocator of the channel amounts.
+     * @param price price of the call.
+     * @param minExpiration block after which channel should expire.
+     * @return new amount to sign or empty value if channel is not usable.
+     */
+    protected static Optional<BigInteger> tryAllocate(PaymentChannel channel,
+            PaymentChannelAmountAllocator allocator, BigInteger price,
+            BigInteger minExpiration) {
+        if (channel.getExpiration().compareTo(minExpiration) <= 0) {
+            return Optional.empty();
+        }
+        return allocator.tryAllocate(channel, price, channel.getValue());
+    }
+
+    /**
+     * Send transaction which makes channel usable: add funds when channel
+     * is not expired, extend it when it has balance, do both otherwise.
+     * @param channelManager blockchain channel manager.
+     * @param channel payment channel state.
+     * @param allocator allocator of the channel amounts.
+     * @param price price of the call.
+     * @param minExpiration block after which channel should expire.
+     * @param amount amount of funds to add.
+     * @param lifetime number of blocks to extend channel on.
+     * @return future which is completed by updated channel state.
+     */
+    protected static CompletableFuture<PaymentChannel> updateChannelAsync(
+            BlockchainPaymentChannelManager channelManager,
+            PaymentChannel channel, PaymentChannelAmountAllocator allocator,
+            BigInteger price, BigInteger minExpiration, BigInteger amount,
+            BigInteger lifetime) {
+        if (channel.getExpiration().compareTo(minExpiration) > 0) {
+            log.info("Channel is exhausted: {}, adding funds: {} cogs", channel, amount);
+            return channelManager.addFundsToChannelAsync(channel, amount);
+        }
+
+        if (hasBalance(channel, allocator, price)) {
+            log.info("Channel is expired: {}, extending expiration date on: {} blocks",
+                    channel, lifetime);
+            return channelManager.extendChannelAsync(channel, lifetime);
+        }
+
+        log.info("Channel is exhausted and expired: {}, adding funds: {} cogs, and extending lifetime: {}",
+                channel, amount, lifetime);
+        return channelManager.extendAndAddFundsToChannelAsync(channel, lifetime, amount);
+    }
+
+    private static boolean hasBalance(PaymentChannel channel,
+            PaymentChannelAmountAllocator allocator, BigInteger price) {
+        BigInteger balance = channel.getValue()
+            .subtract(allocator.getAllocatedAmount(channel));
+        return balance.compareTo(price) >= 0;
+    }
+
     protected EndpointGroup getEndpointGroup(ServiceClient serviceClient) {
         String groupName = serviceClient.getEndpointGroupName();
         log.debug("Current endpoint group name: {}", groupName);
@@ -59,7 +151,7 @@ public abstract class EscrowPaymentStrategy implements PaymentStrategy {
             .getEndpointGroupByName(groupName).get();
     }
 
-    private BigInteger getPrice(PaymentChannel channel, ServiceClient serviceClient) {
+    protected BigInteger getPrice(PaymentChannel channel, ServiceClient serviceClient) {
         EndpointGroup group = getEndpointGroup(serviceClient);
         Pricing price = group.getPricing().stream()
             .filter(pr -> PriceModel.FIXED_PRICE.equals(pr.getPriceModel()))
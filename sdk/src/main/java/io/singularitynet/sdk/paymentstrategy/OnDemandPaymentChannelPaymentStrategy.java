@@ -1,23 +1,31 @@
 package io.singularitynet.sdk.paymentstrategy;
 
 import java.math.BigInteger;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Supplier;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import lombok.ToString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.singularitynet.sdk.common.Utils;
 import io.singularitynet.sdk.ethereum.Identity;
 import io.singularitynet.sdk.registry.MetadataProvider;
 import io.singularitynet.sdk.registry.EndpointGroup;
 import io.singularitynet.sdk.registry.PaymentGroup;
+import io.singularitynet.sdk.registry.PaymentGroupId;
 import io.singularitynet.sdk.registry.PriceModel;
 import io.singularitynet.sdk.mpe.PaymentChannel;
+import io.singularitynet.sdk.mpe.PaymentChannelAmountAllocator;
 import io.singularitynet.sdk.mpe.BlockchainPaymentChannelManager;
+import io.singularitynet.sdk.client.GrpcCallParameters;
 import io.singularitynet.sdk.client.ServiceClient;
+import io.singularitynet.sdk.payment.Payment;
 
 /**
  * Payment channel strategy which manages channel on demand. It tries to find
@@ -27,15 +35,30 @@ import io.singularitynet.sdk.client.ServiceClient;
  * channels this strategy requires identity which has non zero Ethereum
  * balance. Moreover this identity should have enough number of AGI tokens
  * deposited in MultiPartyEscrow contract. Strategy uses fixed price model to
- * calculate amount of tokens required.
+ * calculate amount of tokens required. Channel which is ready to use is
+ * preferred over the channel which needs to be updated, so the call waits
+ * for the Ethereum transaction only when there is no usable channel. The
+ * last selected channel of the payment group is reused while its locally
+ * known balance and expiration are enough to make the call, the list of
+ * channels is rescanned only after it is exhausted. When
+ * PaymentChannelMaintainer is passed the selected channels are given to it
+ * to be funded and extended in background. Amount of the call is allocated
+ * atomically with the channel balance check, when concurrent calls take the
+ * balance of the selected channel first it is selected again.
+ * @see io.singularitynet.sdk.paymentstrategy.PaymentChannelMaintainer
  */
-@ToString
+@ToString(exclude = "lastChannelIds")
 public class OnDemandPaymentChannelPaymentStrategy extends EscrowPaymentStrategy {
 
     private final static Logger log = LoggerFactory.getLogger(OnDemandPaymentChannelPaymentStrategy.class);
 
+    private static final int MAX_ALLOCATION_ATTEMPTS = 10;
+
     private final BigInteger channelLifetime;
     private final BigInteger numberOfCalls;
+    private final Optional<PaymentChannelMaintainer> maintainer;
+    private final ConcurrentMap<PaymentGroupId, BigInteger> lastChannelIds =
+        new ConcurrentHashMap<>();
         
     /**
      * New on demand payment channel strategy with default parameter values.
@@ -67,8 +90,49 @@ public class OnDemandPaymentChannelPaymentStrategy extends EscrowPaymentStrategy
      */
     public OnDemandPaymentChannelPaymentStrategy(BigInteger channelLifetime,
             BigInteger numberOfCalls) {
+        this(channelLifetime, numberOfCalls, Optional.empty());
+    }
+
+    /**
+     * New on demand payment channel strategy which passes selected channels
+     * to the background maintainer.
+     * @param channelLifetime number of blocks to be added to the service
+     * provider expiration threshold when opening or updating channels.
+     * @see io.singularitynet.sdk.registry.PaymentDetails#getPaymentExpirationThreshold
+     * @param numberOfCalls number of calls by fixed price to be made after
+     * channel is opened or updated.
+     * @param maintainer maintainer which keeps channels funded and extended.
+     */
+    public OnDemandPaymentChannelPaymentStrategy(long channelLifetime,
+            long numberOfCalls, PaymentChannelMaintainer maintainer) {
+        this(BigInteger.valueOf(channelLifetime), BigInteger.valueOf(numberOfCalls),
+                Optional.of(maintainer));
+    }
+
+    private OnDemandPaymentChannelPaymentStrategy(BigInteger channelLifetime,
+            BigInteger numberOfCalls, Optional<PaymentChannelMaintainer> maintainer) {
         this.channelLifetime = channelLifetime;
         this.numberOfCalls = numberOfCalls;
+        this.maintainer = maintainer;
+    }
+
+    @Override
+    public <ReqT, RespT> Payment getPayment(GrpcCallParameters<ReqT, RespT> callParams,
+            ServiceClient serviceClient) {
+        PaymentChannelAmountAllocator allocator = serviceClient.getSdk()
+            .getPaymentChannelAmountAllocator();
+        for (int i = 0; i < MAX_ALLOCATION_ATTEMPTS; ++i) {
+            PaymentChannel channel = selectChannel(serviceClient);
+            BigInteger price = getPrice(channel, serviceClient);
+            Optional<BigInteger> amount = allocator.tryAllocate(channel, price,
+                    channel.getValue());
+            if (amount.isPresent()) {
+                return newPayment(serviceClient, channel, amount.get());
+            }
+            log.debug("Channel balance is taken by concurrent calls, select channel again: {}",
+                    channel);
+        }
+        throw new IllegalStateException("Could not allocate amount of the call in payment channel");
     }
 
     @Override
@@ -94,52 +158,84 @@ public class OnDemandPaymentChannelPaymentStrategy extends EscrowPaymentStrategy
         BigInteger currentBlock = serviceClient.getSdk().getEthereum().getEthBlockNumber();
         BigInteger minExpiration = currentBlock.add(expirationThreshold);
 
-        Optional<Supplier<PaymentChannel>> channelSupplier = blockchainChannelManager
+        PaymentChannelAmountAllocator allocator = serviceClient.getSdk()
+            .getPaymentChannelAmountAllocator();
+
+        BigInteger lastChannelId = lastChannelIds.get(paymentGroup.getPaymentGroupId());
+        if (lastChannelId != null) {
+            PaymentChannel channel = serviceClient.getPaymentChannelStateProvider()
+                .getChannelStateById(lastChannelId, signer);
+            if (isUsable(channel, allocator, price, minExpiration)) {
+                log.debug("Last channel is used: {}", channel);
+                maintainer.ifPresent(m -> m.watch(serviceClient, channel));
+                return channel;
+            }
+            log.debug("Last channel cannot be used, rescan channels: {}", channel);
+            lastChannelIds.remove(paymentGroup.getPaymentGroupId(), lastChannelId);
+        }
+
+        Optional<PaymentChannel> channelToUpdate = Optional.empty();
+        Optional<PaymentChannel> usableChannel = Optional.empty();
+        Iterator<PaymentChannel> channels = blockchainChannelManager
             .getChannelsAccessibleBy(paymentGroup.getPaymentGroupId(), signer)
             .map(ch -> ch.getChannelId())
             .map(id -> serviceClient.getPaymentChannelStateProvider()
                     .getChannelStateById(id, signer))
-            .flatMap(channel -> {
-                if (channel.getBalance().compareTo(price) >= 0 && 
-                    channel.getExpiration().compareTo(minExpiration) > 0) {
-                    log.debug("Channel found: {}", channel);
-                    return Stream.of(() -> channel);
-                }
-
-                if (channel.getExpiration().compareTo(minExpiration) > 0) {
-                    BigInteger amount = numberOfCalls.multiply(price);
-                    log.info("Channel found: {}, adding funds: {} cogs", channel, amount);
-                    return Stream.of(() -> blockchainChannelManager.addFundsToChannel(
-                                channel, amount));
-                }
+            .iterator();
+        while (channels.hasNext()) {
+            PaymentChannel channel = channels.next();
+            if (isUsable(channel, allocator, price, minExpiration)) {
+                log.debug("Channel found: {}", channel);
+                usableChannel = Optional.of(channel);
+                break;
+            }
+            if (!channelToUpdate.isPresent()) {
+                channelToUpdate = Optional.of(channel);
+            }
+        }
 
-                if (channel.getBalance().compareTo(price) >= 0) {
-                    BigInteger lifetime = expirationThreshold.add(channelLifetime);
-                    log.info("Channel found: {}, extending expiration date on: {} blocks", channel, lifetime);
-                    return Stream.of(() -> blockchainChannelManager.extendChannel(
-                                channel, lifetime));
+        PaymentChannel channel;
+        if (usableChannel.isPresent()) {
+            channel = usableChannel.get();
+        } else if (channelToUpdate.isPresent()) {
+            channel = channelToUpdate.get();
+            Semaphore lock = allocator.getUpdateLock(channel);
+            lock.acquireUninterruptibly();
+            try {
+                // channel can be updated by maintainer while waiting for the lock
+                channel = serviceClient.getPaymentChannelStateProvider()
+                    .getChannelStateById(channel.getChannelId(), signer);
+                if (!isUsable(channel, allocator, price, minExpiration)) {
+                    CompletableFuture<PaymentChannel> update = updateChannelAsync(
+                            blockchainChannelManager, channel, allocator, price,
+                            minExpiration, numberOfCalls.multiply(price),
+                            expirationThreshold.add(channelLifetime));
+                    channel = Utils.wrapExceptions(update::get);
+                    // state is updated under the lock, so maintainer doesn't
+                    // see the old state and doesn't update channel again
+                    serviceClient.getPaymentChannelStateProvider().channelStateUpdated(channel);
                 }
-
-                BigInteger amount = numberOfCalls.multiply(price);
-                BigInteger lifetime = expirationThreshold.add(channelLifetime);
-                log.info("Channel found: {}, adding funds: {} cogs, and extending lifetime: {}",
-                        channel, amount, lifetime);
-                return Stream.<Supplier<PaymentChannel>>of(() -> blockchainChannelManager
-                        .extendAndAddFundsToChannel(channel, lifetime, amount));
-            })
-            .findFirst();
-
-        if (channelSupplier.isPresent()) {
-            return channelSupplier.get().get();
+            } finally {
+                lock.release();
+            }
+        } else {
+            channel = blockchainChannelManager.openPaymentChannel(
+                    paymentGroup,
+                    signer,
+                    numberOfCalls.multiply(price),
+                    expirationThreshold.add(channelLifetime));
+            log.info("New channel opened: {}", channel);
+            serviceClient.getPaymentChannelStateProvider().channelStateUpdated(channel);
         }
-
-        PaymentChannel channel = blockchainChannelManager.openPaymentChannel(
-                paymentGroup,
-                signer,
-                numberOfCalls.multiply(price),
-                expirationThreshold.add(channelLifetime));
-        log.info("New channel opened: {}", channel);
+        lastChannelIds.put(paymentGroup.getPaymentGroupId(), channel.getChannelId());
+        final PaymentChannel selected = channel;
+        maintainer.ifPresent(m -> m.watch(serviceClient, selected));
         return channel;
     }
 
+    @Override
+    public void release(ServiceClient serviceClient) {
+        maintainer.ifPresent(m -> m.unwatch(serviceClient));
+    }
+
 }
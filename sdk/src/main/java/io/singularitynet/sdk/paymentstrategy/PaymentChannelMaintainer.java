@@ -0,0 +1,345 @@
+package io.singularitynet.sdk.paymentstrategy;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.common.Preconditions;
+import io.singularitynet.sdk.client.Sdk;
+import io.singularitynet.sdk.client.ServiceClient;
+import io.singularitynet.sdk.ethereum.Identity;
+import io.singularitynet.sdk.mpe.BlockchainPaymentChannelManager;
+import io.singularitynet.sdk.mpe.PaymentChannel;
+import io.singularitynet.sdk.mpe.PaymentChannelAmountAllocator;
+import io.singularitynet.sdk.mpe.PaymentChannelStateProvider;
+import io.singularitynet.sdk.registry.EndpointGroup;
+import io.singularitynet.sdk.registry.PaymentGroup;
+import io.singularitynet.sdk.registry.PriceModel;
+
+/**
+ * Background maintainer of the payment channels. It periodically checks
+ * balance and expiration of the channels watched and funds or extends them
+ * before they become unusable, so calls don't wait for the Ethereum
+ * transactions. Thresholds are set by low and high watermarks: when
+ * unallocated channel balance falls below the low watermark number of
+ * calls the channel is funded up to the high watermark number of calls;
+ * when less than low watermark number of blocks left before the channel
+ * expiration (taking service provider expiration threshold into account)
+ * the channel is extended on the high watermark number of blocks. Checks are
+ * scheduled on the SDK scheduler and transactions are sent using the SDK
+ * executor. Transactions of all channels which need update are sent at
+ * once. Channel is updated under the allocator update lock, so it is not
+ * funded twice when payment strategy updates it at the same time, channel
+ * which is being updated by strategy is skipped till the next check.
+ * Channel shared by several service clients is watched until the last of
+ * them is closed. Channels are checked using SDK of the service client
+ * which watches them, each SDK has its own periodic check which is stopped
+ * when there are no channels of this SDK left.
+ */
+// @ThreadSafe
+@ToString(of = { "lowWatermarkCalls", "highWatermarkCalls",
+    "lowWatermarkBlocks", "highWatermarkBlocks", "periodMillis" })
+public class PaymentChannelMaintainer implements AutoCloseable {
+
+    private final static Logger log = LoggerFactory.getLogger(PaymentChannelMaintainer.class);
+
+    /**
+     * Default period of the channels check.
+     */
+    public static final long DEFAULT_PERIOD_MILLIS = 30_000;
+
+    private final BigInteger lowWatermarkCalls;
+    private final BigInteger highWatermarkCalls;
+    private final BigInteger lowWatermarkBlocks;
+    private final BigInteger highWatermarkBlocks;
+    private final long periodMillis;
+
+    private final Set<Watch> watches = ConcurrentHashMap.newKeySet();
+    // guarded by this
+    private final Map<Sdk, Schedule> schedules = new HashMap<>();
+
+    /**
+     * New maintainer with default check period.
+     * @param lowWatermarkCalls channel is funded when its balance is
+     * enough for less than this number of calls.
+     * @param highWatermarkCalls channel is funded to make this number of
+     * calls.
+     * @param lowWatermarkBlocks channel is extended when less than this
+     * number of blocks left before expiration.
+     * @param highWatermarkBlocks channel is extended to be valid during
+     * this number of blocks.
+     */
+    public PaymentChannelMaintainer(long lowWatermarkCalls,
+            long highWatermarkCalls, long lowWatermarkBlocks,
+            long highWatermarkBlocks) {
+        this(lowWatermarkCalls, highWatermarkCalls, lowWatermarkBlocks,
+                highWatermarkBlocks, DEFAULT_PERIOD_MILLIS);
+    }
+
+    /**
+     * New maintainer.
+     * @param lowWatermarkCalls channel is funded when its balance is
+     * enough for less than this number of calls.
+     * @param highWatermarkCalls channel is funded to make this number of
+     * calls.
+     * @param lowWatermarkBlocks channel is extended when less than this
+     * number of blocks left before expiration.
+     * @param highWatermarkBlocks channel is extended to be valid during
+     * this number of blocks.
+     * @param periodMillis period of the channels check in milliseconds.
+     */
+    public PaymentChannelMaintainer(long lowWatermarkCalls,
+            long highWatermarkCalls, long lowWatermarkBlocks,
+            long highWatermarkBlocks, long periodMillis) {
+        Preconditions.checkArgument(lowWatermarkCalls < highWatermarkCalls,
+                "Low watermark of calls should be less than high watermark");
+        Preconditions.checkArgument(lowWatermarkBlocks < highWatermarkBlocks,
+                "Low watermark of blocks should be less than high watermark");
+        this.lowWatermarkCalls = BigInteger.valueOf(lowWatermarkCalls);
+        this.highWatermarkCalls = BigInteger.valueOf(highWatermarkCalls);
+        this.lowWatermarkBlocks = BigInteger.valueOf(lowWatermarkBlocks);
+        this.highWatermarkBlocks = BigInteger.valueOf(highWatermarkBlocks);
+        this.periodMillis = periodMillis;
+    }
+
+    /**
+     * Start watching the channel. Periodic check of the service client SDK
+     * is started when the first channel of this SDK is added.
+     * @param serviceClient service client which uses the channel.
+     * @param channel payment channel.
+     */
+    public void watch(ServiceClient serviceClient, PaymentChannel channel) {
+        synchronized (this) {
+            if (watches.add(new Watch(serviceClient, channel.getChannelId()))) {
+                log.info("Start watching channel, channelId: {}", channel.getChannelId());
+            }
+            startIfNeeded(serviceClient.getSdk());
+        }
+    }
+
+    /**
+     * Stop watching the channel.
+     * @param channel payment channel.
+     */
+    public void unwatch(PaymentChannel channel) {
+        synchronized (this) {
+            watches.removeIf(watch -> watch.channelId.equals(channel.getChannelId()));
+            stopUnused();
+        }
+    }
+
+    /**
+     * Stop watching all channels added by the service client. It is called
+     * when service client is closed. Channel which is used by other service
+     * clients is still watched.
+     * @param serviceClient service client.
+     */
+    public void unwatch(ServiceClient serviceClient) {
+        synchronized (this) {
+            if (watches.removeIf(watch -> watch.serviceClient == serviceClient)) {
+                log.info("Stop watching channels of the closed service client");
+            }
+            stopUnused();
+        }
+    }
+
+    // guarded by this
+    private void startIfNeeded(Sdk sdk) {
+        if (schedules.containsKey(sdk)) {
+            return;
+        }
+        Schedule schedule = new Schedule();
+        schedule.task = sdk.getScheduler().scheduleWithFixedDelay(
+                () -> submitCheck(sdk, schedule.running),
+                periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        schedules.put(sdk, schedule);
+    }
+
+    // guarded by this
+    private void stopUnused() {
+        Set<Sdk> used = new HashSet<>();
+        for (Watch watch : watches) {
+            used.add(watch.serviceClient.getSdk());
+        }
+        schedules.entrySet().removeIf(entry -> {
+            if (used.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().task.cancel(false);
+            return true;
+        });
+    }
+
+    private void submitCheck(Sdk sdk, AtomicBoolean running) {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sdk.getExecutor().execute(() -> {
+                try {
+                    checkChannels(sdk);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            log.debug("Channels check is rejected by executor", e);
+        }
+    }
+
+    /**
+     * Check all channels watched and update them if they reached the low
+     * watermarks. Transactions of all channels are sent at once and method
+     * returns when they are mined. It is called periodically, method is
+     * public to allow checking channels synchronously.
+     */
+    public void checkChannels() {
+        checkChannels(null);
+    }
+
+    private void checkChannels(Sdk sdk) {
+        List<CompletableFuture<?>> updates = new ArrayList<>();
+        Set<Object> checked = new HashSet<>();
+        for (Watch watch : watches) {
+            Sdk watchSdk = watch.serviceClient.getSdk();
+            if (sdk != null && watchSdk != sdk) {
+                continue;
+            }
+            // channel shared by service clients is checked once
+            if (!checked.add(Arrays.asList(watchSdk, watch.channelId))) {
+                continue;
+            }
+            CompletableFuture<?> update;
+            try {
+                update = check(watch);
+            } catch (RuntimeException e) {
+                log.warn("Cannot maintain channel, channelId: {}", watch.channelId, e);
+                continue;
+            }
+            updates.add(update.exceptionally(e -> {
+                log.warn("Cannot maintain channel, channelId: {}", watch.channelId, e);
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(updates.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private CompletableFuture<?> check(Watch watch) {
+        ServiceClient serviceClient = watch.serviceClient;
+        Identity signer = serviceClient.getSdk().getIdentity();
+        PaymentChannelStateProvider stateProvider = serviceClient.getPaymentChannelStateProvider();
+        BlockchainPaymentChannelManager channelManager = serviceClient.getSdk()
+            .getBlockchainPaymentChannelManager();
+
+        EndpointGroup endpointGroup = serviceClient.getMetadataProvider()
+            .getServiceMetadata()
+            .getEndpointGroupByName(serviceClient.getEndpointGroupName()).get();
+        BigInteger price = endpointGroup.getPricing().stream()
+            .filter(pr -> pr.getPriceModel() == PriceModel.FIXED_PRICE)
+            .findFirst().get()
+            .getPriceInCogs();
+        PaymentGroup paymentGroup = serviceClient.getMetadataProvider()
+            .getOrganizationMetadata()
+            .getPaymentGroupById(endpointGroup.getPaymentGroupId()).get();
+        BigInteger expirationThreshold = paymentGroup
+            .getPaymentDetails()
+            .getPaymentExpirationThreshold();
+        BigInteger currentBlock = serviceClient.getSdk().getEthereum().getEthBlockNumber();
+
+        PaymentChannelAmountAllocator allocator = serviceClient.getSdk()
+            .getPaymentChannelAmountAllocator();
+        PaymentChannel channel = stateProvider.getChannelStateById(watch.channelId, signer);
+        Semaphore lock = allocator.getUpdateLock(channel);
+        if (!lock.tryAcquire()) {
+            log.debug("Channel is being updated already, channelId: {}", watch.channelId);
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<PaymentChannel> update;
+        try {
+            // channel can be updated by payment strategy before the lock is taken
+            channel = stateProvider.getChannelStateById(watch.channelId, signer);
+            BigInteger balance = channel.getValue().subtract(allocator.getAllocatedAmount(channel));
+            BigInteger amount = highWatermarkCalls.multiply(price).subtract(balance);
+            boolean fund = balance.compareTo(lowWatermarkCalls.multiply(price)) < 0;
+            BigInteger lifetime = expirationThreshold.add(highWatermarkBlocks);
+            boolean extend = channel.getExpiration().compareTo(
+                    currentBlock.add(expirationThreshold).add(lowWatermarkBlocks)) <= 0;
+
+            if (fund && extend) {
+                log.info("Channel reached low watermarks: {}, adding funds: {} cogs, and extending lifetime: {}",
+                        channel, amount, lifetime);
+                update = channelManager.extendAndAddFundsToChannelAsync(channel, lifetime, amount);
+            } else if (fund) {
+                log.info("Channel reached low watermark of balance: {}, adding funds: {} cogs",
+                        channel, amount);
+                update = channelManager.addFundsToChannelAsync(channel, amount);
+            } else if (extend) {
+                log.info("Channel reached low watermark of expiration: {}, extending lifetime: {}",
+                        channel, lifetime);
+                update = channelManager.extendChannelAsync(channel, lifetime);
+            } else {
+                lock.release();
+                return CompletableFuture.completedFuture(null);
+            }
+        } catch (RuntimeException e) {
+            lock.release();
+            throw e;
+        }
+        return update.whenComplete((updated, e) -> {
+            try {
+                if (updated != null) {
+                    stateProvider.channelStateUpdated(updated);
+                }
+            } finally {
+                lock.release();
+            }
+        });
+    }
+
+    /**
+     * Stop periodic check of the channels.
+     */
+    @Override
+    public synchronized void close() {
+        watches.clear();
+        stopUnused();
+    }
+
+    private static class Schedule {
+
+        private final AtomicBoolean running = new AtomicBoolean();
+        private ScheduledFuture<?> task;
+
+    }
+
+    @EqualsAndHashCode
+    private static class Watch {
+
+        private final ServiceClient serviceClient;
+        private final BigInteger channelId;
+
+        public Watch(ServiceClient serviceClient, BigInteger channelId) {
+            this.serviceClient = serviceClient;
+            this.channelId = channelId;
+        }
+
+    }
+
+}
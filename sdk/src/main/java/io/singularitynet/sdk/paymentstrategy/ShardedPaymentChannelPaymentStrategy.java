@@ -0,0 +1,330 @@
+package io.singularitynet.sdk.paymentstrategy;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import lombok.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.common.Preconditions;
+import io.singularitynet.sdk.common.Utils;
+import io.singularitynet.sdk.ethereum.Identity;
+import io.singularitynet.sdk.registry.EndpointGroup;
+import io.singularitynet.sdk.registry.PaymentGroup;
+import io.singularitynet.sdk.registry.PaymentGroupId;
+import io.singularitynet.sdk.registry.PriceModel;
+import io.singularitynet.sdk.mpe.PaymentChannel;
+import io.singularitynet.sdk.mpe.PaymentChannelAmountAllocator;
+import io.singularitynet.sdk.mpe.PaymentChannelStateProvider;
+import io.singularitynet.sdk.mpe.BlockchainPaymentChannelManager;
+import io.singularitynet.sdk.client.GrpcCallParameters;
+import io.singularitynet.sdk.client.ServiceClient;
+import io.singularitynet.sdk.payment.Payment;
+
+/**
+ * Payment channel strategy which spreads concurrent calls over a pool of
+ * payment channels (shards) of the same payment group. Daemon validates
+ * payments of the same channel one by one, so using a few channels allows
+ * making more calls in parallel. Shards are selected in round-robin order,
+ * shard is skipped when its balance minus amount allocated for the calls
+ * in-flight is less than price or when it is about to expire. Amount of the
+ * call is allocated atomically with the balance check. When all shards are
+ * exhausted they are extended and funded at once, and the call waits for the
+ * first transaction mined. Shards are updated under the allocator update
+ * lock, so PaymentChannelMaintainer and other threads don't update them at
+ * the same time. On the first call
+ * existing channels are taken as shards, usable ones first, and missing
+ * shards are opened in parallel. Like
+ * OnDemandPaymentChannelPaymentStrategy this strategy requires identity
+ * which has Ethereum balance and AGI tokens deposited in MultiPartyEscrow
+ * contract.
+ * @see io.singularitynet.sdk.paymentstrategy.OnDemandPaymentChannelPaymentStrategy
+ */
+// @ThreadSafe
+@ToString(exclude = "shardsByGroup")
+public class ShardedPaymentChannelPaymentStrategy extends EscrowPaymentStrategy {
+
+    private final static Logger log = LoggerFactory.getLogger(ShardedPaymentChannelPaymentStrategy.class);
+
+    private final int numberOfShards;
+    private final BigInteger channelLifetime;
+    private final BigInteger numberOfCalls;
+
+    private final ConcurrentMap<PaymentGroupId, Shards> shardsByGroup =
+        new ConcurrentHashMap<>();
+
+    /**
+     * New sharded payment channel strategy.
+     * @param numberOfShards number of payment channels to use.
+     * @param channelLifetime number of blocks to be added to the service
+     * provider expiration threshold when opening or updating channels.
+     * @see io.singularitynet.sdk.registry.PaymentDetails#getPaymentExpirationThreshold
+     * @param numberOfCalls number of calls by fixed price to be made using
+     * each shard after it is opened or updated.
+     */
+    public ShardedPaymentChannelPaymentStrategy(int numberOfShards,
+            long channelLifetime, long numberOfCalls) {
+        this(numberOfShards, BigInteger.valueOf(channelLifetime),
+                BigInteger.valueOf(numberOfCalls));
+    }
+
+    /**
+     * New sharded payment channel strategy.
+     * @param numberOfShards number of payment channels to use.
+     * @param channelLifetime number of blocks to be added to the service
+     * provider expiration threshold when opening or updating channels.
+     * @see io.singularitynet.sdk.registry.PaymentDetails#getPaymentExpirationThreshold
+     * @param numberOfCalls number of calls by fixed price to be made using
+     * each shard after it is opened or updated.
+     */
+    public ShardedPaymentChannelPaymentStrategy(int numberOfShards,
+            BigInteger channelLifetime, BigInteger numberOfCalls) {
+        Preconditions.checkArgument(numberOfShards > 0,
+                "Number of shards should be positive");
+        this.numberOfShards = numberOfShards;
+        this.channelLifetime = channelLifetime;
+        this.numberOfCalls = numberOfCalls;
+    }
+
+    @Override
+    public <ReqT, RespT> Payment getPayment(GrpcCallParameters<ReqT, RespT> callParams,
+            ServiceClient serviceClient) {
+        // amount is reserved when shard is selected, so concurrent calls
+        // cannot both select the shard which has balance for one call only
+        Reservation reservation = select(serviceClient, true);
+        return newPayment(serviceClient, reservation.channel, reservation.amount);
+    }
+
+    /**
+     * Select shard which can be used for the call without reserving the
+     * amount of the call in it. Shards are updated if all of them are
+     * exhausted.
+     * @param serviceClient service client instance.
+     * @return payment channel state.
+     */
+    @Override
+    protected PaymentChannel selectChannel(ServiceClient serviceClient) {
+        return select(serviceClient, false).channel;
+    }
+
+    private Reservation select(ServiceClient serviceClient, boolean reserve) {
+        Identity signer = serviceClient.getSdk().getIdentity();
+        PaymentChannelStateProvider stateProvider = serviceClient.getPaymentChannelStateProvider();
+        PaymentChannelAmountAllocator allocator = serviceClient.getSdk().getPaymentChannelAmountAllocator();
+
+        EndpointGroup endpointGroup = getEndpointGroup(serviceClient);
+        BigInteger price = endpointGroup.getPricing().stream()
+            .filter(pr -> pr.getPriceModel() == PriceModel.FIXED_PRICE)
+            .findFirst().get()
+            .getPriceInCogs();
+        PaymentGroup paymentGroup = serviceClient.getMetadataProvider()
+            .getOrganizationMetadata()
+            .getPaymentGroupById(endpointGroup.getPaymentGroupId()).get();
+        BigInteger expirationThreshold = paymentGroup
+            .getPaymentDetails()
+            .getPaymentExpirationThreshold();
+        BigInteger currentBlock = serviceClient.getSdk().getEthereum().getEthBlockNumber();
+        BigInteger minExpiration = currentBlock.add(expirationThreshold);
+
+        Shards shards = shardsByGroup.computeIfAbsent(
+                paymentGroup.getPaymentGroupId(), id -> new Shards());
+        List<BigInteger> channelIds = shards.getChannelIds(serviceClient,
+                paymentGroup, price, minExpiration);
+
+        int first = Math.floorMod(shards.next.getAndIncrement(), channelIds.size());
+        while (true) {
+            for (int i = 0; i < channelIds.size(); ++i) {
+                BigInteger channelId = channelIds.get((first + i) % channelIds.size());
+                PaymentChannel channel = stateProvider.getChannelStateById(channelId, signer);
+                Optional<BigInteger> amount = take(channel, allocator, price, minExpiration, reserve);
+                if (amount.isPresent()) {
+                    log.debug("Shard selected: {}", channel);
+                    return new Reservation(channel, amount.get());
+                }
+            }
+
+            // all shards are exhausted, transactions updating them are sent
+            // at once and the call waits for the first one mined
+            List<CompletableFuture<PaymentChannel>> updates = new ArrayList<>();
+            for (BigInteger channelId : channelIds) {
+                updateShardAsync(serviceClient, channelId, allocator, price,
+                        expirationThreshold, minExpiration).ifPresent(updates::add);
+            }
+            if (updates.isEmpty()) {
+                // all shards are being updated by other threads
+                PaymentChannel channel = stateProvider.getChannelStateById(
+                        channelIds.get(first), signer);
+                Semaphore lock = allocator.getUpdateLock(channel);
+                lock.acquireUninterruptibly();
+                lock.release();
+                continue;
+            }
+            CompletableFuture<Object> mined = CompletableFuture.anyOf(
+                    updates.toArray(new CompletableFuture<?>[0]));
+            Utils.wrapExceptions(mined::get);
+            for (CompletableFuture<PaymentChannel> update : updates) {
+                if (update.isDone() && !update.isCompletedExceptionally()) {
+                    PaymentChannel channel = update.join();
+                    Optional<BigInteger> amount = take(channel, allocator, price, minExpiration, reserve);
+                    if (amount.isPresent()) {
+                        log.debug("Updated shard selected: {}", channel);
+                        return new Reservation(channel, amount.get());
+                    }
+                }
+            }
+        }
+    }
+
+    private Optional<CompletableFuture<PaymentChannel>> updateShardAsync(
+            ServiceClient serviceClient, BigInteger channelId,
+            PaymentChannelAmountAllocator allocator, BigInteger price,
+            BigInteger expirationThreshold, BigInteger minExpiration) {
+        Identity signer = serviceClient.getSdk().getIdentity();
+        PaymentChannelStateProvider stateProvider = serviceClient.getPaymentChannelStateProvider();
+        PaymentChannel channel = stateProvider.getChannelStateById(channelId, signer);
+        Semaphore lock = allocator.getUpdateLock(channel);
+        if (!lock.tryAcquire()) {
+            return Optional.empty();
+        }
+        CompletableFuture<PaymentChannel> update;
+        try {
+            // shard can be updated by other thread before the lock is taken
+            channel = stateProvider.getChannelStateById(channelId, signer);
+            if (isUsable(channel, allocator, price, minExpiration)) {
+                lock.release();
+                return Optional.of(CompletableFuture.completedFuture(channel));
+            }
+            update = updateChannelAsync(
+                    serviceClient.getSdk().getBlockchainPaymentChannelManager(),
+                    channel, allocator, price, minExpiration,
+                    numberOfCalls.multiply(price),
+                    expirationThreshold.add(channelLifetime));
+        } catch (RuntimeException e) {
+            lock.release();
+            throw e;
+        }
+        return Optional.of(update.whenComplete((updated, e) -> {
+            try {
+                if (updated != null) {
+                    stateProvider.channelStateUpdated(updated);
+                }
+            } finally {
+                lock.release();
+            }
+        }));
+    }
+
+    private static Optional<BigInteger> take(PaymentChannel channel,
+            PaymentChannelAmountAllocator allocator, BigInteger price,
+            BigInteger minExpiration, boolean reserve) {
+        if (reserve) {
+            return tryAllocate(channel, allocator, price, minExpiration);
+        }
+        return isUsable(channel, allocator, price, minExpiration)
+            ? Optional.of(allocator.getAllocatedAmount(channel))
+            : Optional.empty();
+    }
+
+    /**
+     * Shards of the payment group. List of the channels is initialized on
+     * the first call and doesn't change after that.
+     */
+    private class Shards {
+
+        private final AtomicInteger next = new AtomicInteger();
+        private volatile List<BigInteger> channelIds;
+
+        public List<BigInteger> getChannelIds(ServiceClient serviceClient,
+                PaymentGroup paymentGroup, BigInteger price,
+                BigInteger minExpiration) {
+            List<BigInteger> ids = channelIds;
+            if (ids != null) {
+                return ids;
+            }
+            synchronized (this) {
+                if (channelIds == null) {
+                    channelIds = openShards(serviceClient, paymentGroup,
+                            price, minExpiration);
+                }
+                return channelIds;
+            }
+        }
+
+        private List<BigInteger> openShards(ServiceClient serviceClient,
+                PaymentGroup paymentGroup, BigInteger price,
+                BigInteger minExpiration) {
+            BlockchainPaymentChannelManager channelManager = serviceClient.getSdk()
+                .getBlockchainPaymentChannelManager();
+            Identity signer = serviceClient.getSdk().getIdentity();
+
+            // channels which are not expired and have funds go first, then
+            // the ones which expire later
+            List<BigInteger> ids = channelManager
+                .getChannelsAccessibleBy(paymentGroup.getPaymentGroupId(), signer)
+                .sorted(Comparator
+                        .comparing((PaymentChannel ch) -> !isOpenAndFunded(ch, price, minExpiration))
+                        .thenComparing(PaymentChannel::getExpiration, Comparator.reverseOrder()))
+                .map(ch -> ch.getChannelId())
+                .limit(numberOfShards)
+                .collect(Collectors.toCollection(ArrayList::new));
+            log.info("Existing shards found: {}", ids);
+
+            List<CompletableFuture<PaymentChannel>> opened = new ArrayList<>();
+            for (int i = ids.size(); i < numberOfShards; ++i) {
+                opened.add(channelManager.openPaymentChannelAsync(
+                        paymentGroup,
+                        signer,
+                        numberOfCalls.multiply(price),
+                        paymentGroup.getPaymentDetails()
+                            .getPaymentExpirationThreshold().add(channelLifetime)));
+            }
+            // wait for all transactions before reporting failure, shards
+            // opened are found by the next attempt
+            RuntimeException failure = null;
+            for (CompletableFuture<PaymentChannel> future : opened) {
+                try {
+                    PaymentChannel channel = Utils.wrapExceptions(future::get);
+                    log.info("New shard opened: {}", channel);
+                    serviceClient.getPaymentChannelStateProvider().channelStateUpdated(channel);
+                    ids.add(channel.getChannelId());
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return Collections.unmodifiableList(ids);
+        }
+
+    }
+
+    private static boolean isOpenAndFunded(PaymentChannel channel,
+            BigInteger price, BigInteger minExpiration) {
+        return channel.getExpiration().compareTo(minExpiration) > 0
+            && channel.getValue().subtract(channel.getSpentAmount()).compareTo(price) >= 0;
+    }
+
+    private static class Reservation {
+
+        private final PaymentChannel channel;
+        private final BigInteger amount;
+
+        private Reservation(PaymentChannel channel, BigInteger amount) {
+            this.channel = channel;
+            this.amount = amount;
+        }
+
+    }
+
+}
@@ -0,0 +1,151 @@
+package io.singularitynet.sdk.registry;
+
+import io.ipfs.multihash.Multihash;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.common.Preconditions;
+import io.singularitynet.sdk.registry.IpfsContentHash.Verification;
+
+/**
+ * Metadata storage which caches content of the underlying IPFS storage.
+ * IPFS content is immutable and addressed by its hash, so cached content
+ * never expires. Content is looked up in the in-memory cache of the
+ * limited size first, then in the on-disk cache directory where files are
+ * named by content multihash and then is requested from the underlying
+ * storage. Content received from the underlying storage is saved into both
+ * caches. Content read from disk is verified against the hash of the URI,
+ * file which doesn't match is removed. Content whose hash cannot be
+ * reproduced (see IpfsContentHash) is cached in memory only. Caller receives
+ * a copy of the cached content. URIs with scheme other than "ipfs" are not cached.
+ */
+// @ThreadSafe
+public class CachingMetadataStorage implements MetadataStorage {
+
+    private final static Logger log = LoggerFactory.getLogger(CachingMetadataStorage.class);
+
+    /**
+     * Default maximum number of metadata instances kept in memory.
+     */
+    public static final int DEFAULT_MAX_MEMORY_ENTRIES = 64;
+
+    private final MetadataStorage delegate;
+    private final Optional<File> directory;
+
+    // guarded by memory
+    private final LinkedHashMap<String, byte[]> memory;
+
+    /**
+     * Constructor.
+     * @param delegate underlying metadata storage.
+     * @param maxMemoryEntries maximum number of metadata instances kept in
+     * memory.
+     * @param directory directory to keep metadata on disk, if empty then
+     * metadata is cached in memory only.
+     */
+    public CachingMetadataStorage(MetadataStorage delegate,
+            int maxMemoryEntries, Optional<File> directory) {
+        Preconditions.checkArgument(maxMemoryEntries > 0,
+                "Maximum number of memory entries should be positive");
+        this.delegate = delegate;
+        this.directory = directory;
+        this.memory = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > maxMemoryEntries;
+            }
+        };
+    }
+
+    @Override
+    public byte[] get(URI uri) {
+        if (!"ipfs".equals(uri.getScheme())) {
+            return delegate.get(uri);
+        }
+        // parsing hash validates it so it is safe to use it as a file name
+        String hash = Multihash.fromBase58(uri.getAuthority()).toBase58();
+
+        byte[] content;
+        synchronized (memory) {
+            content = memory.get(hash);
+        }
+        if (content != null) {
+            log.debug("Metadata is found in memory, uri: {}", uri);
+            return content.clone();
+        }
+
+        content = readFromDisk(uri, hash).orElse(null);
+        if (content == null) {
+            content = delegate.get(uri);
+            if (IpfsContentHash.verify(uri, content) != Verification.NOT_REPRODUCED) {
+                writeToDisk(hash, content);
+            }
+        } else {
+            log.debug("Metadata is found on disk, uri: {}", uri);
+        }
+
+        synchronized (memory) {
+            memory.put(hash, content);
+        }
+        return content.clone();
+    }
+
+    private Optional<byte[]> readFromDisk(URI uri, String hash) {
+        if (!directory.isPresent()) {
+            return Optional.empty();
+        }
+        File file = new File(directory.get(), hash);
+        if (!file.isFile()) {
+            return Optional.empty();
+        }
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            byte[] content = new byte[(int) input.length()];
+            input.readFully(content);
+            if (IpfsContentHash.verify(uri, content) != Verification.NOT_REPRODUCED) {
+                return Optional.of(content);
+            }
+        } catch (IOException e) {
+            log.warn("Could not read cached metadata from file: {}", file, e);
+            return Optional.empty();
+        }
+        log.warn("Cached metadata doesn't match hash, remove file: {}", file);
+        file.delete();
+        return Optional.empty();
+    }
+
+    private void writeToDisk(String hash, byte[] content) {
+        if (!directory.isPresent()) {
+            return;
+        }
+        File dir = directory.get();
+        File file = new File(dir, hash);
+        File tmp = new File(dir, hash + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Could not create directory: " + dir);
+            }
+            try (FileOutputStream output = new FileOutputStream(tmp)) {
+                output.write(content);
+            }
+            // content is addressed by hash, so file saved by concurrent
+            // thread has the same content
+            if (!tmp.renameTo(file) && !file.isFile()) {
+                throw new IOException("Could not rename " + tmp + " to " + file);
+            }
+            log.debug("Metadata is saved to file: {}", file);
+        } catch (IOException e) {
+            log.warn("Could not save metadata to file: {}", file, e);
+        } finally {
+            tmp.delete();
+        }
+    }
+
+}
@@ -0,0 +1,214 @@
+package io.singularitynet.sdk.registry;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.common.Preconditions;
+import io.singularitynet.sdk.registry.IpfsContentHash.Verification;
+
+/**
+ * Metadata storage which reads the same IPFS content from several
+ * underlying storages (IPFS API nodes or HTTP gateways). Request is sent to
+ * the storage with the lowest average latency first. If it doesn't respond
+ * within the hedge delay the same hedged request is sent to the second
+ * storage, then to the third one after the next hedge delay and so on. When
+ * request fails the next storage is requested immediately. The first
+ * response whose content matches the hash from the URI is returned. Hash
+ * can be reproduced only for the small files added with default settings
+ * (see IpfsContentHash), so response whose hash is not reproduced is not
+ * rejected: other storages are requested and it is returned only if none of
+ * them returns content with verified hash.
+ * Latency of each storage is tracked using exponentially weighted moving
+ * average, failures are accounted as a large latency.
+ */
+// @ThreadSafe
+public class HedgedMetadataStorage implements MetadataStorage {
+
+    private final static Logger log = LoggerFactory.getLogger(HedgedMetadataStorage.class);
+
+    private static final double EWMA_WEIGHT = 0.3;
+    private static final long FAILURE_LATENCY_MILLIS = 30_000;
+
+    private final List<Endpoint> endpoints;
+    private final long hedgeDelayMillis;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor.
+     * @param storages underlying storages.
+     * @param hedgeDelayMillis delay before sending the request to the next
+     * storage.
+     * @param executor executor to run blocking requests.
+     * @param scheduler scheduler to send hedged requests.
+     */
+    public HedgedMetadataStorage(List<MetadataStorage> storages,
+            long hedgeDelayMillis, Executor executor,
+            ScheduledExecutorService scheduler) {
+        Preconditions.checkArgument(!storages.isEmpty(), "At least one storage is required");
+        this.endpoints = storages.stream().map(Endpoint::new)
+            .collect(Collectors.toList());
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public byte[] get(URI uri) {
+        List<Endpoint> order = new ArrayList<>(endpoints);
+        order.sort(Comparator.comparingDouble(Endpoint::getLatency));
+        Request request = new Request(uri, order);
+
+        request.result.whenComplete((content, e) -> request.cancelHedge());
+        request.sendNext();
+        request.scheduleHedge();
+
+        try {
+            return request.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private class Request {
+
+        private final URI uri;
+        private final List<Endpoint> order;
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        private final AtomicInteger next = new AtomicInteger(0);
+        private final AtomicInteger failed = new AtomicInteger(0);
+        private final AtomicReference<byte[]> notVerified = new AtomicReference<>();
+        private volatile ScheduledFuture<?> hedge;
+
+        private Request(URI uri, List<Endpoint> order) {
+            this.uri = uri;
+            this.order = order;
+        }
+
+        private void scheduleHedge() {
+            if (result.isDone() || next.get() >= order.size()) {
+                return;
+            }
+            try {
+                hedge = scheduler.schedule(() -> {
+                    sendNext();
+                    scheduleHedge();
+                }, hedgeDelayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                log.warn("Could not schedule hedged request, uri: {}", uri, e);
+                return;
+            }
+            // result can be completed before hedge is assigned
+            if (result.isDone()) {
+                cancelHedge();
+            }
+        }
+
+        private void cancelHedge() {
+            ScheduledFuture<?> current = hedge;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+
+        private void sendNext() {
+            if (result.isDone()) {
+                return;
+            }
+            int index = next.getAndIncrement();
+            if (index >= order.size()) {
+                return;
+            }
+            Endpoint endpoint = order.get(index);
+            if (index > 0) {
+                log.debug("Send hedged request, uri: {}, storage: {}", uri, endpoint.storage);
+            }
+            try {
+                executor.execute(() -> send(endpoint));
+            } catch (RejectedExecutionException e) {
+                onFailure(e);
+            }
+        }
+
+        private void send(Endpoint endpoint) {
+            long start = System.nanoTime();
+            try {
+                byte[] content = endpoint.storage.get(uri);
+                endpoint.addSample(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                if (IpfsContentHash.verify(uri, content) == Verification.NOT_REPRODUCED) {
+                    log.warn("Content hash is not reproduced, request other storages, uri: {}, storage: {}",
+                            uri, endpoint.storage);
+                    notVerified.compareAndSet(null, content);
+                    onFailure(new IllegalStateException("Content hash is not reproduced, uri: "
+                            + uri + ", storage: " + endpoint.storage));
+                    return;
+                }
+                result.complete(content);
+            } catch (RuntimeException e) {
+                log.warn("Could not get content, uri: {}, storage: {}", uri, endpoint.storage, e);
+                endpoint.addSample(FAILURE_LATENCY_MILLIS);
+                onFailure(e);
+            }
+        }
+
+        private void onFailure(RuntimeException e) {
+            if (failed.incrementAndGet() >= order.size()) {
+                byte[] content = notVerified.get();
+                if (content != null) {
+                    log.warn("No storage returned content with verified hash, return not verified one, uri: {}", uri);
+                    result.complete(content);
+                } else {
+                    result.completeExceptionally(e);
+                }
+            } else {
+                sendNext();
+            }
+        }
+
+    }
+
+    private static class Endpoint {
+
+        private final MetadataStorage storage;
+        // guarded by this
+        private double latency = 0;
+        // guarded by this
+        private boolean sampled = false;
+
+        private Endpoint(MetadataStorage storage) {
+            this.storage = storage;
+        }
+
+        private synchronized double getLatency() {
+            return latency;
+        }
+
+        private synchronized void addSample(long millis) {
+            if (sampled) {
+                latency = EWMA_WEIGHT * millis + (1 - EWMA_WEIGHT) * latency;
+            } else {
+                latency = millis;
+                sampled = true;
+            }
+        }
+
+    }
+
+}
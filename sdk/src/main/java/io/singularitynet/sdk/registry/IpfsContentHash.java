@@ -0,0 +1,105 @@
+package io.singularitynet.sdk.registry;
+
+import io.ipfs.multihash.Multihash;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.common.Utils;
+
+/**
+ * Verifies that IPFS content matches the hash of its URI. Hash can be
+ * reproduced only for CIDv0 of the file which fits single block and was
+ * added with default settings. Content added with other settings (custom
+ * chunker, trickle layout, several blocks) has a different hash even if it
+ * is correct, so hash which is not reproduced doesn't prove that content is
+ * wrong.
+ */
+class IpfsContentHash {
+
+    /**
+     * Result of the content verification.
+     */
+    enum Verification {
+        /**
+         * Hash of the content is equal to the hash of the URI.
+         */
+        VERIFIED,
+        /**
+         * Hash was calculated but it is not equal to the hash of the URI,
+         * either content is wrong or it was added with non-default settings.
+         */
+        NOT_REPRODUCED,
+        /**
+         * Hash type or content size is not supported, hash is not
+         * calculated.
+         */
+        UNSUPPORTED
+    }
+
+    private final static Logger log = LoggerFactory.getLogger(IpfsContentHash.class);
+
+    // default IPFS chunk size, bigger files are split into several blocks
+    private static final int MAX_SINGLE_BLOCK_SIZE = 256 * 1024;
+
+    private IpfsContentHash() {
+    }
+
+    /**
+     * Check whether content matches CIDv0 hash of the URI. Hash is
+     * calculated in the same way as IPFS does for the file which fits single
+     * block: as SHA-256 hash of the DAG-PB node which keeps UnixFS file
+     * data.
+     */
+    static Verification verify(URI uri, byte[] content) {
+        String cid = uri.getAuthority();
+        if (cid == null || !cid.startsWith("Qm") || content.length > MAX_SINGLE_BLOCK_SIZE) {
+            log.debug("Content hash cannot be verified, uri: {}", uri);
+            return Verification.UNSUPPORTED;
+        }
+        Multihash expected = Multihash.fromBase58(cid);
+        if (expected.type != Multihash.Type.sha2_256) {
+            log.debug("Content hash cannot be verified, uri: {}", uri);
+            return Verification.UNSUPPORTED;
+        }
+
+        ByteArrayOutputStream unixfs = new ByteArrayOutputStream();
+        // Type: File
+        unixfs.write(0x08);
+        writeVarint(unixfs, 2);
+        if (content.length > 0) {
+            // Data
+            unixfs.write(0x12);
+            writeVarint(unixfs, content.length);
+            unixfs.write(content, 0, content.length);
+        }
+        // filesize
+        unixfs.write(0x18);
+        writeVarint(unixfs, content.length);
+
+        ByteArrayOutputStream node = new ByteArrayOutputStream();
+        // PBNode.Data
+        node.write(0x0a);
+        writeVarint(node, unixfs.size());
+        byte[] data = unixfs.toByteArray();
+        node.write(data, 0, data.length);
+
+        byte[] hash = Utils.wrapExceptions(() -> MessageDigest
+                .getInstance("SHA-256").digest(node.toByteArray()));
+        boolean equal = Arrays.equals(expected.toBytes(),
+                new Multihash(Multihash.Type.sha2_256, hash).toBytes());
+        return equal ? Verification.VERIFIED : Verification.NOT_REPRODUCED;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+}
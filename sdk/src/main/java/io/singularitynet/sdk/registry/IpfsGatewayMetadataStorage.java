@@ -0,0 +1,65 @@
+package io.singularitynet.sdk.registry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import lombok.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.common.Utils;
+
+/**
+ * Metadata storage which reads IPFS content via HTTP gateway using
+ * &lt;gateway&gt;/ipfs/&lt;hash&gt; requests.
+ */
+@ToString
+public class IpfsGatewayMetadataStorage implements MetadataStorage {
+
+    private final static Logger log = LoggerFactory.getLogger(IpfsGatewayMetadataStorage.class);
+
+    private static final int TIMEOUT_MILLIS = 30_000;
+
+    private final URL gateway;
+
+    /**
+     * New metadata storage for the IPFS gateway.
+     * @param gateway IPFS gateway URL.
+     */
+    public IpfsGatewayMetadataStorage(URL gateway) {
+        this.gateway = gateway;
+    }
+
+    @Override
+    public byte[] get(URI uri) {
+        return Utils.wrapExceptions(() -> {
+            URL url = new URL(gateway, "/ipfs/" + uri.getAuthority());
+            log.info("Get data from IPFS gateway, url: {}", url);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            try {
+                int status = connection.getResponseCode();
+                if (status != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("Unexpected HTTP status " + status + " from " + url);
+                }
+                try (InputStream in = connection.getInputStream()) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                    log.info("{} bytes received", out.size());
+                    return out.toByteArray();
+                }
+            } finally {
+                connection.disconnect();
+            }
+        });
+    }
+
+}
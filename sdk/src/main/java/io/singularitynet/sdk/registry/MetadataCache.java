@@ -0,0 +1,260 @@
+package io.singularitynet.sdk.registry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.singularitynet.sdk.common.Preconditions;
+
+/**
+ * Metadata cache which is shared by all service clients of the SDK instance.
+ * Organization metadata is cached by organization id and service metadata
+ * is cached by organization and service ids, so clients of the same service
+ * use the same metadata snapshot. Concurrent requests of the metadata which
+ * is not loaded yet wait for the single load. When snapshot is expired the
+ * cache continues returning it and starts refreshing in background, new
+ * snapshot replaces the previous one atomically when it is ready. Refresh
+ * reads the metadata URI from the Registry first and skips loading the
+ * metadata from storage if URI is not changed. Number of cached instances is
+ * limited, least recently used instances are evicted first.
+ */
+// @ThreadSafe
+public class MetadataCache {
+
+    private final static Logger log = LoggerFactory.getLogger(MetadataCache.class);
+
+    /**
+     * Default maximum number of organizations and services cached.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    /**
+     * Default metadata time to live.
+     */
+    public static final long DEFAULT_TTL_MILLIS = 600_000;
+
+    private final RegistryContract registryContract;
+    private final MetadataStorage metadataStorage;
+    private final long ttlMillis;
+    private final Executor executor;
+    private final LongSupplier clock;
+
+    private final LruMap<String, RefreshingMetadata<OrganizationMetadata>> orgMetadata;
+    private final LruMap<ServiceIdentifier, RefreshingMetadata<ServiceMetadata>> serviceMetadata;
+
+    /**
+     * Constructor.
+     * @param registryContract registry contract adapter.
+     * @param metadataStorage metadata storage implementation.
+     * @param maxEntries maximum number of organizations and maximum number
+     * of services cached.
+     * @param ttlMillis metadata time to live in milliseconds.
+     * @param executor executor to refresh metadata in background.
+     */
+    public MetadataCache(RegistryContract registryContract,
+            MetadataStorage metadataStorage, int maxEntries, long ttlMillis,
+            Executor executor) {
+        this(registryContract, metadataStorage, maxEntries, ttlMillis, executor,
+                System::currentTimeMillis);
+    }
+
+    MetadataCache(RegistryContract registryContract,
+            MetadataStorage metadataStorage, int maxEntries, long ttlMillis,
+            Executor executor, LongSupplier clock) {
+        Preconditions.checkArgument(maxEntries > 0, "Maximum number of entries should be positive");
+        this.registryContract = registryContract;
+        this.metadataStorage = metadataStorage;
+        this.ttlMillis = ttlMillis;
+        this.executor = executor;
+        this.clock = clock;
+        this.orgMetadata = new LruMap<>(maxEntries);
+        this.serviceMetadata = new LruMap<>(maxEntries);
+    }
+
+    /**
+     * Return organization metadata.
+     * @param orgId organization id.
+     * @return organization metadata.
+     */
+    public OrganizationMetadata getOrganizationMetadata(String orgId) {
+        return getOrganizationEntry(orgId).get();
+    }
+
+    /**
+     * Return organization metadata asynchronously. If metadata is not loaded
+     * yet it is loaded in background.
+     * @param orgId organization id.
+     * @return future which is completed by organization metadata.
+     */
+    public CompletableFuture<OrganizationMetadata> getOrganizationMetadataAsync(String orgId) {
+        return getOrganizationEntry(orgId).getAsync();
+    }
+
+    /**
+     * Return service metadata.
+     * @param orgId organization id.
+     * @param serviceId service id.
+     * @return service metadata.
+     */
+    public ServiceMetadata getServiceMetadata(String orgId, String serviceId) {
+        return getServiceEntry(orgId, serviceId).get();
+    }
+
+    /**
+     * Return service metadata asynchronously. If metadata is not loaded yet
+     * it is loaded in background.
+     * @param orgId organization id.
+     * @param serviceId service id.
+     * @return future which is completed by service metadata.
+     */
+    public CompletableFuture<ServiceMetadata> getServiceMetadataAsync(String orgId,
+            String serviceId) {
+        return getServiceEntry(orgId, serviceId).getAsync();
+    }
+
+    private RefreshingMetadata<OrganizationMetadata> getOrganizationEntry(String orgId) {
+        return orgMetadata.computeIfAbsent(orgId,
+                id -> new RefreshingMetadata<>("organization " + id,
+                    () -> RegistryMetadataProvider.getOrganizationMetadataUri(
+                        registryContract, id),
+                    RegistryMetadataProvider::parseOrganizationMetadata,
+                    metadataStorage, ttlMillis, executor, clock));
+    }
+
+    private RefreshingMetadata<ServiceMetadata> getServiceEntry(String orgId,
+            String serviceId) {
+        return serviceMetadata.computeIfAbsent(new ServiceIdentifier(orgId, serviceId),
+                id -> new RefreshingMetadata<>("service " + id,
+                    () -> RegistryMetadataProvider.getServiceMetadataUri(
+                        registryContract, id.getOrgId(), id.getServiceId()),
+                    RegistryMetadataProvider::parseServiceMetadata,
+                    metadataStorage, ttlMillis, executor, clock));
+    }
+
+    /**
+     * Load metadata of the given services into the cache. Metadata of the
+     * organization shared by several services is loaded once. Not more than
+     * parallelism loads are executed at the same time.
+     * @param services list of the services to load metadata.
+     * @param parallelism maximum number of concurrent loads.
+     * @return list of futures in the same order as the services passed,
+     * each future is completed by service metadata when both organization
+     * and service metadata are loaded.
+     */
+    public List<CompletableFuture<ServiceMetadata>> prefetch(
+            List<ServiceIdentifier> services, int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "Parallelism should be positive");
+        log.debug("Prefetch metadata, services: {}, parallelism: {}", services, parallelism);
+
+        Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        Map<String, CompletableFuture<OrganizationMetadata>> orgs = new HashMap<>();
+        Map<ServiceIdentifier, CompletableFuture<ServiceMetadata>> svcs = new HashMap<>();
+        for (ServiceIdentifier service : services) {
+            orgs.computeIfAbsent(service.getOrgId(), orgId -> newTask(tasks,
+                        futures, () -> getOrganizationMetadata(orgId)));
+            svcs.computeIfAbsent(service, id -> newTask(tasks, futures,
+                        () -> getServiceMetadata(id.getOrgId(), id.getServiceId())));
+        }
+
+        int workers = Math.min(parallelism, tasks.size());
+        for (int i = 0; i < workers; ++i) {
+            try {
+                executor.execute(() -> {
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("Could not start metadata prefetch", e);
+                futures.forEach(future -> future.completeExceptionally(e));
+                break;
+            }
+        }
+
+        return services.stream()
+            .map(service -> orgs.get(service.getOrgId())
+                    .thenCombine(svcs.get(service), (org, metadata) -> metadata))
+            .collect(Collectors.toList());
+    }
+
+    private static <T> CompletableFuture<T> newTask(Queue<Runnable> tasks,
+            List<CompletableFuture<?>> futures, Supplier<T> load) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        futures.add(future);
+        tasks.add(() -> {
+            try {
+                future.complete(load.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Return metadata provider for the given service which reads metadata
+     * from this cache.
+     * @param orgId organization id.
+     * @param serviceId service id.
+     * @return metadata provider instance.
+     */
+    public MetadataProvider getMetadataProvider(String orgId, String serviceId) {
+        return new MetadataProvider() {
+            @Override
+            public OrganizationMetadata getOrganizationMetadata() {
+                return MetadataCache.this.getOrganizationMetadata(orgId);
+            }
+            @Override
+            public ServiceMetadata getServiceMetadata() {
+                return MetadataCache.this.getServiceMetadata(orgId, serviceId);
+            }
+            @Override
+            public CompletableFuture<OrganizationMetadata> getOrganizationMetadataAsync() {
+                return MetadataCache.this.getOrganizationMetadataAsync(orgId);
+            }
+            @Override
+            public CompletableFuture<ServiceMetadata> getServiceMetadataAsync() {
+                return MetadataCache.this.getServiceMetadataAsync(orgId, serviceId);
+            }
+        };
+    }
+
+    private static class LruMap<K, V> {
+
+        // guarded by this
+        private final LinkedHashMap<K, V> map;
+
+        private LruMap(int maxEntries) {
+            this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    boolean remove = size() > maxEntries;
+                    if (remove) {
+                        log.debug("Evict metadata from cache: {}", eldest.getKey());
+                    }
+                    return remove;
+                }
+            };
+        }
+
+        private synchronized V computeIfAbsent(K key, Function<K, V> factory) {
+            return map.computeIfAbsent(key, factory);
+        }
+
+    }
+
+}
@@ -1,5 +1,7 @@
 package io.singularitynet.sdk.registry;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface provides access to the metdata of the specific SingularityNet
  * service.
@@ -18,4 +20,37 @@ public interface MetadataProvider {
      */
     ServiceMetadata getServiceMetadata();
 
+    /**
+     * Get publisher organization related metadata asynchronously. Default
+     * implementation calls getOrganizationMetadata() in the caller thread.
+     * Implementations which load metadata from the network should override
+     * it to not block the caller.
+     * @return future which is completed by organization metadata.
+     */
+    default CompletableFuture<OrganizationMetadata> getOrganizationMetadataAsync() {
+        CompletableFuture<OrganizationMetadata> future = new CompletableFuture<>();
+        try {
+            future.complete(getOrganizationMetadata());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Return service metadata asynchronously. Default implementation calls
+     * getServiceMetadata() in the caller thread. Implementations which load
+     * metadata from the network should override it to not block the caller.
+     * @return future which is completed by service metadata.
+     */
+    default CompletableFuture<ServiceMetadata> getServiceMetadataAsync() {
+        CompletableFuture<ServiceMetadata> future = new CompletableFuture<>();
+        try {
+            future.complete(getServiceMetadata());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
 }
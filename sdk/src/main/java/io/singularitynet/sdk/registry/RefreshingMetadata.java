@@ -0,0 +1,178 @@
+package io.singularitynet.sdk.registry;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Snapshot of the single metadata instance which is refreshed in background
+ * when its time to live is expired. Metadata is loaded on first request
+ * either synchronously or in background if it is requested asynchronously,
+ * concurrent callers wait for the same load. Refresh skips loading metadata
+ * from storage if metadata URI is not changed. When refresh fails the next
+ * attempt is delayed, delay is doubled after each failure up to the time to
+ * live.
+ */
+// @ThreadSafe
+class RefreshingMetadata<T> {
+
+    private final static Logger log = LoggerFactory.getLogger(RefreshingMetadata.class);
+
+    /**
+     * Delay before the first retry of the failed refresh.
+     */
+    static final long MIN_RETRY_DELAY_MILLIS = 1_000;
+
+    private final String name;
+    private final Supplier<URI> uriSupplier;
+    private final Function<byte[], T> parser;
+    private final MetadataStorage metadataStorage;
+    private final long ttlMillis;
+    private final Executor executor;
+    private final LongSupplier clock;
+
+    private final AtomicReference<Snapshot<T>> snapshot = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<T>> initialLoad = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    // written by the refreshing thread only
+    private volatile long retryAt = 0;
+    // written by the refreshing thread only
+    private volatile long retryDelay = 0;
+
+    RefreshingMetadata(String name, Supplier<URI> uriSupplier,
+            Function<byte[], T> parser, MetadataStorage metadataStorage,
+            long ttlMillis, Executor executor, LongSupplier clock) {
+        this.name = name;
+        this.uriSupplier = uriSupplier;
+        this.parser = parser;
+        this.metadataStorage = metadataStorage;
+        this.ttlMillis = ttlMillis;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    T get() {
+        Snapshot<T> current = snapshot.get();
+        if (current != null) {
+            refreshIfExpired(current);
+            return current.metadata;
+        }
+        try {
+            return startLoad(Runnable::run).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    CompletableFuture<T> getAsync() {
+        Snapshot<T> current = snapshot.get();
+        if (current != null) {
+            refreshIfExpired(current);
+            return CompletableFuture.completedFuture(current.metadata);
+        }
+        return startLoad(executor);
+    }
+
+    private CompletableFuture<T> startLoad(Executor loadExecutor) {
+        while (true) {
+            CompletableFuture<T> future = initialLoad.get();
+            if (future != null) {
+                return future;
+            }
+            CompletableFuture<T> newFuture = new CompletableFuture<>();
+            if (!initialLoad.compareAndSet(null, newFuture)) {
+                continue;
+            }
+            try {
+                loadExecutor.execute(() -> {
+                    try {
+                        Snapshot<T> loaded = load(null);
+                        snapshot.set(loaded);
+                        newFuture.complete(loaded.metadata);
+                    } catch (RuntimeException e) {
+                        failLoad(newFuture, e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                failLoad(newFuture, e);
+            }
+            return newFuture;
+        }
+    }
+
+    private void failLoad(CompletableFuture<T> future, RuntimeException e) {
+        log.debug("Could not load {} metadata", name, e);
+        // next call should try loading metadata again
+        initialLoad.compareAndSet(future, null);
+        future.completeExceptionally(e);
+    }
+
+    private void refreshIfExpired(Snapshot<T> current) {
+        long now = clock.getAsLong();
+        if (now - current.loadedAt >= ttlMillis && now >= retryAt
+                && refreshing.compareAndSet(false, true)) {
+            log.debug("The {} metadata is expired, start refreshing", name);
+            try {
+                executor.execute(this::refresh);
+            } catch (RejectedExecutionException e) {
+                refreshing.set(false);
+                log.warn("Could not start refreshing {} metadata", name, e);
+            }
+        }
+    }
+
+    private void refresh() {
+        try {
+            snapshot.set(load(snapshot.get()));
+            retryDelay = 0;
+            retryAt = 0;
+        } catch (RuntimeException e) {
+            retryDelay = retryDelay == 0 ? MIN_RETRY_DELAY_MILLIS
+                : Math.min(retryDelay * 2, ttlMillis);
+            retryAt = clock.getAsLong() + retryDelay;
+            log.warn("Could not refresh {} metadata, previous one is used, retry in {} ms",
+                    name, retryDelay, e);
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private Snapshot<T> load(Snapshot<T> previous) {
+        URI uri = uriSupplier.get();
+        long now = clock.getAsLong();
+        if (previous != null && previous.uri.equals(uri)) {
+            log.debug("The {} metadata URI is not changed: {}", name, uri);
+            return new Snapshot<>(uri, previous.metadata, now);
+        }
+        T metadata = parser.apply(metadataStorage.get(uri));
+        log.debug("The {} metadata is loaded: {}", name, metadata);
+        return new Snapshot<>(uri, metadata, now);
+    }
+
+    private static class Snapshot<T> {
+
+        private final URI uri;
+        private final T metadata;
+        private final long loadedAt;
+
+        private Snapshot(URI uri, T metadata, long loadedAt) {
+            this.uri = uri;
+            this.metadata = metadata;
+            this.loadedAt = loadedAt;
+        }
+
+    }
+
+}
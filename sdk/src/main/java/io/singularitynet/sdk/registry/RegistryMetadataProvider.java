@@ -1,13 +1,19 @@
 package io.singularitynet.sdk.registry;
 
 import com.google.gson.*;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.lang.reflect.Type;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.net.URI;
 import java.net.URL;
 
-import io.singularitynet.sdk.common.Utils;
 import io.singularitynet.sdk.ethereum.Address;
 
 /**
@@ -17,6 +23,13 @@ import io.singularitynet.sdk.ethereum.Address;
 public class RegistryMetadataProvider implements MetadataProvider {
 
     private final static Logger log = LoggerFactory.getLogger(RegistryMetadataProvider.class);
+
+    // Gson instance is thread-safe and caches type adapters, group adapters
+    // read the stream directly without building intermediate JSON tree
+    static final Gson GSON = new GsonBuilder()
+        .registerTypeAdapterFactory(new MetadataTypeAdapterFactory())
+        .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+        .create();
         
 	private final String orgId;
 	private final String serviceId;
@@ -41,79 +54,170 @@ public class RegistryMetadataProvider implements MetadataProvider {
     @Override
     public OrganizationMetadata getOrganizationMetadata() {
         log.debug("Get organization metadata, orgId: {}", orgId);
-        OrganizationRegistration registration = registryContract.getOrganizationById(orgId)
-            .orElseThrow(() -> new NotFoundException("Organization not found, orgId: " + orgId));
-        byte[] metadataBytes = metadataStorage.get(registration.getMetadataUri());
-
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(PaymentGroup.class, new PaymentGroupDeserializer());
-        gsonBuilder.setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES);
-        Gson gson = gsonBuilder.create();
-
-        OrganizationMetadata metadata = gson.fromJson(Utils.bytesToStr(metadataBytes), OrganizationMetadata.class);
+        URI metadataUri = getOrganizationMetadataUri(registryContract, orgId);
+        OrganizationMetadata metadata = parseOrganizationMetadata(
+                metadataStorage.get(metadataUri));
         log.debug("Metadata received: {}", metadata);
         return metadata;
     }
 
-    private static class PaymentGroupDeserializer implements JsonDeserializer<PaymentGroup> {
+    static URI getOrganizationMetadataUri(RegistryContract registryContract,
+            String orgId) {
+        return registryContract.getOrganizationById(orgId)
+            .orElseThrow(() -> new NotFoundException("Organization not found, orgId: " + orgId))
+            .getMetadataUri();
+    }
 
-        @Override
-        public PaymentGroup deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-            JsonObject jsonObject = json.getAsJsonObject();
-            String paymentGroupId = context.deserialize(jsonObject.get("group_id"), String.class);
-            return PaymentGroup.newBuilder()
-                .setGroupName(jsonObject.get("group_name").getAsString())
-                .setPaymentGroupId(new PaymentGroupId(paymentGroupId))
-                .setPaymentDetails(context.deserialize(jsonObject.get("payment"),
-                            PaymentDetails.class))
-                .build();
-        }
+    static OrganizationMetadata parseOrganizationMetadata(byte[] metadataBytes) {
+        return parse(metadataBytes, OrganizationMetadata.class);
+    }
 
+    private static <T> T parse(byte[] metadataBytes, Class<T> type) {
+        JsonReader reader = new JsonReader(new InputStreamReader(
+                    new ByteArrayInputStream(metadataBytes), StandardCharsets.UTF_8));
+        return GSON.fromJson(reader, type);
     }
 
     @Override
     public ServiceMetadata getServiceMetadata() {
         log.debug("Get service metadata, orgId: {}, serviceId: {}", orgId, serviceId);
-        ServiceRegistration registration = registryContract.getServiceRegistrationById(orgId, serviceId)
-            .orElseThrow(() -> new NotFoundException("Service not found, orgId: " + orgId + ", serviceId: " + serviceId));
-        byte[] metadataBytes = metadataStorage.get(registration.getMetadataUri());
-
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(EndpointGroup.class, new EndpointGroupDeserializer());
-        gsonBuilder.setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES);
-        Gson gson = gsonBuilder.create();
-
-        ServiceMetadata metadata = gson.fromJson(Utils.bytesToStr(metadataBytes), ServiceMetadata.class);
+        URI metadataUri = getServiceMetadataUri(registryContract, orgId, serviceId);
+        ServiceMetadata metadata = parseServiceMetadata(
+                metadataStorage.get(metadataUri));
         log.debug("Metadata received: {}", metadata);
         return metadata;
     }
 
-    private static class EndpointGroupDeserializer implements JsonDeserializer<EndpointGroup> {
+    static URI getServiceMetadataUri(RegistryContract registryContract,
+            String orgId, String serviceId) {
+        return registryContract.getServiceRegistrationById(orgId, serviceId)
+            .orElseThrow(() -> new NotFoundException("Service not found, orgId: " + orgId + ", serviceId: " + serviceId))
+            .getMetadataUri();
+    }
+
+    static ServiceMetadata parseServiceMetadata(byte[] metadataBytes) {
+        return parse(metadataBytes, ServiceMetadata.class);
+    }
+
+    private static class MetadataTypeAdapterFactory implements TypeAdapterFactory {
 
         @Override
-        public EndpointGroup deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-            JsonObject jsonObject = json.getAsJsonObject();
-            String paymentGroupId = context.deserialize(jsonObject.get("group_id"), String.class);
-            EndpointGroup.Builder builder = EndpointGroup.newBuilder()
-                .setGroupName(jsonObject.get("group_name").getAsString())
-                .setPricing(context.deserialize(jsonObject.get("pricing"),
-                            Utils.parameterizedType(List.class, null, Pricing.class)))
-                .setEndpoints(context.deserialize(jsonObject.get("endpoints"),
-                            Utils.parameterizedType(List.class, null, URL.class)))
-                .setPaymentGroupId(new PaymentGroupId(paymentGroupId));
-
-            if (jsonObject.has("free_calls")) {
-                builder.setFreeCalls(jsonObject.get("free_calls").getAsLong());
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() == PaymentGroup.class) {
+                return (TypeAdapter<T>) new PaymentGroupAdapter(gson).nullSafe();
             }
+            if (type.getRawType() == EndpointGroup.class) {
+                return (TypeAdapter<T>) new EndpointGroupAdapter(gson).nullSafe();
+            }
+            return null;
+        }
+
+    }
+
+    private static class PaymentGroupAdapter extends TypeAdapter<PaymentGroup> {
+
+        private final TypeAdapter<PaymentDetails> paymentDetails;
+
+        private PaymentGroupAdapter(Gson gson) {
+            this.paymentDetails = gson.getAdapter(PaymentDetails.class);
+        }
 
-            if (jsonObject.has("free_call_signer_address")) {
-                String freeCallSignerAddress = context.deserialize(jsonObject.get("free_call_signer_address"), String.class);
-                builder.setFreeCallSignerAddress(new Address(freeCallSignerAddress));
+        @Override
+        public PaymentGroup read(JsonReader in) throws IOException {
+            PaymentGroup.Builder builder = PaymentGroup.newBuilder();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "group_name":
+                        builder.setGroupName(in.nextString());
+                        break;
+                    case "group_id":
+                        builder.setPaymentGroupId(new PaymentGroupId(in.nextString()));
+                        break;
+                    case "payment":
+                        builder.setPaymentDetails(paymentDetails.read(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
             }
+            in.endObject();
+            return builder.build();
+        }
+
+        @Override
+        public void write(JsonWriter out, PaymentGroup value) throws IOException {
+            out.beginObject();
+            out.name("group_name").value(value.getGroupName());
+            out.name("group_id").value(asString(value.getPaymentGroupId()));
+            out.name("payment");
+            paymentDetails.write(out, value.getPaymentDetails());
+            out.endObject();
+        }
+
+    }
+
+    private static class EndpointGroupAdapter extends TypeAdapter<EndpointGroup> {
 
+        private final TypeAdapter<List<Pricing>> pricing;
+        private final TypeAdapter<List<URL>> endpoints;
+
+        private EndpointGroupAdapter(Gson gson) {
+            this.pricing = gson.getAdapter(new TypeToken<List<Pricing>>() {});
+            this.endpoints = gson.getAdapter(new TypeToken<List<URL>>() {});
+        }
+
+        @Override
+        public EndpointGroup read(JsonReader in) throws IOException {
+            EndpointGroup.Builder builder = EndpointGroup.newBuilder();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "group_name":
+                        builder.setGroupName(in.nextString());
+                        break;
+                    case "group_id":
+                        builder.setPaymentGroupId(new PaymentGroupId(in.nextString()));
+                        break;
+                    case "pricing":
+                        builder.setPricing(pricing.read(in));
+                        break;
+                    case "endpoints":
+                        builder.setEndpoints(endpoints.read(in));
+                        break;
+                    case "free_calls":
+                        builder.setFreeCalls(in.nextLong());
+                        break;
+                    case "free_call_signer_address":
+                        builder.setFreeCallSignerAddress(new Address(in.nextString()));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
             return builder.build();
         }
 
+        @Override
+        public void write(JsonWriter out, EndpointGroup value) throws IOException {
+            out.beginObject();
+            out.name("group_name").value(value.getGroupName());
+            out.name("group_id").value(asString(value.getPaymentGroupId()));
+            out.name("pricing");
+            pricing.write(out, value.getPricing());
+            out.name("endpoints");
+            endpoints.write(out, value.getEndpoints());
+            out.name("free_calls").value(value.getFreeCalls());
+            out.name("free_call_signer_address").value(asString(value.getFreeCallSignerAddress()));
+            out.endObject();
+        }
+
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
     }
 
     public static class NotFoundException extends RuntimeException {
@@ -0,0 +1,41 @@
+package io.singularitynet.sdk.registry;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Pair of organization id and service id which identifies the service in
+ * the Registry.
+ */
+@EqualsAndHashCode
+@ToString
+public class ServiceIdentifier {
+
+    private final String orgId;
+    private final String serviceId;
+
+    /**
+     * Constructor.
+     * @param orgId organization id.
+     * @param serviceId service id.
+     */
+    public ServiceIdentifier(String orgId, String serviceId) {
+        this.orgId = orgId;
+        this.serviceId = serviceId;
+    }
+
+    /**
+     * @return organization id.
+     */
+    public String getOrgId() {
+        return orgId;
+    }
+
+    /**
+     * @return service id.
+     */
+    public String getServiceId() {
+        return serviceId;
+    }
+
+}
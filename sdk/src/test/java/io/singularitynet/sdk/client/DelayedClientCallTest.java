@@ -0,0 +1,97 @@
+package io.singularitynet.sdk.client;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.concurrent.CompletableFuture;
+import io.grpc.ClientCall;
+import io.grpc.Metadata;
+import io.grpc.Status;
+
+public class DelayedClientCallTest {
+
+    private CompletableFuture<ClientCall<String, String>> future;
+    private ClientCall<String, String> realCall;
+    private ClientCall.Listener<String> listener;
+    private DelayedClientCall<String, String> call;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        future = new CompletableFuture<>();
+        realCall = mock(ClientCall.class);
+        listener = mock(ClientCall.Listener.class);
+        call = new DelayedClientCall<>(() -> future, null);
+    }
+
+    @Test
+    public void callsAreReplayedInOrderWhenRealCallIsReady() {
+        Metadata headers = new Metadata();
+
+        call.start(listener, headers);
+        call.request(1);
+        call.sendMessage("request");
+        call.halfClose();
+        verifyZeroInteractions(realCall);
+        assertFalse("Call is ready before real call is started", call.isReady());
+
+        future.complete(realCall);
+
+        InOrder inOrder = inOrder(realCall);
+        inOrder.verify(realCall).start(listener, headers);
+        inOrder.verify(realCall).request(1);
+        inOrder.verify(realCall).sendMessage("request");
+        inOrder.verify(realCall).halfClose();
+    }
+
+    @Test
+    public void callsArePassedThroughAfterRealCallIsReady() {
+        Metadata headers = new Metadata();
+        call.start(listener, headers);
+        future.complete(realCall);
+
+        call.sendMessage("request");
+
+        verify(realCall).sendMessage("request");
+    }
+
+    @Test
+    public void listenerIsClosedWhenRealCallCannotBePrepared() {
+        call.start(listener, new Metadata());
+        call.sendMessage("request");
+
+        future.completeExceptionally(Status.FAILED_PRECONDITION
+                .withDescription("No payment").asRuntimeException());
+
+        ArgumentCaptor<Status> status = ArgumentCaptor.forClass(Status.class);
+        verify(listener).onClose(status.capture(), any(Metadata.class));
+        assertEquals("Status code", Status.Code.FAILED_PRECONDITION,
+                status.getValue().getCode());
+        verifyZeroInteractions(realCall);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void realCallIsCancelledWhenCallIsCancelledBeforeStart() {
+        Metadata headers = new Metadata();
+        call.start(listener, headers);
+        call.sendMessage("request");
+
+        call.cancel("cancelled by test", null);
+        future.complete(realCall);
+
+        ArgumentCaptor<Status> status = ArgumentCaptor.forClass(Status.class);
+        verify(listener).onClose(status.capture(), any(Metadata.class));
+        assertEquals("Status code", Status.Code.CANCELLED,
+                status.getValue().getCode());
+        // real call listener releases the payment, so real call is started
+        InOrder inOrder = inOrder(realCall);
+        inOrder.verify(realCall).start(argThat(l -> l != listener), eq(headers));
+        inOrder.verify(realCall).cancel(anyString(), isNull());
+        verify(realCall, never()).sendMessage(anyString());
+    }
+
+}
@@ -4,13 +4,27 @@ import org.junit.*;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
-import io.grpc.Channel;
+import io.grpc.*;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.singularitynet.sdk.common.Utils;
 import io.singularitynet.sdk.registry.EndpointGroup;
 import io.singularitynet.sdk.registry.MetadataProvider;
+import io.singularitynet.sdk.test.Input;
+import io.singularitynet.sdk.test.Output;
+import io.singularitynet.sdk.test.TestServer;
+import io.singularitynet.sdk.test.TestServiceGrpc;
 
 public class BaseDaemonConnectionTest {
 
@@ -64,4 +78,200 @@ public class BaseDaemonConnectionTest {
         assertTrue("Channels received must be equal", channels[0] == channels[1]);
     }
 
+    @Test
+    public void callsAreDistributedBetweenPooledChannels() throws Exception {
+        Set<SocketAddress> clients = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        Server server = ServerBuilder.forPort(0)
+            .addService(ServerInterceptors.intercept(new TestServer.TestService(),
+                        new ServerInterceptor() {
+                            public <ReqT,RespT> ServerCall.Listener<ReqT> interceptCall(
+                                    ServerCall<ReqT,RespT> call, Metadata headers,
+                                    ServerCallHandler<ReqT,RespT> next) {
+                                clients.add(call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR));
+                                return next.startCall(call, headers);
+                            }
+                        }))
+            .build()
+            .start();
+        URL url = Utils.strToUrl("http://localhost:" + server.getPort());
+        EndpointSelector selector = new EndpointSelector() {
+
+            public Endpoint nextEndpoint(MetadataProvider metadataProvider) {
+                return new Endpoint() {
+
+                    public EndpointGroup getGroup() {
+                        return EndpointGroup.newBuilder()
+                            .setGroupName("default_group")
+                            .addEndpoint(url)
+                            .build();
+                    }
+
+                    public URL getUrl() {
+                        return url;
+                    }
+
+                };
+            }
+
+        };
+        // each call compares next channel in turn with the first one, not
+        // used channel wins because its latency is not measured yet
+        AtomicInteger turn = new AtomicInteger(0);
+        BaseDaemonConnection connection = new BaseDaemonConnection(selector, null, 3,
+                bound -> bound == 3 ? turn.getAndIncrement() % bound : 0);
+        connection.setClientCallsInterceptor(new ClientInterceptor() {
+            public <ReqT,RespT> ClientCall<ReqT,RespT> interceptCall(
+                    MethodDescriptor<ReqT,RespT> method,
+                    CallOptions callOptions,
+                    Channel next) {
+                return next.newCall(method, callOptions);
+            }
+        });
+        try {
+            TestServiceGrpc.TestServiceBlockingStub stub =
+                connection.getGrpcStub(TestServiceGrpc::newBlockingStub);
+
+            for (int i = 0; i < 3; ++i) {
+                stub.echo(Input.newBuilder().setInput("ping").build());
+            }
+
+            assertEquals("Connections used", 3, clients.size());
+        } finally {
+            connection.shutdownNow();
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    public void callIsReissuedOnNextEndpointWhenDaemonIsUnreachable() throws Exception {
+        TestServer second = TestServer.startWithoutDaemon();
+        BaseDaemonConnection connection = newConnection(Arrays.asList(
+                    unusedPortUrl(), second.getEndpoint()));
+        try {
+            TestServiceGrpc.TestServiceBlockingStub stub =
+                connection.getGrpcStub(TestServiceGrpc::newBlockingStub);
+
+            Output output = stub.echo(Input.newBuilder().setInput("ping").build());
+
+            assertEquals("Call result", "ping", output.getOutput());
+            assertEquals("Current endpoint", second.getEndpoint(),
+                    connection.getEndpoint().getUrl());
+        } finally {
+            connection.shutdownNow();
+            second.shutdownNow();
+        }
+    }
+
+    @Test
+    public void connectionSwitchesToNextEndpointWhenDaemonIsShutdown() {
+        TestServer first = TestServer.startWithoutDaemon();
+        TestServer second = TestServer.startWithoutDaemon();
+        BaseDaemonConnection connection = newConnection(Arrays.asList(
+                    first.getEndpoint(), second.getEndpoint()));
+        try {
+            TestServiceGrpc.TestServiceBlockingStub stub =
+                connection.getGrpcStub(TestServiceGrpc::newBlockingStub);
+            stub.echo(Input.newBuilder().setInput("ping").build());
+            first.shutdownNow();
+
+            int failures = 0;
+            Output output = null;
+            for (int i = 0; i < 2 && output == null; ++i) {
+                try {
+                    output = stub.echo(Input.newBuilder().setInput("ping").build());
+                } catch (StatusRuntimeException e) {
+                    assertEquals("Call status", Status.Code.UNAVAILABLE, e.getStatus().getCode());
+                    ++failures;
+                }
+            }
+
+            assertNotNull("Call succeeded after failover", output);
+            assertTrue("Calls failed on shutdown endpoint: " + failures, failures <= 1);
+            assertEquals("Current endpoint", second.getEndpoint(),
+                    connection.getEndpoint().getUrl());
+        } finally {
+            connection.shutdownNow();
+            second.shutdownNow();
+        }
+    }
+
+    @Test
+    public void unavailableStatusOfDaemonKeepsEndpoint() throws Exception {
+        Server first = ServerBuilder.forPort(0)
+            .addService(new TestServiceGrpc.TestServiceImplBase() {
+                @Override
+                public void echo(Input input, StreamObserver<Output> callback) {
+                    callback.onError(Status.UNAVAILABLE
+                            .withDescription("service is not ready")
+                            .asRuntimeException());
+                }
+            })
+            .build()
+            .start();
+        TestServer second = TestServer.startWithoutDaemon();
+        URL firstUrl = Utils.strToUrl("http://localhost:" + first.getPort());
+        BaseDaemonConnection connection = newConnection(Arrays.asList(
+                    firstUrl, second.getEndpoint()));
+        try {
+            TestServiceGrpc.TestServiceBlockingStub stub =
+                connection.getGrpcStub(TestServiceGrpc::newBlockingStub);
+
+            for (int i = 0; i < 2; ++i) {
+                try {
+                    stub.echo(Input.newBuilder().setInput("ping").build());
+                    fail("Call is expected to fail");
+                } catch (StatusRuntimeException e) {
+                    assertEquals("Call status", Status.Code.UNAVAILABLE, e.getStatus().getCode());
+                }
+            }
+
+            assertEquals("Current endpoint", firstUrl, connection.getEndpoint().getUrl());
+        } finally {
+            connection.shutdownNow();
+            first.shutdownNow();
+            second.shutdownNow();
+        }
+    }
+
+    private static BaseDaemonConnection newConnection(List<URL> urls) {
+        AtomicInteger next = new AtomicInteger(0);
+        EndpointSelector selector = new EndpointSelector() {
+
+            public Endpoint nextEndpoint(MetadataProvider metadataProvider) {
+                URL url = urls.get(Math.min(next.getAndIncrement(), urls.size() - 1));
+                return new Endpoint() {
+
+                    public EndpointGroup getGroup() {
+                        return EndpointGroup.newBuilder()
+                            .setGroupName("default_group")
+                            .setEndpoints(urls)
+                            .build();
+                    }
+
+                    public URL getUrl() {
+                        return url;
+                    }
+
+                };
+            }
+
+        };
+        BaseDaemonConnection connection = new BaseDaemonConnection(selector, null);
+        connection.setClientCallsInterceptor(new ClientInterceptor() {
+            public <ReqT,RespT> ClientCall<ReqT,RespT> interceptCall(
+                    MethodDescriptor<ReqT,RespT> method,
+                    CallOptions callOptions,
+                    Channel next) {
+                return next.newCall(method, callOptions);
+            }
+        });
+        return connection;
+    }
+
+    private static URL unusedPortUrl() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return Utils.strToUrl("http://localhost:" + socket.getLocalPort());
+        }
+    }
+
 }
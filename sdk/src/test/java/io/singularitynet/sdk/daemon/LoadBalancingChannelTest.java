@@ -0,0 +1,143 @@
+package io.singularitynet.sdk.daemon;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import io.grpc.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadBalancingChannelTest {
+
+    private AtomicLong clock;
+    private TestChannel slow;
+    private TestChannel fast;
+    private LoadBalancingChannel channel;
+
+    @Before
+    public void setUp() {
+        clock = new AtomicLong(0);
+        slow = new TestChannel();
+        fast = new TestChannel();
+        channel = new LoadBalancingChannel(Arrays.asList(slow, fast), clock::get);
+    }
+
+    @Test
+    public void slowChannelReceivesLessCalls() {
+        for (int i = 0; i < 20; ++i) {
+            int slowCalls = slow.calls;
+            startCall();
+            TestChannel target = slow.calls > slowCalls ? slow : fast;
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(target == slow ? 100 : 10));
+            target.closeLast(Status.OK);
+        }
+
+        assertTrue("Slow channel calls: " + slow.calls, slow.calls <= 2);
+    }
+
+    @Test
+    public void callsAreSentToLeastLoadedChannel() {
+        for (int i = 0; i < 10; ++i) {
+            startCall();
+        }
+
+        assertEquals("Slow channel calls", 5, slow.calls);
+        assertEquals("Fast channel calls", 5, fast.calls);
+    }
+
+    @Test
+    public void unavailableChannelReceivesLessCalls() {
+        startCall();
+        TestChannel failed = slow.calls == 1 ? slow : fast;
+        TestChannel other = failed == slow ? fast : slow;
+        failed.closeLast(Status.UNAVAILABLE);
+
+        for (int i = 0; i < 10; ++i) {
+            startCall();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            other.closeLast(Status.OK);
+        }
+
+        assertEquals("Failed channel calls", 1, failed.calls);
+        assertEquals("Other channel calls", 10, other.calls);
+    }
+
+    @Test
+    public void recoveredChannelReceivesCallsAgain() {
+        startCall();
+        TestChannel failed = slow.calls == 1 ? slow : fast;
+        failed.closeLast(Status.UNAVAILABLE);
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(2));
+
+        for (int i = 0; i < 10; ++i) {
+            int failedCalls = failed.calls;
+            startCall();
+            TestChannel target = failed.calls > failedCalls ? failed : (failed == slow ? fast : slow);
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            target.closeLast(Status.OK);
+        }
+
+        assertTrue("Failed channel calls: " + failed.calls, failed.calls > 1);
+    }
+
+    @Test
+    public void latencyIsMeasuredTillResponseHeaders() {
+        startCall();
+        TestChannel streaming = slow.calls == 1 ? slow : fast;
+        TestChannel other = streaming == slow ? fast : slow;
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        streaming.headersLast();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        streaming.closeLast(Status.OK);
+
+        startCall();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        other.closeLast(Status.OK);
+        startCall();
+
+        assertEquals("Streaming channel calls", 2, streaming.calls);
+        assertEquals("Other channel calls", 1, other.calls);
+    }
+
+    private void startCall() {
+        ClientCall<Object, Object> call = channel.newCall(null, CallOptions.DEFAULT);
+        call.start(new ClientCall.Listener<Object>() {}, new Metadata());
+    }
+
+    private static class TestChannel extends Channel {
+
+        private final List<ClientCall.Listener<?>> listeners = new ArrayList<>();
+        private int calls = 0;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <ReqT,RespT> ClientCall<ReqT,RespT> newCall(
+                MethodDescriptor<ReqT,RespT> method,
+                CallOptions callOptions) {
+            ++calls;
+            ClientCall<ReqT,RespT> call = mock(ClientCall.class);
+            doAnswer(invocation -> listeners.add(invocation.getArgument(0)))
+                .when(call).start(any(), any());
+            return call;
+        }
+
+        @Override
+        public String authority() {
+            return "localhost";
+        }
+
+        private void headersLast() {
+            listeners.get(listeners.size() - 1).onHeaders(new Metadata());
+        }
+
+        private void closeLast(Status status) {
+            listeners.remove(listeners.size() - 1).onClose(status, new Metadata());
+        }
+
+    }
+
+}
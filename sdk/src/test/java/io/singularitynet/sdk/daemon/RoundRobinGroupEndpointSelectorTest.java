@@ -0,0 +1,69 @@
+package io.singularitynet.sdk.daemon;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import io.singularitynet.sdk.common.Utils;
+import io.singularitynet.sdk.registry.EndpointGroup;
+import io.singularitynet.sdk.registry.MetadataProvider;
+import io.singularitynet.sdk.registry.PaymentGroupId;
+import io.singularitynet.sdk.registry.ServiceMetadata;
+
+public class RoundRobinGroupEndpointSelectorTest {
+
+    private final List<URL> endpoints = Arrays.asList(
+            Utils.strToUrl("http://localhost:7001"),
+            Utils.strToUrl("http://localhost:7002"),
+            Utils.strToUrl("http://localhost:7003"));
+
+    private MetadataProvider metadataProvider;
+
+    @Before
+    public void setUp() {
+        EndpointGroup group = EndpointGroup.newBuilder()
+            .setGroupName("default_group")
+            .setEndpoints(endpoints)
+            .setPaymentGroupId(new PaymentGroupId("7G8/7SPnr5qLDdHOdqsRolu8wx1eQaAmzGwsnYUUI8c="))
+            .build();
+        metadataProvider = mock(MetadataProvider.class);
+        when(metadataProvider.getServiceMetadata()).thenReturn(ServiceMetadata.newBuilder()
+                .addEndpointGroup(group)
+                .build());
+    }
+
+    @Test
+    public void endpointsAreReturnedInTurn() {
+        RoundRobinGroupEndpointSelector selector =
+            new RoundRobinGroupEndpointSelector("default_group");
+
+        List<URL> selected = new ArrayList<>();
+        for (int i = 0; i < 2 * endpoints.size(); ++i) {
+            selected.add(selector.nextEndpoint(metadataProvider).getUrl());
+        }
+
+        assertEquals("Endpoints selected", new HashSet<>(endpoints),
+                new HashSet<>(selected.subList(0, endpoints.size())));
+        assertEquals("Endpoints selected after all are used",
+                selected.subList(0, endpoints.size()),
+                selected.subList(endpoints.size(), 2 * endpoints.size()));
+    }
+
+    @Test
+    public void endpointOfRequestedGroupIsReturned() {
+        RoundRobinGroupEndpointSelector selector =
+            new RoundRobinGroupEndpointSelector("default_group");
+
+        Endpoint endpoint = selector.nextEndpoint(metadataProvider);
+
+        assertEquals("Endpoint group", "default_group", endpoint.getGroup().getGroupName());
+        assertTrue("Endpoint url", endpoints.contains(endpoint.getUrl()));
+    }
+
+}
@@ -0,0 +1,91 @@
+package io.singularitynet.sdk.ethereum;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+
+public class BlockClockTest {
+
+    private Web3j web3j;
+
+    @Before
+    public void setUp() throws Exception {
+        web3j = mock(Web3j.class);
+        setBlockNumber(42);
+    }
+
+    @Test
+    public void blockNumberIsCachedUntilStale() throws Exception {
+        BlockClock clock = new BlockClock(web3j, 60_000);
+
+        assertEquals("Block number", BigInteger.valueOf(42), clock.getBlockNumber());
+        setBlockNumber(43);
+
+        assertEquals("Block number", BigInteger.valueOf(42), clock.getBlockNumber());
+        verify(web3j, times(1)).ethBlockNumber();
+    }
+
+    @Test
+    public void blockNumberIsRequestedEachTimeWithoutStaleness() throws Exception {
+        BlockClock clock = new BlockClock(web3j);
+
+        assertEquals("Block number", BigInteger.valueOf(42), clock.getBlockNumber());
+        setBlockNumber(43);
+
+        assertEquals("Block number", BigInteger.valueOf(43), clock.getBlockNumber());
+    }
+
+    @Test
+    public void blockNumberNeverGoesBack() throws Exception {
+        BlockClock clock = new BlockClock(web3j, 60_000);
+        clock.advance(BigInteger.valueOf(50));
+
+        assertEquals("Block number", BigInteger.valueOf(50), clock.refresh());
+        assertEquals("Block number", BigInteger.valueOf(50), clock.getBlockNumber());
+    }
+
+    @Test
+    public void lastUpdatedTimeIsReported() {
+        BlockClock clock = new BlockClock(web3j, 60_000);
+        assertEquals("Last updated time before first read", 0, clock.getLastUpdatedMillis());
+
+        long before = System.currentTimeMillis();
+        clock.getBlockNumber();
+
+        assertTrue("Last updated time after first read",
+                clock.getLastUpdatedMillis() >= before);
+    }
+
+    @Test
+    public void listenersAreNotifiedOnNewBlockOnly() {
+        BlockClock clock = new BlockClock(web3j, 60_000);
+        List<BigInteger> blocks = new ArrayList<>();
+        clock.addListener(blocks::add);
+
+        clock.advance(BigInteger.valueOf(50));
+        clock.advance(BigInteger.valueOf(50));
+        clock.advance(BigInteger.valueOf(49));
+        clock.advance(BigInteger.valueOf(51));
+
+        assertEquals("Blocks notified", Arrays.asList(BigInteger.valueOf(50),
+                    BigInteger.valueOf(51)), blocks);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setBlockNumber(long blockNumber) throws Exception {
+        EthBlockNumber ethBlockNumber = mock(EthBlockNumber.class);
+        when(ethBlockNumber.getBlockNumber()).thenReturn(BigInteger.valueOf(blockNumber));
+        Request request = mock(Request.class);
+        when(request.send()).thenReturn(ethBlockNumber);
+        when(web3j.ethBlockNumber()).thenReturn(request);
+    }
+
+}
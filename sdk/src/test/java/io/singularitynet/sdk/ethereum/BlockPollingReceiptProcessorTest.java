@@ -0,0 +1,122 @@
+package io.singularitynet.sdk.ethereum;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionException;
+
+public class BlockPollingReceiptProcessorTest {
+
+    private static final String TX_HASH = "0x01";
+    private static final String OTHER_TX_HASH = "0x02";
+
+    private Web3j web3j;
+    private BlockClock blockClock;
+    private AtomicLong blockNumber;
+    private BlockPollingReceiptProcessor processor;
+    private Thread miner;
+
+    @Before
+    public void setUp() {
+        web3j = mock(Web3j.class);
+        blockClock = new BlockClock(web3j, 60_000);
+        blockNumber = new AtomicLong(10);
+        blockClock.advance(BigInteger.valueOf(blockNumber.get()));
+        processor = new BlockPollingReceiptProcessor(web3j, 1000);
+        processor.start(blockClock, Runnable::run);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        processor.close();
+        if (miner != null) {
+            miner.interrupt();
+            miner.join();
+        }
+    }
+
+    @Test
+    public void receiptIsRequestedOnNewBlock() throws Exception {
+        TransactionReceipt receipt = new TransactionReceipt();
+        setReceiptResponses(TX_HASH, Optional.empty(), Optional.of(receipt));
+        startMiner();
+
+        assertSame("Receipt", receipt, processor.waitForTransactionReceipt(TX_HASH));
+        verify(web3j, atLeast(2)).ethGetTransactionReceipt(TX_HASH);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void errorOfOneTransactionDoesNotBlockOthers() throws Exception {
+        Request failed = mock(Request.class);
+        when(failed.send()).thenThrow(new IOException("test error"));
+        when(web3j.ethGetTransactionReceipt(TX_HASH)).thenReturn(failed);
+        TransactionReceipt receipt = new TransactionReceipt();
+        setReceiptResponses(OTHER_TX_HASH, Optional.of(receipt), Optional.of(receipt));
+        Thread waiter = new Thread(() -> {
+            try {
+                processor.waitForTransactionReceipt(TX_HASH);
+            } catch (IOException | TransactionException e) {
+                // expected when test is finished
+            }
+        });
+        waiter.start();
+        startMiner();
+
+        assertSame("Receipt", receipt, processor.waitForTransactionReceipt(OTHER_TX_HASH));
+        processor.close();
+        waiter.join();
+    }
+
+    @Test(expected = TransactionException.class)
+    public void exceptionIsThrownOnTimeout() throws Exception {
+        setReceiptResponses(TX_HASH, Optional.empty(), Optional.empty());
+        startMiner();
+
+        processor.waitForTransactionReceipt(TX_HASH);
+    }
+
+    @Test(expected = IOException.class)
+    public void exceptionIsThrownAfterClose() throws Exception {
+        processor.close();
+
+        processor.waitForTransactionReceipt(TX_HASH);
+    }
+
+    private void startMiner() {
+        miner = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                blockClock.advance(BigInteger.valueOf(blockNumber.incrementAndGet()));
+            }
+        });
+        miner.start();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setReceiptResponses(String transactionHash,
+            Optional<TransactionReceipt> first,
+            Optional<TransactionReceipt> second) throws Exception {
+        EthGetTransactionReceipt firstResponse = mock(EthGetTransactionReceipt.class);
+        when(firstResponse.getTransactionReceipt()).thenReturn(first);
+        EthGetTransactionReceipt secondResponse = mock(EthGetTransactionReceipt.class);
+        when(secondResponse.getTransactionReceipt()).thenReturn(second);
+        Request request = mock(Request.class);
+        when(request.send()).thenReturn(firstResponse, secondResponse);
+        when(web3j.ethGetTransactionReceipt(transactionHash)).thenReturn(request);
+    }
+
+}
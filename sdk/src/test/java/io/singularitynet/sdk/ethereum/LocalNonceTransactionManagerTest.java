@@ -0,0 +1,128 @@
+package io.singularitynet.sdk.ethereum;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.mockito.ArgumentCaptor;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.TransactionDecoder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+
+public class LocalNonceTransactionManagerTest {
+
+    private final Credentials credentials = Credentials.create(
+            "0x4c0883a69102937d6231471b5dbb6204fe5129617082792ae468d01a3f362318");
+
+    private Web3j web3j;
+    private LocalNonceTransactionManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        web3j = mock(Web3j.class);
+        setTransactionCount(5);
+        setSendResult(false);
+        manager = new LocalNonceTransactionManager(web3j, credentials);
+    }
+
+    @Test
+    public void nonceIsAssignedLocally() throws Exception {
+        sendTransaction();
+        sendTransaction();
+
+        assertEquals("Current nonce", BigInteger.valueOf(6), manager.getCurrentNonce());
+        verify(web3j, times(1)).ethGetTransactionCount(anyString(),
+                any(DefaultBlockParameter.class));
+    }
+
+    @Test
+    public void nonceIsRequestedFromNodeAfterError() throws Exception {
+        setSendResult(true);
+        sendTransaction();
+
+        setSendResult(false);
+        sendTransaction();
+
+        assertEquals("Current nonce", BigInteger.valueOf(5), manager.getCurrentNonce());
+        verify(web3j, times(2)).ethGetTransactionCount(anyString(),
+                any(DefaultBlockParameter.class));
+    }
+
+    @Test
+    public void transactionsSentConcurrentlyGetDifferentNonces() throws Exception {
+        int threads = 4;
+        int transactionsPerThread = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < transactionsPerThread; ++j) {
+                        sendTransaction();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ArgumentCaptor<String> transactions = ArgumentCaptor.forClass(String.class);
+        verify(web3j, times(threads * transactionsPerThread))
+            .ethSendRawTransaction(transactions.capture());
+        Set<BigInteger> nonces = transactions.getAllValues().stream()
+            .map(tx -> TransactionDecoder.decode(tx).getNonce())
+            .collect(Collectors.toSet());
+        Set<BigInteger> expected = LongStream.range(5, 5 + threads * transactionsPerThread)
+            .mapToObj(BigInteger::valueOf)
+            .collect(Collectors.toSet());
+        assertEquals("Nonces of transactions", expected, nonces);
+        verify(web3j, times(1)).ethGetTransactionCount(anyString(),
+                any(DefaultBlockParameter.class));
+    }
+
+    private void sendTransaction() throws Exception {
+        manager.sendTransaction(BigInteger.ONE, BigInteger.TEN,
+                "0x0000000000000000000000000000000000000001", "", BigInteger.ZERO);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setTransactionCount(long count) throws Exception {
+        EthGetTransactionCount transactionCount = mock(EthGetTransactionCount.class);
+        when(transactionCount.getTransactionCount()).thenReturn(BigInteger.valueOf(count));
+        Request request = mock(Request.class);
+        when(request.send()).thenReturn(transactionCount);
+        when(web3j.ethGetTransactionCount(anyString(), any(DefaultBlockParameter.class)))
+            .thenReturn(request);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setSendResult(boolean error) throws Exception {
+        EthSendTransaction response = mock(EthSendTransaction.class);
+        when(response.hasError()).thenReturn(error);
+        if (error) {
+            when(response.getError()).thenReturn(new Response.Error(-32000, "nonce too low"));
+        }
+        Request request = mock(Request.class);
+        when(request.send()).thenReturn(response);
+        when(web3j.ethSendRawTransaction(anyString())).thenReturn(request);
+    }
+
+}
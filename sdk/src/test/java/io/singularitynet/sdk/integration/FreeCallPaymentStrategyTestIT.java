@@ -4,6 +4,7 @@ import org.junit.*;
 import static org.junit.Assert.*;
 import org.junit.rules.ExpectedException;
 
+import io.grpc.StatusRuntimeException;
 import java.math.BigInteger;
 import java.util.Random;
 
@@ -30,7 +31,7 @@ public class FreeCallPaymentStrategyTestIT extends AbstractIntegrationTest {
 
     @Test
     public void freeCallRejectedWhenNotConfigured() {
-        thrown.expect(IllegalStateException.class);
+        thrown.expect(StatusRuntimeException.class);
         thrown.expectMessage("No payment returned by PaymentStrategy");
 
         FreeCallPaymentStrategy strategy = getFreeCallPaymentStrategy(sdk);
@@ -0,0 +1,112 @@
+package io.singularitynet.sdk.mpe;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigInteger;
+
+import io.singularitynet.sdk.ethereum.Address;
+import io.singularitynet.sdk.ethereum.Identity;
+import io.singularitynet.sdk.ethereum.Signature;
+import io.singularitynet.sdk.registry.PaymentGroupId;
+import io.singularitynet.sdk.test.Environment;
+
+public class CachingPaymentChannelStateProviderTest {
+
+    private final BigInteger channelId = BigInteger.valueOf(42);
+    private final PaymentGroupId groupId = new PaymentGroupId(Environment.randomUint256());
+    private final Address signerAddress = Environment.randomAddress();
+    private final Identity requestor = mock(Identity.class);
+
+    private PaymentChannelStateProvider delegate;
+    private CachingPaymentChannelStateProvider provider;
+
+    @Before
+    public void setUp() {
+        delegate = mock(PaymentChannelStateProvider.class);
+        when(delegate.getChannelStateById(channelId, requestor))
+            .thenReturn(newChannel(3, 100, 10));
+        provider = new CachingPaymentChannelStateProvider(delegate);
+    }
+
+    @Test
+    public void channelStateIsRequestedOnce() {
+        PaymentChannel channel;
+
+        channel = provider.getChannelStateById(channelId, requestor);
+        assertEquals("Channel state", newChannel(3, 100, 10), channel);
+
+        channel = provider.getChannelStateById(channelId, requestor);
+        assertEquals("Channel state", newChannel(3, 100, 10), channel);
+        verify(delegate, times(1)).getChannelStateById(channelId, requestor);
+    }
+
+    @Test
+    public void acceptedPaymentIncreasesSpentAmount() {
+        provider.getChannelStateById(channelId, requestor);
+
+        provider.paymentAccepted(newPayment(3, 11));
+        PaymentChannel channel = provider.getChannelStateById(channelId, requestor);
+
+        assertEquals("Channel state", newChannel(3, 100, 11), channel);
+        verify(delegate, times(1)).getChannelStateById(channelId, requestor);
+    }
+
+    @Test
+    public void outdatedAcceptedPaymentIsIgnored() {
+        provider.getChannelStateById(channelId, requestor);
+        provider.paymentAccepted(newPayment(3, 12));
+
+        provider.paymentAccepted(newPayment(3, 11));
+        PaymentChannel channel = provider.getChannelStateById(channelId, requestor);
+
+        assertEquals("Channel state", newChannel(3, 100, 12), channel);
+    }
+
+    @Test
+    public void rejectedPaymentTriggersSync() {
+        provider.getChannelStateById(channelId, requestor);
+
+        provider.paymentRejected(newPayment(3, 11));
+        provider.getChannelStateById(channelId, requestor);
+
+        verify(delegate, times(2)).getChannelStateById(channelId, requestor);
+    }
+
+    @Test
+    public void nonceChangeTriggersSync() {
+        provider.getChannelStateById(channelId, requestor);
+
+        provider.paymentAccepted(newPayment(4, 1));
+        provider.getChannelStateById(channelId, requestor);
+
+        verify(delegate, times(2)).getChannelStateById(channelId, requestor);
+    }
+
+    @Test
+    public void channelUpdateKeepsSpentAmount() {
+        provider.getChannelStateById(channelId, requestor);
+        provider.paymentAccepted(newPayment(3, 11));
+
+        provider.channelStateUpdated(newChannel(3, 200, 10));
+        PaymentChannel channel = provider.getChannelStateById(channelId, requestor);
+
+        assertEquals("Channel state", newChannel(3, 200, 11), channel);
+        verify(delegate, times(1)).getChannelStateById(channelId, requestor);
+    }
+
+    private PaymentChannel newChannel(long nonce, long value, long spentAmount) {
+        return Environment.newPaymentChannel(channelId.longValue(), groupId, signerAddress)
+            .setNonce(BigInteger.valueOf(nonce))
+            .setValue(BigInteger.valueOf(value))
+            .setSpentAmount(BigInteger.valueOf(spentAmount))
+            .build();
+    }
+
+    private EscrowPayment newPayment(long nonce, long amount) {
+        return new EscrowPayment(channelId, BigInteger.valueOf(nonce),
+                BigInteger.valueOf(amount), mock(Signature.class));
+    }
+
+}
@@ -0,0 +1,167 @@
+package io.singularitynet.sdk.mpe;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.mockito.stubbing.OngoingStubbing;
+
+import io.singularitynet.sdk.ethereum.Address;
+import io.singularitynet.sdk.ethereum.BlockClock;
+import io.singularitynet.sdk.ethereum.WithAddress;
+import io.singularitynet.sdk.registry.PaymentGroupId;
+import io.singularitynet.sdk.test.Environment;
+
+public class ChannelOpenEventIndexerTest {
+
+    private final Address mpeAddress = Environment.randomAddress();
+    private final PaymentGroupId groupId = new PaymentGroupId(Environment.randomUint256());
+    private final Address caller = Environment.randomAddress();
+    private final WithAddress identity = () -> caller;
+
+    private MultiPartyEscrowContract mpe;
+    private BlockClock blockClock;
+    private InMemoryStorage storage;
+
+    @Before
+    public void setUp() {
+        mpe = mock(MultiPartyEscrowContract.class);
+        when(mpe.getContractAddress()).thenReturn(mpeAddress);
+        blockClock = mock(BlockClock.class);
+        storage = new InMemoryStorage();
+    }
+
+    @Test
+    public void onlyNewBlocksAreRequested() {
+        PaymentChannel first = newChannel(1, caller, Environment.randomAddress());
+        PaymentChannel second = newChannel(2, Environment.randomAddress(), caller);
+        when(blockClock.getBlockNumber()).thenReturn(BigInteger.valueOf(100));
+        whenGroupQuery(0, 100).thenReturn(Stream.of(first));
+        ChannelOpenEventIndexer indexer = new ChannelOpenEventIndexer(mpe, blockClock, storage);
+
+        assertEquals("Channels after first update", Arrays.asList(first),
+                indexer.getChannelsAccessibleBy(groupId, identity));
+
+        when(blockClock.getBlockNumber()).thenReturn(BigInteger.valueOf(115));
+        whenGroupQuery(89, 115).thenReturn(Stream.of(second));
+
+        assertEquals("Channels after second update", Arrays.asList(first, second),
+                indexer.getChannelsAccessibleBy(groupId, identity));
+        verify(mpe, times(2)).getChannelOpenEvents(any(BigInteger.class),
+                any(BigInteger.class), any(), any(), any());
+    }
+
+    @Test
+    public void lastBlocksAreScannedAgain() {
+        PaymentChannel channel = newChannel(1, caller, caller);
+        when(blockClock.getBlockNumber()).thenReturn(BigInteger.valueOf(100));
+        // node returns logs lagging behind its block number
+        whenGroupQuery(0, 100).thenReturn(Stream.empty());
+        ChannelOpenEventIndexer indexer = new ChannelOpenEventIndexer(mpe, blockClock, storage);
+        indexer.getChannelsAccessibleBy(groupId, identity);
+
+        when(blockClock.getBlockNumber()).thenReturn(BigInteger.valueOf(101));
+        whenGroupQuery(89, 101).thenReturn(Stream.of(channel));
+
+        assertEquals("Channels after rescan", Arrays.asList(channel),
+                indexer.getChannelsAccessibleBy(groupId, identity));
+    }
+
+    @Test
+    public void checkpointIsNotSavedWhenNoChannelsFound() {
+        PaymentChannel channel = newChannel(1, caller, caller);
+        when(blockClock.getBlockNumber()).thenReturn(BigInteger.valueOf(100));
+        whenGroupQuery(0, 100).thenReturn(Stream.of(channel));
+        ChannelOpenEventIndexer indexer = new ChannelOpenEventIndexer(mpe, blockClock, storage);
+        indexer.getChannelsAccessibleBy(groupId, identity);
+
+        when(blockClock.getBlockNumber()).thenReturn(BigInteger.valueOf(101));
+        whenGroupQuery(89, 101).thenReturn(Stream.of(channel));
+        indexer.update();
+
+        assertEquals("Checkpoint saves", 1, storage.saves);
+    }
+
+    @Test
+    public void eventsAreFilteredByNodeUsingIndexedFields() {
+        when(blockClock.getBlockNumber()).thenReturn(BigInteger.valueOf(10));
+        whenGroupQuery(0, 10).thenReturn(Stream.empty());
+        ChannelOpenEventIndexer indexer = new ChannelOpenEventIndexer(mpe, blockClock, storage);
+
+        indexer.getChannelsAccessibleBy(groupId, identity);
+
+        verify(mpe, times(1)).getChannelOpenEvents(any(BigInteger.class),
+                any(BigInteger.class), any(), any(), any());
+        verify(mpe).getChannelOpenEvents(BigInteger.ZERO, BigInteger.valueOf(10),
+                Optional.empty(), Optional.empty(), Optional.of(groupId));
+        verify(mpe, never()).getChannelOpenEvents(any(BigInteger.class), any(BigInteger.class));
+    }
+
+    @Test
+    public void groupQueryIsFilteredBySenderAndSigner() {
+        PaymentChannel sender = newChannel(1, caller, caller);
+        PaymentChannel signer = newChannel(2, Environment.randomAddress(), caller);
+        PaymentChannel anotherIdentity = newChannel(3, Environment.randomAddress(),
+                Environment.randomAddress());
+        when(blockClock.getBlockNumber()).thenReturn(BigInteger.valueOf(10));
+        whenGroupQuery(0, 10).thenReturn(Stream.of(sender, signer, anotherIdentity));
+        ChannelOpenEventIndexer indexer = new ChannelOpenEventIndexer(mpe, blockClock, storage);
+
+        List<PaymentChannel> channels = indexer.getChannelsAccessibleBy(groupId, identity);
+
+        assertEquals("Channels", Arrays.asList(sender, signer), channels);
+    }
+
+    @Test
+    public void indexIsRestoredFromCheckpoint() {
+        PaymentChannel channel = newChannel(1, caller, caller);
+        when(blockClock.getBlockNumber()).thenReturn(BigInteger.valueOf(10));
+        whenGroupQuery(0, 10).thenReturn(Stream.of(channel));
+        new ChannelOpenEventIndexer(mpe, blockClock, storage)
+            .getChannelsAccessibleBy(groupId, identity);
+
+        ChannelOpenEventIndexer restarted = new ChannelOpenEventIndexer(mpe, blockClock, storage);
+
+        assertEquals("Channels after restart", Arrays.asList(channel),
+                restarted.getChannelsAccessibleBy(groupId, identity));
+        verify(mpe, times(1)).getChannelOpenEvents(any(BigInteger.class),
+                any(BigInteger.class), any(), any(), any());
+    }
+
+    private OngoingStubbing<Stream<PaymentChannel>> whenGroupQuery(long from, long to) {
+        return when(mpe.getChannelOpenEvents(BigInteger.valueOf(from),
+                    BigInteger.valueOf(to), Optional.empty(), Optional.empty(),
+                    Optional.of(groupId)));
+    }
+
+    private PaymentChannel newChannel(long channelId, Address sender, Address signer) {
+        return Environment.newPaymentChannel(channelId, groupId, signer)
+            .setMpeContractAddress(mpeAddress)
+            .setSender(sender)
+            .build();
+    }
+
+    private static class InMemoryStorage implements CheckpointStorage {
+
+        private Optional<byte[]> checkpoint = Optional.empty();
+        private int saves = 0;
+
+        @Override
+        public Optional<byte[]> load() {
+            return checkpoint;
+        }
+
+        @Override
+        public void save(byte[] checkpoint) {
+            this.checkpoint = Optional.of(checkpoint);
+            ++saves;
+        }
+
+    }
+
+}
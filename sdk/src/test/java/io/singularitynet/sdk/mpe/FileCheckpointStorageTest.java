@@ -0,0 +1,38 @@
+package io.singularitynet.sdk.mpe;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Optional;
+
+import io.singularitynet.sdk.common.Utils;
+
+public class FileCheckpointStorageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void noCheckpointIsLoadedWhenFileIsMissing() {
+        FileCheckpointStorage storage = new FileCheckpointStorage(
+                new File(folder.getRoot(), "checkpoint"));
+
+        assertEquals("Checkpoint", Optional.empty(), storage.load());
+    }
+
+    @Test
+    public void savedCheckpointReplacesPreviousOne() {
+        File file = new File(folder.getRoot(), "dir/checkpoint");
+        FileCheckpointStorage storage = new FileCheckpointStorage(file);
+
+        storage.save(Utils.strToBytes("first"));
+        storage.save(Utils.strToBytes("second"));
+
+        assertEquals("Checkpoint", "second", Utils.bytesToStr(storage.load().get()));
+        assertArrayEquals("Files in directory", new String[] { "checkpoint" },
+                file.getParentFile().list());
+    }
+
+}
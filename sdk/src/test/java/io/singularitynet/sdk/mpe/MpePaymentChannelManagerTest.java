@@ -0,0 +1,103 @@
+package io.singularitynet.sdk.mpe;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import io.singularitynet.sdk.ethereum.Address;
+import io.singularitynet.sdk.ethereum.WithAddress;
+import io.singularitynet.sdk.registry.PaymentGroupId;
+import io.singularitynet.sdk.test.Environment;
+
+public class MpePaymentChannelManagerTest {
+
+    private final Address mpeAddress = Environment.randomAddress();
+    private final PaymentGroupId groupId = new PaymentGroupId(Environment.randomUint256());
+    private final Address caller = Environment.randomAddress();
+    private final WithAddress identity = () -> caller;
+
+    private MultiPartyEscrowContract mpe;
+    private ChannelOpenEventIndexer indexer;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        mpe = mock(MultiPartyEscrowContract.class);
+        indexer = mock(ChannelOpenEventIndexer.class);
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void channelStatesAreRequestedInParallel() {
+        List<PaymentChannel> opened = Arrays.asList(newChannel(1), newChannel(2), newChannel(3));
+        when(indexer.getChannelsAccessibleBy(groupId, identity)).thenReturn(opened);
+        CountDownLatch allRequested = new CountDownLatch(opened.size());
+        AtomicBoolean parallel = new AtomicBoolean(true);
+        for (PaymentChannel channel : opened) {
+            when(mpe.getChannelById(channel.getChannelId())).thenAnswer(invocation -> {
+                allRequested.countDown();
+                if (!allRequested.await(5, TimeUnit.SECONDS)) {
+                    parallel.set(false);
+                }
+                return Optional.of(channel.toBuilder().setValue(BigInteger.TEN).build());
+            });
+        }
+        MpePaymentChannelManager manager = new MpePaymentChannelManager(mpe, indexer, executor);
+
+        List<BigInteger> ids = manager.getChannelsAccessibleBy(groupId, identity)
+            .map(PaymentChannel::getChannelId)
+            .collect(Collectors.toList());
+
+        assertTrue("Channel states are requested in parallel", parallel.get());
+        assertEquals("Channel ids", Arrays.asList(BigInteger.valueOf(1),
+                    BigInteger.valueOf(2), BigInteger.valueOf(3)), ids);
+    }
+
+    @Test
+    public void numberOfParallelRequestsIsLimited() {
+        List<PaymentChannel> opened = Arrays.asList(newChannel(1), newChannel(2),
+                newChannel(3), newChannel(4), newChannel(5));
+        when(indexer.getChannelsAccessibleBy(groupId, identity)).thenReturn(opened);
+        AtomicInteger inProgress = new AtomicInteger(0);
+        AtomicInteger maxInProgress = new AtomicInteger(0);
+        for (PaymentChannel channel : opened) {
+            when(mpe.getChannelById(channel.getChannelId())).thenAnswer(invocation -> {
+                maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                inProgress.decrementAndGet();
+                return Optional.of(channel);
+            });
+        }
+        MpePaymentChannelManager manager = new MpePaymentChannelManager(mpe, indexer, executor, 2);
+
+        int received = manager.getChannelsAccessibleBy(groupId, identity)
+            .collect(Collectors.toList()).size();
+
+        assertEquals("Channels received", 5, received);
+        assertTrue("Requests in progress: " + maxInProgress.get(), maxInProgress.get() <= 2);
+    }
+
+    private PaymentChannel newChannel(long channelId) {
+        return Environment.newPaymentChannel(channelId, groupId, caller)
+            .setMpeContractAddress(mpeAddress)
+            .build();
+    }
+
+}
@@ -0,0 +1,159 @@
+package io.singularitynet.sdk.mpe;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.singularitynet.sdk.ethereum.Address;
+import io.singularitynet.sdk.ethereum.Signature;
+import io.singularitynet.sdk.registry.PaymentGroupId;
+import io.singularitynet.sdk.test.Environment;
+
+public class PaymentChannelAmountAllocatorTest {
+
+    private final Address mpeAddress = Environment.randomAddress();
+    private final BigInteger channelId = BigInteger.valueOf(42);
+    private final PaymentGroupId groupId = new PaymentGroupId(Environment.randomUint256());
+    private final Address signerAddress = Environment.randomAddress();
+    private final BigInteger price = BigInteger.valueOf(2);
+
+    private PaymentChannelAmountAllocator allocator;
+
+    @Before
+    public void setUp() {
+        allocator = new PaymentChannelAmountAllocator();
+    }
+
+    @Test
+    public void amountsAreIncreasedForStaleChannelState() {
+        PaymentChannel channel = newChannel(3, 10);
+
+        assertEquals("First amount", BigInteger.valueOf(12), allocator.allocate(channel, price));
+        assertEquals("Second amount", BigInteger.valueOf(14), allocator.allocate(channel, price));
+    }
+
+    @Test
+    public void greaterSpentAmountIsUsed() {
+        allocator.allocate(newChannel(3, 10), price);
+
+        assertEquals("Amount", BigInteger.valueOf(22),
+                allocator.allocate(newChannel(3, 20), price));
+    }
+
+    @Test
+    public void allocationIsResetOnNonceChange() {
+        allocator.allocate(newChannel(3, 10), price);
+
+        assertEquals("Amount", BigInteger.valueOf(2),
+                allocator.allocate(newChannel(4, 0), price));
+    }
+
+    @Test
+    public void allocationIsResetOnRejectedPayment() {
+        PaymentChannel channel = newChannel(3, 10);
+        BigInteger amount = allocator.allocate(channel, price);
+
+        allocator.reset(mpeAddress, newPayment(3, amount));
+
+        assertEquals("Amount", BigInteger.valueOf(12), allocator.allocate(channel, price));
+    }
+
+    @Test
+    public void allocationIsNotResetByPaymentWithOutdatedNonce() {
+        allocator.allocate(newChannel(4, 10), price);
+
+        allocator.reset(mpeAddress, newPayment(3, BigInteger.valueOf(12)));
+
+        assertEquals("Amount", BigInteger.valueOf(14),
+                allocator.allocate(newChannel(4, 10), price));
+    }
+
+    @Test
+    public void amountAboveLimitIsNotAllocated() {
+        PaymentChannel channel = newChannel(3, 10);
+
+        assertEquals("First amount", Optional.of(BigInteger.valueOf(12)),
+                allocator.tryAllocate(channel, price, BigInteger.valueOf(13)));
+        assertEquals("Second amount", Optional.empty(),
+                allocator.tryAllocate(channel, price, BigInteger.valueOf(13)));
+        assertEquals("Allocated amount", BigInteger.valueOf(12),
+                allocator.getAllocatedAmount(channel));
+    }
+
+    @Test
+    public void allocationIsRolledBackOnFailedCall() {
+        PaymentChannel channel = newChannel(3, 10);
+        BigInteger amount = allocator.allocate(channel, price);
+
+        allocator.release(mpeAddress, newPayment(3, amount));
+
+        assertEquals("Amount", BigInteger.valueOf(12), allocator.allocate(channel, price));
+    }
+
+    @Test
+    public void allocationIsNotRolledBackWhenNextAmountIsAllocated() {
+        PaymentChannel channel = newChannel(3, 10);
+        BigInteger amount = allocator.allocate(channel, price);
+        allocator.allocate(channel, price);
+
+        allocator.release(mpeAddress, newPayment(3, amount));
+
+        assertEquals("Amount", BigInteger.valueOf(16), allocator.allocate(channel, price));
+    }
+
+    @Test
+    public void concurrentAllocationsAreUnique() throws Exception {
+        PaymentChannel channel = newChannel(3, 0);
+        int threads = 8;
+        int allocationsPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<BigInteger>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                Callable<List<BigInteger>> task = () -> {
+                    List<BigInteger> amounts = new ArrayList<>();
+                    for (int j = 0; j < allocationsPerThread; ++j) {
+                        amounts.add(allocator.allocate(channel, price));
+                    }
+                    return amounts;
+                };
+                futures.add(executor.submit(task));
+            }
+            Set<BigInteger> amounts = new HashSet<>();
+            for (Future<List<BigInteger>> future : futures) {
+                amounts.addAll(future.get());
+            }
+
+            assertEquals("Number of unique amounts", threads * allocationsPerThread,
+                    amounts.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PaymentChannel newChannel(long nonce, long spentAmount) {
+        return Environment.newPaymentChannel(channelId.longValue(), groupId, signerAddress)
+            .setMpeContractAddress(mpeAddress)
+            .setNonce(BigInteger.valueOf(nonce))
+            .setValue(BigInteger.valueOf(100000))
+            .setSpentAmount(BigInteger.valueOf(spentAmount))
+            .build();
+    }
+
+    private EscrowPayment newPayment(long nonce, BigInteger amount) {
+        return new EscrowPayment(channelId, BigInteger.valueOf(nonce), amount,
+                mock(Signature.class));
+    }
+
+}
@@ -0,0 +1,170 @@
+package io.singularitynet.sdk.paymentstrategy;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.singularitynet.sdk.client.ServiceClient;
+import io.singularitynet.sdk.ethereum.Address;
+import io.singularitynet.sdk.ethereum.Identity;
+import io.singularitynet.sdk.ethereum.WithAddress;
+import io.singularitynet.sdk.mpe.BlockchainPaymentChannelManager;
+import io.singularitynet.sdk.mpe.EscrowPayment;
+import io.singularitynet.sdk.mpe.PaymentChannel;
+import io.singularitynet.sdk.mpe.PaymentChannelStateProvider;
+import io.singularitynet.sdk.registry.PaymentGroupId;
+import io.singularitynet.sdk.test.Environment;
+
+public class OnDemandPaymentChannelPaymentStrategyTest {
+
+    private final PaymentGroupId groupId = new PaymentGroupId(Environment.randomUint256());
+    private final Address signerAddress = Environment.randomAddress();
+    private final Address mpeAddress = Environment.randomAddress();
+
+    private final Map<BigInteger, PaymentChannel> channels = new HashMap<>();
+
+    private ServiceClient serviceClient;
+    private BlockchainPaymentChannelManager channelManager;
+    private Identity signer;
+
+    @Before
+    public void setUp() {
+        signer = mock(Identity.class);
+        when(signer.getAddress()).thenReturn(signerAddress);
+
+        serviceClient = Environment.newServiceClientMock(signer, groupId);
+
+        channelManager = serviceClient.getSdk().getBlockchainPaymentChannelManager();
+        when(channelManager.getChannelsAccessibleBy(eq(groupId), any(WithAddress.class)))
+            .thenAnswer(invocation -> channels.values().stream());
+
+        PaymentChannelStateProvider stateProvider = serviceClient.getPaymentChannelStateProvider();
+        when(stateProvider.getChannelStateById(any(BigInteger.class), eq(signer)))
+            .thenAnswer(invocation -> channels.get(invocation.getArgument(0)));
+    }
+
+    @Test
+    public void lastChannelIsUsedWithoutRescan() {
+        addChannel(newChannel(1, 10, 1000));
+        OnDemandPaymentChannelPaymentStrategy strategy =
+            new OnDemandPaymentChannelPaymentStrategy(100, 10);
+
+        strategy.selectChannel(serviceClient);
+        PaymentChannel channel = strategy.selectChannel(serviceClient);
+
+        assertEquals("Channel id", BigInteger.valueOf(1), channel.getChannelId());
+        verify(channelManager, times(1)).getChannelsAccessibleBy(eq(groupId),
+                any(WithAddress.class));
+    }
+
+    @Test
+    public void channelsAreRescannedWhenLastChannelIsExhausted() {
+        addChannel(newChannel(1, 10, 1000));
+        OnDemandPaymentChannelPaymentStrategy strategy =
+            new OnDemandPaymentChannelPaymentStrategy(100, 10);
+        strategy.selectChannel(serviceClient);
+        addChannel(newChannel(1, 0, 1000));
+        addChannel(newChannel(2, 10, 1000));
+
+        PaymentChannel channel = strategy.selectChannel(serviceClient);
+
+        assertEquals("Channel id", BigInteger.valueOf(2), channel.getChannelId());
+        verify(channelManager, times(2)).getChannelsAccessibleBy(eq(groupId),
+                any(WithAddress.class));
+    }
+
+    @Test
+    public void usableChannelIsPreferredOverUpdate() {
+        addChannel(newChannel(1, 0, 1000));
+        addChannel(newChannel(2, 10, 1000));
+        OnDemandPaymentChannelPaymentStrategy strategy =
+            new OnDemandPaymentChannelPaymentStrategy(100, 10);
+
+        PaymentChannel channel = strategy.selectChannel(serviceClient);
+
+        assertEquals("Channel id", BigInteger.valueOf(2), channel.getChannelId());
+        verify(channelManager, never()).addFundsToChannelAsync(any(PaymentChannel.class),
+                any(BigInteger.class));
+    }
+
+    @Test
+    public void amountAllocatedForCallsInFlightIsNotAvailable() {
+        PaymentChannel allocated = newChannel(1, 1, 1000);
+        addChannel(allocated);
+        addChannel(newChannel(2, 10, 1000));
+        serviceClient.getSdk().getPaymentChannelAmountAllocator()
+            .allocate(allocated, BigInteger.ONE);
+        OnDemandPaymentChannelPaymentStrategy strategy =
+            new OnDemandPaymentChannelPaymentStrategy(100, 10);
+
+        PaymentChannel channel = strategy.selectChannel(serviceClient);
+
+        assertEquals("Channel id", BigInteger.valueOf(2), channel.getChannelId());
+    }
+
+    @Test
+    public void channelIsSelectedAgainWhenBalanceIsTakenConcurrently() {
+        PaymentChannel taken = newChannel(1, 1, 1000);
+        addChannel(taken);
+        addChannel(newChannel(2, 10, 1000));
+        PaymentChannelMaintainer maintainer = mock(PaymentChannelMaintainer.class);
+        // concurrent call takes the balance after channel is selected
+        doAnswer(invocation -> serviceClient.getSdk().getPaymentChannelAmountAllocator()
+                .allocate(taken, BigInteger.ONE))
+            .doNothing()
+            .when(maintainer).watch(eq(serviceClient), any(PaymentChannel.class));
+        OnDemandPaymentChannelPaymentStrategy strategy =
+            new OnDemandPaymentChannelPaymentStrategy(100, 10, maintainer);
+
+        EscrowPayment payment = (EscrowPayment) strategy.getPayment(null, serviceClient);
+
+        assertEquals("Channel id", BigInteger.valueOf(2), payment.getChannelId());
+        assertEquals("Allocated amount", BigInteger.ONE, serviceClient.getSdk()
+                .getPaymentChannelAmountAllocator().getAllocatedAmount(taken));
+    }
+
+    @Test
+    public void updatedChannelStateIsReportedOnce() {
+        PaymentChannel exhausted = newChannel(1, 0, 1000);
+        PaymentChannel funded = newChannel(1, 10, 1000);
+        addChannel(exhausted);
+        when(channelManager.addFundsToChannelAsync(exhausted, BigInteger.valueOf(10)))
+            .thenReturn(CompletableFuture.completedFuture(funded));
+        OnDemandPaymentChannelPaymentStrategy strategy =
+            new OnDemandPaymentChannelPaymentStrategy(100, 10);
+
+        strategy.selectChannel(serviceClient);
+
+        verify(serviceClient.getPaymentChannelStateProvider(), times(1))
+            .channelStateUpdated(funded);
+    }
+
+    @Test
+    public void maintainerStopsWatchingClosedClient() {
+        PaymentChannelMaintainer maintainer = mock(PaymentChannelMaintainer.class);
+        OnDemandPaymentChannelPaymentStrategy strategy =
+            new OnDemandPaymentChannelPaymentStrategy(100, 10, maintainer);
+
+        strategy.release(serviceClient);
+
+        verify(maintainer).unwatch(serviceClient);
+    }
+
+    private void addChannel(PaymentChannel channel) {
+        channels.put(channel.getChannelId(), channel);
+    }
+
+    private PaymentChannel newChannel(long channelId, long value, long expiration) {
+        return Environment.newPaymentChannel(channelId, groupId, signerAddress)
+            .setMpeContractAddress(mpeAddress)
+            .setValue(BigInteger.valueOf(value))
+            .setExpiration(BigInteger.valueOf(expiration))
+            .build();
+    }
+
+}
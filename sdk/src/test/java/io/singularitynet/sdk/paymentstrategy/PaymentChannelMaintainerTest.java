@@ -0,0 +1,236 @@
+package io.singularitynet.sdk.paymentstrategy;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import io.singularitynet.sdk.client.ServiceClient;
+import io.singularitynet.sdk.ethereum.Address;
+import io.singularitynet.sdk.ethereum.Identity;
+import io.singularitynet.sdk.mpe.BlockchainPaymentChannelManager;
+import io.singularitynet.sdk.mpe.PaymentChannel;
+import io.singularitynet.sdk.mpe.PaymentChannelStateProvider;
+import io.singularitynet.sdk.registry.PaymentGroupId;
+import io.singularitynet.sdk.test.Environment;
+
+public class PaymentChannelMaintainerTest {
+
+    private final PaymentGroupId groupId = new PaymentGroupId(Environment.randomUint256());
+    private final Address signerAddress = Environment.randomAddress();
+
+    private ServiceClient serviceClient;
+    private BlockchainPaymentChannelManager channelManager;
+    private PaymentChannelStateProvider stateProvider;
+    private Identity signer;
+    private PaymentChannelMaintainer maintainer;
+
+    @Before
+    public void setUp() {
+        signer = mock(Identity.class);
+        when(signer.getAddress()).thenReturn(signerAddress);
+
+        serviceClient = Environment.newServiceClientMock(signer, groupId);
+        channelManager = serviceClient.getSdk().getBlockchainPaymentChannelManager();
+        stateProvider = serviceClient.getPaymentChannelStateProvider();
+
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(scheduler)
+            .scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any());
+        when(serviceClient.getSdk().getScheduler()).thenReturn(scheduler);
+
+        maintainer = new PaymentChannelMaintainer(5, 20, 50, 200);
+    }
+
+    @After
+    public void tearDown() {
+        maintainer.close();
+    }
+
+    @Test
+    public void channelWithEnoughBalanceAndLifetimeIsNotUpdated() {
+        watch(newChannel(10, 1000));
+
+        maintainer.checkChannels();
+
+        verifyZeroInteractions(channelManager);
+    }
+
+    @Test
+    public void channelBelowLowWatermarkIsFundedUpToHighWatermark() {
+        PaymentChannel channel = newChannel(3, 1000);
+        PaymentChannel funded = newChannel(20, 1000);
+        when(channelManager.addFundsToChannelAsync(channel, BigInteger.valueOf(17)))
+            .thenReturn(CompletableFuture.completedFuture(funded));
+        watch(channel);
+
+        maintainer.checkChannels();
+
+        verify(stateProvider).channelStateUpdated(funded);
+    }
+
+    @Test
+    public void channelCloseToExpirationIsExtended() {
+        PaymentChannel channel = newChannel(10, 150);
+        PaymentChannel extended = newChannel(10, 311);
+        when(channelManager.extendChannelAsync(channel, BigInteger.valueOf(210)))
+            .thenReturn(CompletableFuture.completedFuture(extended));
+        watch(channel);
+
+        maintainer.checkChannels();
+
+        verify(stateProvider).channelStateUpdated(extended);
+    }
+
+    @Test
+    public void channelIsExtendedAndFundedInSingleTransaction() {
+        PaymentChannel channel = newChannel(0, 150);
+        when(channelManager.extendAndAddFundsToChannelAsync(channel,
+                    BigInteger.valueOf(210), BigInteger.valueOf(20)))
+            .thenReturn(CompletableFuture.completedFuture(newChannel(20, 311)));
+        watch(channel);
+
+        maintainer.checkChannels();
+
+        verify(channelManager).extendAndAddFundsToChannelAsync(channel,
+                BigInteger.valueOf(210), BigInteger.valueOf(20));
+    }
+
+    @Test(timeout = 5000)
+    public void channelsAreFundedInParallel() {
+        PaymentChannel first = newChannel(1, 3, 1000);
+        PaymentChannel second = newChannel(2, 3, 1000);
+        List<CompletableFuture<PaymentChannel>> pending = new ArrayList<>();
+        when(channelManager.addFundsToChannelAsync(any(PaymentChannel.class),
+                    eq(BigInteger.valueOf(17))))
+            .thenAnswer(invocation -> {
+                CompletableFuture<PaymentChannel> future = new CompletableFuture<>();
+                pending.add(future);
+                if (pending.size() == 2) {
+                    // complete transactions only when both are sent
+                    for (CompletableFuture<PaymentChannel> update : pending) {
+                        update.complete(newChannel(20, 1000));
+                    }
+                }
+                return future;
+            });
+        watch(first);
+        watch(second);
+
+        maintainer.checkChannels();
+
+        verify(stateProvider, times(2)).channelStateUpdated(newChannel(20, 1000));
+    }
+
+    @Test
+    public void channelUpdatedWhileWaitingForLockIsNotFundedAgain() {
+        PaymentChannel channel = newChannel(3, 1000);
+        PaymentChannel funded = newChannel(20, 1000);
+        when(stateProvider.getChannelStateById(channel.getChannelId(), signer))
+            .thenReturn(channel, funded);
+        maintainer.watch(serviceClient, channel);
+
+        maintainer.checkChannels();
+
+        verifyZeroInteractions(channelManager);
+    }
+
+    @Test
+    public void channelsOfClosedClientAreNotChecked() {
+        watch(newChannel(3, 1000));
+
+        maintainer.unwatch(serviceClient);
+        maintainer.checkChannels();
+
+        verifyZeroInteractions(channelManager);
+    }
+
+    @Test
+    public void periodicCheckIsScheduledOnce() {
+        watch(newChannel(10, 1000));
+        maintainer.watch(serviceClient, newChannel(10, 1000));
+
+        verify(serviceClient.getSdk().getScheduler(), times(1))
+            .scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void sharedChannelIsWatchedUntilLastClientIsClosed() {
+        PaymentChannel channel = newChannel(3, 1000);
+        PaymentChannel funded = newChannel(20, 1000);
+        when(channelManager.addFundsToChannelAsync(channel, BigInteger.valueOf(17)))
+            .thenReturn(CompletableFuture.completedFuture(funded));
+        ServiceClient other = newServiceClientOfSameSdk();
+        watch(channel);
+        maintainer.watch(other, channel);
+
+        maintainer.unwatch(serviceClient);
+        maintainer.checkChannels();
+
+        verify(stateProvider).channelStateUpdated(funded);
+    }
+
+    @Test
+    public void sharedChannelIsCheckedOnce() {
+        PaymentChannel channel = newChannel(3, 1000);
+        when(channelManager.addFundsToChannelAsync(channel, BigInteger.valueOf(17)))
+            .thenReturn(CompletableFuture.completedFuture(newChannel(20, 1000)));
+        watch(channel);
+        maintainer.watch(newServiceClientOfSameSdk(), channel);
+
+        maintainer.checkChannels();
+
+        verify(channelManager, times(1)).addFundsToChannelAsync(channel, BigInteger.valueOf(17));
+    }
+
+    @Test
+    public void channelsOfEachSdkAreScheduledOnItsScheduler() {
+        ServiceClient other = Environment.newServiceClientMock(signer, groupId);
+        ScheduledExecutorService otherScheduler = mock(ScheduledExecutorService.class);
+        ScheduledFuture<?> otherTask = mock(ScheduledFuture.class);
+        doReturn(otherTask).when(otherScheduler)
+            .scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any());
+        when(other.getSdk().getScheduler()).thenReturn(otherScheduler);
+        watch(newChannel(10, 1000));
+
+        maintainer.watch(other, newChannel(10, 1000));
+        maintainer.unwatch(other);
+
+        verify(otherScheduler).scheduleWithFixedDelay(any(Runnable.class),
+                anyLong(), anyLong(), any());
+        verify(otherTask).cancel(false);
+    }
+
+    private ServiceClient newServiceClientOfSameSdk() {
+        ServiceClient other = mock(ServiceClient.class);
+        when(other.getSdk()).thenReturn(serviceClient.getSdk());
+        when(other.getMetadataProvider()).thenReturn(serviceClient.getMetadataProvider());
+        when(other.getEndpointGroupName()).thenReturn(serviceClient.getEndpointGroupName());
+        when(other.getPaymentChannelStateProvider()).thenReturn(stateProvider);
+        return other;
+    }
+
+    private void watch(PaymentChannel channel) {
+        when(stateProvider.getChannelStateById(channel.getChannelId(), signer))
+            .thenReturn(channel);
+        maintainer.watch(serviceClient, channel);
+    }
+
+    private PaymentChannel newChannel(long value, long expiration) {
+        return newChannel(42, value, expiration);
+    }
+
+    private PaymentChannel newChannel(long channelId, long value, long expiration) {
+        return Environment.newPaymentChannel(channelId, groupId, signerAddress)
+            .setValue(BigInteger.valueOf(value))
+            .setExpiration(BigInteger.valueOf(expiration))
+            .build();
+    }
+
+}
@@ -0,0 +1,237 @@
+package io.singularitynet.sdk.paymentstrategy;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import io.singularitynet.sdk.client.ServiceClient;
+import io.singularitynet.sdk.ethereum.Address;
+import io.singularitynet.sdk.ethereum.Identity;
+import io.singularitynet.sdk.ethereum.WithAddress;
+import io.singularitynet.sdk.mpe.BlockchainPaymentChannelManager;
+import io.singularitynet.sdk.mpe.EscrowPayment;
+import io.singularitynet.sdk.mpe.PaymentChannel;
+import io.singularitynet.sdk.mpe.PaymentChannelStateProvider;
+import io.singularitynet.sdk.registry.PaymentGroup;
+import io.singularitynet.sdk.registry.PaymentGroupId;
+import io.singularitynet.sdk.test.Environment;
+
+public class ShardedPaymentChannelPaymentStrategyTest {
+
+    private final PaymentGroupId groupId = new PaymentGroupId(Environment.randomUint256());
+    private final Address signerAddress = Environment.randomAddress();
+    private final Address mpeAddress = Environment.randomAddress();
+
+    private final Map<BigInteger, PaymentChannel> channels = new HashMap<>();
+
+    private ServiceClient serviceClient;
+    private BlockchainPaymentChannelManager channelManager;
+    private Identity signer;
+
+    @Before
+    public void setUp() {
+        signer = mock(Identity.class);
+        when(signer.getAddress()).thenReturn(signerAddress);
+
+        serviceClient = Environment.newServiceClientMock(signer, groupId);
+
+        channelManager = serviceClient.getSdk().getBlockchainPaymentChannelManager();
+        when(channelManager.getChannelsAccessibleBy(eq(groupId), any(WithAddress.class)))
+            .thenAnswer(invocation -> channels.values().stream());
+
+        PaymentChannelStateProvider stateProvider = serviceClient.getPaymentChannelStateProvider();
+        when(stateProvider.getChannelStateById(any(BigInteger.class), eq(signer)))
+            .thenAnswer(invocation -> channels.get(invocation.getArgument(0)));
+    }
+
+    @Test
+    public void missingShardsAreOpened() {
+        addChannel(newChannel(1, 10, 1000));
+        when(channelManager.openPaymentChannelAsync(any(PaymentGroup.class),
+                    eq(signer), any(BigInteger.class), any(BigInteger.class)))
+            .thenAnswer(invocation -> {
+                PaymentChannel channel = newChannel(channels.size() + 1, 10, 1000);
+                addChannel(channel);
+                return CompletableFuture.completedFuture(channel);
+            });
+        ShardedPaymentChannelPaymentStrategy strategy =
+            new ShardedPaymentChannelPaymentStrategy(3, 100, 10);
+
+        strategy.selectChannel(serviceClient);
+
+        verify(channelManager, times(2)).openPaymentChannelAsync(any(PaymentGroup.class),
+                eq(signer), eq(BigInteger.valueOf(10)), eq(BigInteger.valueOf(110)));
+    }
+
+    @Test(timeout = 5000)
+    public void missingShardsAreOpenedInParallel() {
+        List<CompletableFuture<PaymentChannel>> pending = new ArrayList<>();
+        when(channelManager.openPaymentChannelAsync(any(PaymentGroup.class),
+                    eq(signer), any(BigInteger.class), any(BigInteger.class)))
+            .thenAnswer(invocation -> {
+                CompletableFuture<PaymentChannel> future = new CompletableFuture<>();
+                pending.add(future);
+                if (pending.size() == 3) {
+                    // complete all transactions only when the last one is sent
+                    for (int i = 0; i < pending.size(); ++i) {
+                        PaymentChannel channel = newChannel(i + 1, 10, 1000);
+                        addChannel(channel);
+                        pending.get(i).complete(channel);
+                    }
+                }
+                return future;
+            });
+        ShardedPaymentChannelPaymentStrategy strategy =
+            new ShardedPaymentChannelPaymentStrategy(3, 100, 10);
+
+        strategy.selectChannel(serviceClient);
+
+        verify(channelManager, times(3)).openPaymentChannelAsync(any(PaymentGroup.class),
+                eq(signer), any(BigInteger.class), any(BigInteger.class));
+    }
+
+    @Test
+    public void usableChannelsArePreferredAsShards() {
+        addChannel(newChannel(1, 10, 50));
+        addChannel(newChannel(2, 0, 1000));
+        addChannel(newChannel(3, 10, 1000));
+        ShardedPaymentChannelPaymentStrategy strategy =
+            new ShardedPaymentChannelPaymentStrategy(1, 100, 10);
+
+        PaymentChannel channel = strategy.selectChannel(serviceClient);
+
+        assertEquals("Channel id", BigInteger.valueOf(3), channel.getChannelId());
+        verify(channelManager, never()).addFundsToChannelAsync(any(PaymentChannel.class),
+                any(BigInteger.class));
+    }
+
+    @Test
+    public void callsAreSpreadOverShards() {
+        addChannel(newChannel(1, 10, 1000));
+        addChannel(newChannel(2, 10, 1000));
+        addChannel(newChannel(3, 10, 1000));
+        ShardedPaymentChannelPaymentStrategy strategy =
+            new ShardedPaymentChannelPaymentStrategy(3, 100, 10);
+
+        List<BigInteger> selected = Arrays.asList(1, 2, 3).stream()
+            .map(i -> strategy.selectChannel(serviceClient).getChannelId())
+            .sorted()
+            .collect(Collectors.toList());
+
+        assertEquals("Selected shards", Arrays.asList(BigInteger.valueOf(1),
+                    BigInteger.valueOf(2), BigInteger.valueOf(3)), selected);
+    }
+
+    @Test
+    public void shardWithoutUnallocatedBalanceIsSkipped() {
+        PaymentChannel exhausted = newChannel(1, 1, 1000);
+        PaymentChannel ready = newChannel(2, 10, 1000);
+        addChannel(exhausted);
+        addChannel(ready);
+        serviceClient.getSdk().getPaymentChannelAmountAllocator()
+            .allocate(exhausted, BigInteger.ONE);
+        ShardedPaymentChannelPaymentStrategy strategy =
+            new ShardedPaymentChannelPaymentStrategy(2, 100, 10);
+
+        assertEquals("Selected shard", ready, strategy.selectChannel(serviceClient));
+        assertEquals("Selected shard", ready, strategy.selectChannel(serviceClient));
+    }
+
+    @Test
+    public void amountIsReservedWhenPaymentIsMade() {
+        PaymentChannel last = newChannel(1, 1, 1000);
+        PaymentChannel ready = newChannel(2, 10, 1000);
+        addChannel(last);
+        addChannel(ready);
+        ShardedPaymentChannelPaymentStrategy strategy =
+            new ShardedPaymentChannelPaymentStrategy(2, 100, 10);
+
+        long lastSelected = Arrays.asList(1, 2, 3, 4).stream()
+            .map(i -> (EscrowPayment) strategy.getPayment(null, serviceClient))
+            .filter(payment -> payment.getChannelId().equals(last.getChannelId()))
+            .collect(Collectors.toList()).size();
+
+        assertEquals("Number of calls via last cog shard", 1, lastSelected);
+        assertEquals("Allocated amount", BigInteger.ONE, serviceClient.getSdk()
+                .getPaymentChannelAmountAllocator().getAllocatedAmount(last));
+    }
+
+    @Test
+    public void amountIsNotReservedWhenShardIsSelected() {
+        PaymentChannel channel = newChannel(1, 10, 1000);
+        addChannel(channel);
+        ShardedPaymentChannelPaymentStrategy strategy =
+            new ShardedPaymentChannelPaymentStrategy(1, 100, 10);
+
+        strategy.selectChannel(serviceClient);
+
+        assertEquals("Allocated amount", BigInteger.ZERO, serviceClient.getSdk()
+                .getPaymentChannelAmountAllocator().getAllocatedAmount(channel));
+    }
+
+    @Test
+    public void exhaustedShardIsFunded() {
+        PaymentChannel exhausted = newChannel(1, 0, 1000);
+        PaymentChannel funded = newChannel(1, 10, 1000);
+        addChannel(exhausted);
+        when(channelManager.addFundsToChannelAsync(exhausted, BigInteger.valueOf(10)))
+            .thenReturn(CompletableFuture.completedFuture(funded));
+        ShardedPaymentChannelPaymentStrategy strategy =
+            new ShardedPaymentChannelPaymentStrategy(1, 100, 10);
+
+        PaymentChannel channel = strategy.selectChannel(serviceClient);
+
+        assertEquals("Selected shard", funded, channel);
+        verify(serviceClient.getPaymentChannelStateProvider()).channelStateUpdated(funded);
+    }
+
+    @Test(timeout = 5000)
+    public void exhaustedShardsAreFundedInParallel() {
+        addChannel(newChannel(1, 0, 1000));
+        addChannel(newChannel(2, 0, 1000));
+        List<CompletableFuture<PaymentChannel>> pending = new ArrayList<>();
+        when(channelManager.addFundsToChannelAsync(any(PaymentChannel.class),
+                    eq(BigInteger.valueOf(10))))
+            .thenAnswer(invocation -> {
+                CompletableFuture<PaymentChannel> future = new CompletableFuture<>();
+                pending.add(future);
+                if (pending.size() == 2) {
+                    // complete transactions only when both are sent
+                    for (CompletableFuture<PaymentChannel> update : pending) {
+                        update.complete(newChannel(pending.indexOf(update) + 1, 10, 1000));
+                    }
+                }
+                return future;
+            });
+        ShardedPaymentChannelPaymentStrategy strategy =
+            new ShardedPaymentChannelPaymentStrategy(2, 100, 10);
+
+        PaymentChannel channel = strategy.selectChannel(serviceClient);
+
+        assertEquals("Channel value", BigInteger.valueOf(10), channel.getValue());
+        verify(channelManager, times(2)).addFundsToChannelAsync(any(PaymentChannel.class),
+                eq(BigInteger.valueOf(10)));
+    }
+
+    private void addChannel(PaymentChannel channel) {
+        channels.put(channel.getChannelId(), channel);
+    }
+
+    private PaymentChannel newChannel(long channelId, long value, long expiration) {
+        return Environment.newPaymentChannel(channelId, groupId, signerAddress)
+            .setMpeContractAddress(mpeAddress)
+            .setValue(BigInteger.valueOf(value))
+            .setExpiration(BigInteger.valueOf(expiration))
+            .build();
+    }
+
+}
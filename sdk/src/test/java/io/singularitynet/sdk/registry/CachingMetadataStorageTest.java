@@ -0,0 +1,112 @@
+package io.singularitynet.sdk.registry;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URI;
+import java.util.Optional;
+
+import io.singularitynet.sdk.common.Utils;
+
+public class CachingMetadataStorageTest {
+
+    // CID of the "hello world\n" file added to IPFS
+    private static final URI FIRST_URI = Utils.strToUri(
+            "ipfs://QmT78zSuBmuS4z925WZfrqQ1qHaJ56DQaTfyMUF7F8ff5o");
+    private static final byte[] FIRST_CONTENT = Utils.strToBytes("hello world\n");
+    private static final URI SECOND_URI = Utils.strToUri(
+            "ipfs://QmSesBRhz67FRixd3mGMNmQE5sNyZxdDgcNMEBmmhHk2X6");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MetadataStorage ipfs;
+
+    @Before
+    public void setUp() {
+        ipfs = mock(MetadataStorage.class);
+        when(ipfs.get(FIRST_URI)).thenAnswer(invocation -> FIRST_CONTENT.clone());
+        when(ipfs.get(SECOND_URI)).thenReturn(Utils.strToBytes("second"));
+    }
+
+    @Test
+    public void contentIsReturnedFromMemory() {
+        CachingMetadataStorage storage = new CachingMetadataStorage(ipfs, 10,
+                Optional.empty());
+
+        storage.get(FIRST_URI);
+        byte[] content = storage.get(FIRST_URI);
+
+        assertArrayEquals("Content", FIRST_CONTENT, content);
+        verify(ipfs, times(1)).get(FIRST_URI);
+    }
+
+    @Test
+    public void contentIsReturnedFromDiskAfterRestart() {
+        File dir = new File(folder.getRoot(), "ipfs");
+        new CachingMetadataStorage(ipfs, 10, Optional.of(dir)).get(FIRST_URI);
+
+        byte[] content = new CachingMetadataStorage(ipfs, 10, Optional.of(dir))
+            .get(FIRST_URI);
+
+        assertArrayEquals("Content", FIRST_CONTENT, content);
+        verify(ipfs, times(1)).get(FIRST_URI);
+    }
+
+    @Test
+    public void fileWithWrongHashIsIgnored() throws Exception {
+        File dir = folder.getRoot();
+        new CachingMetadataStorage(ipfs, 10, Optional.of(dir)).get(FIRST_URI);
+        File file = new File(dir, FIRST_URI.getAuthority());
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(Utils.strToBytes("hello world!"));
+        }
+
+        byte[] content = new CachingMetadataStorage(ipfs, 10, Optional.of(dir))
+            .get(FIRST_URI);
+
+        assertArrayEquals("Content", FIRST_CONTENT, content);
+        verify(ipfs, times(2)).get(FIRST_URI);
+    }
+
+    @Test
+    public void cachedContentIsNotModifiedByCaller() {
+        CachingMetadataStorage storage = new CachingMetadataStorage(ipfs, 10,
+                Optional.empty());
+
+        storage.get(FIRST_URI)[0] = 0;
+        byte[] content = storage.get(FIRST_URI);
+
+        assertArrayEquals("Content", FIRST_CONTENT, content);
+    }
+
+    @Test
+    public void leastRecentlyUsedContentIsEvictedFromMemory() {
+        CachingMetadataStorage storage = new CachingMetadataStorage(ipfs, 1,
+                Optional.empty());
+
+        storage.get(FIRST_URI);
+        storage.get(SECOND_URI);
+        storage.get(FIRST_URI);
+
+        verify(ipfs, times(2)).get(FIRST_URI);
+    }
+
+    @Test
+    public void nonIpfsUriIsNotCached() {
+        URI uri = Utils.strToUri("https://example.com/metadata.json");
+        when(ipfs.get(uri)).thenReturn(Utils.strToBytes("http"));
+        CachingMetadataStorage storage = new CachingMetadataStorage(ipfs, 10,
+                Optional.of(folder.getRoot()));
+
+        storage.get(uri);
+        storage.get(uri);
+
+        verify(ipfs, times(2)).get(uri);
+    }
+
+}
@@ -0,0 +1,135 @@
+package io.singularitynet.sdk.registry;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.singularitynet.sdk.common.Utils;
+
+public class HedgedMetadataStorageTest {
+
+    // CID of the "hello world\n" file added to IPFS
+    private static final URI HELLO_URI = Utils.strToUri(
+            "ipfs://QmT78zSuBmuS4z925WZfrqQ1qHaJ56DQaTfyMUF7F8ff5o");
+    private static final byte[] CONTENT = Utils.strToBytes("hello world\n");
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+    private MetadataStorage first;
+    private MetadataStorage second;
+    private MetadataStorage third;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        first = mock(MetadataStorage.class);
+        second = mock(MetadataStorage.class);
+        third = mock(MetadataStorage.class);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void hedgedRequestIsSentWhenFirstStorageIsSlow() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(first.get(HELLO_URI)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return CONTENT;
+        });
+        when(second.get(HELLO_URI)).thenReturn(CONTENT);
+        MetadataStorage storage = newStorage(50);
+
+        try {
+            assertArrayEquals("Content", CONTENT, storage.get(HELLO_URI));
+            verify(second).get(HELLO_URI);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void hedgedRequestIsSentAfterEachHedgeDelay() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(first.get(HELLO_URI)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return CONTENT;
+        });
+        when(second.get(HELLO_URI)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return CONTENT;
+        });
+        when(third.get(HELLO_URI)).thenReturn(CONTENT);
+        MetadataStorage storage = new HedgedMetadataStorage(
+                Arrays.asList(first, second, third), 50, executor, scheduler);
+
+        try {
+            long start = System.nanoTime();
+            assertArrayEquals("Content", CONTENT, storage.get(HELLO_URI));
+            assertTrue("Content is returned before slow storages respond",
+                    System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            verify(third).get(HELLO_URI);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void contentWithVerifiedHashIsPreferred() {
+        when(first.get(HELLO_URI)).thenReturn(Utils.strToBytes("hello world!"));
+        when(second.get(HELLO_URI)).thenReturn(CONTENT);
+        MetadataStorage storage = newStorage(5000);
+
+        assertArrayEquals("Content", CONTENT, storage.get(HELLO_URI));
+    }
+
+    @Test
+    public void contentWithNotReproducedHashIsReturnedWhenNoOtherContent() {
+        byte[] content = Utils.strToBytes("hello world!");
+        when(first.get(HELLO_URI)).thenReturn(content);
+        when(second.get(HELLO_URI)).thenThrow(new IllegalStateException("Gateway is unavailable"));
+        MetadataStorage storage = newStorage(5000);
+
+        assertArrayEquals("Content", content, storage.get(HELLO_URI));
+    }
+
+    @Test
+    public void failedStorageIsNotRequestedFirst() {
+        when(first.get(HELLO_URI)).thenThrow(new IllegalStateException("IPFS node is unavailable"));
+        when(second.get(HELLO_URI)).thenReturn(CONTENT);
+        MetadataStorage storage = newStorage(5000);
+
+        storage.get(HELLO_URI);
+        storage.get(HELLO_URI);
+
+        verify(first, times(1)).get(HELLO_URI);
+        verify(second, times(2)).get(HELLO_URI);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void exceptionIsThrownWhenAllStoragesFail() {
+        when(first.get(HELLO_URI)).thenThrow(new IllegalStateException("IPFS node is unavailable"));
+        when(second.get(HELLO_URI)).thenThrow(new IllegalStateException("Gateway is unavailable"));
+        MetadataStorage storage = newStorage(5000);
+
+        storage.get(HELLO_URI);
+    }
+
+    private MetadataStorage newStorage(long hedgeDelayMillis) {
+        return new HedgedMetadataStorage(Arrays.asList(first, second),
+                hedgeDelayMillis, executor, scheduler);
+    }
+
+}
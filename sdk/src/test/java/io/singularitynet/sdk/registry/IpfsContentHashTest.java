@@ -0,0 +1,34 @@
+package io.singularitynet.sdk.registry;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.net.URI;
+
+import io.singularitynet.sdk.common.Utils;
+import io.singularitynet.sdk.registry.IpfsContentHash.Verification;
+
+public class IpfsContentHashTest {
+
+    // CID of the "hello world\n" file added to IPFS
+    private static final URI HELLO_URI = Utils.strToUri(
+            "ipfs://QmT78zSuBmuS4z925WZfrqQ1qHaJ56DQaTfyMUF7F8ff5o");
+
+    @Test
+    public void contentHashIsVerified() {
+        assertEquals("Original content", Verification.VERIFIED,
+                IpfsContentHash.verify(HELLO_URI, Utils.strToBytes("hello world\n")));
+        assertEquals("Modified content", Verification.NOT_REPRODUCED,
+                IpfsContentHash.verify(HELLO_URI, Utils.strToBytes("hello world!")));
+    }
+
+    @Test
+    public void contentOfCidV1IsNotVerified() {
+        URI uri = Utils.strToUri(
+                "ipfs://bafkreifzjut3te2nhyekklss27nh3k72ysco7y32koao5eei66wof36n5e");
+
+        assertEquals("Verification", Verification.UNSUPPORTED,
+                IpfsContentHash.verify(uri, Utils.strToBytes("hello world!")));
+    }
+
+}
@@ -0,0 +1,252 @@
+package io.singularitynet.sdk.registry;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.singularitynet.sdk.common.Utils;
+
+public class MetadataCacheTest {
+
+    private static final long TTL = 1000;
+
+    private RegistryContract registry;
+    private MetadataStorage storage;
+    private AtomicLong clock;
+    private List<Runnable> tasks;
+
+    @Before
+    public void setUp() {
+        registry = mock(RegistryContract.class);
+        storage = mock(MetadataStorage.class);
+        clock = new AtomicLong(0);
+        tasks = new ArrayList<>();
+        publishService("test-org", "service-a");
+        publishService("test-org", "service-b");
+    }
+
+    @Test
+    public void providersOfSameServiceShareSnapshot() {
+        MetadataCache cache = newCache(10);
+
+        ServiceMetadata first = cache.getMetadataProvider("test-org", "service-a")
+            .getServiceMetadata();
+        ServiceMetadata second = cache.getMetadataProvider("test-org", "service-a")
+            .getServiceMetadata();
+
+        assertSame("Metadata snapshot", first, second);
+        verify(storage, times(1)).get(any());
+    }
+
+    @Test
+    public void concurrentLoadsAreDeduplicated() throws Exception {
+        MetadataCache cache = newCache(10);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        byte[] json = Utils.strToBytes("{ \"display_name\": \"service-a\" }");
+        when(storage.get(any())).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return json;
+        });
+
+        CompletableFuture<ServiceMetadata> first = CompletableFuture.supplyAsync(
+                () -> cache.getServiceMetadata("test-org", "service-a"));
+        assertTrue("First load is started", loadStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ServiceMetadata> second = CompletableFuture.supplyAsync(
+                () -> cache.getServiceMetadata("test-org", "service-a"));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertSame("Metadata snapshot", first.get(5, TimeUnit.SECONDS),
+                second.get(5, TimeUnit.SECONDS));
+        verify(storage, times(1)).get(any());
+    }
+
+    @Test
+    public void leastRecentlyUsedServiceIsEvicted() {
+        MetadataCache cache = newCache(1);
+
+        cache.getServiceMetadata("test-org", "service-a");
+        cache.getServiceMetadata("test-org", "service-b");
+        cache.getServiceMetadata("test-org", "service-a");
+
+        verify(registry, times(2)).getServiceRegistrationById("test-org", "service-a");
+        verify(registry, times(1)).getServiceRegistrationById("test-org", "service-b");
+    }
+
+    @Test
+    public void prefetchLoadsSharedOrganizationOnce() throws Exception {
+        publishOrganization("test-org");
+        MetadataCache cache = newCache(10);
+
+        List<CompletableFuture<ServiceMetadata>> futures = cache.prefetch(
+                Arrays.asList(new ServiceIdentifier("test-org", "service-a"),
+                    new ServiceIdentifier("test-org", "service-b")), 4);
+
+        assertEquals("First service", "service-a",
+                futures.get(0).get().getDisplayName());
+        assertEquals("Second service", "service-b",
+                futures.get(1).get().getDisplayName());
+        verify(registry, times(1)).getOrganizationById("test-org");
+    }
+
+    @Test
+    public void prefetchParallelismIsBounded() {
+        publishOrganization("test-org");
+        List<Runnable> workers = new ArrayList<>();
+        MetadataCache cache = new MetadataCache(registry, storage, 10,
+                MetadataCache.DEFAULT_TTL_MILLIS, workers::add);
+
+        List<CompletableFuture<ServiceMetadata>> futures = cache.prefetch(
+                Arrays.asList(new ServiceIdentifier("test-org", "service-a"),
+                    new ServiceIdentifier("test-org", "service-b")), 2);
+        assertEquals("Workers started", 2, workers.size());
+        workers.get(0).run();
+
+        assertTrue("All services are loaded by single worker",
+                futures.stream().allMatch(CompletableFuture::isDone));
+    }
+
+    @Test
+    public void expiredMetadataIsReturnedWhileRefreshing() {
+        MetadataCache cache = newRefreshingCache();
+        cache.getServiceMetadata("test-org", "service-a");
+        publishService("test-org", "service-a", "ipfs://QmSecond", "second");
+        clock.set(TTL);
+
+        ServiceMetadata stale = cache.getServiceMetadata("test-org", "service-a");
+        cache.getServiceMetadata("test-org", "service-a");
+        runTasks();
+        ServiceMetadata fresh = cache.getServiceMetadata("test-org", "service-a");
+
+        assertEquals("Stale display name", "service-a", stale.getDisplayName());
+        assertEquals("Fresh display name", "second", fresh.getDisplayName());
+        verify(registry, times(2)).getServiceRegistrationById("test-org", "service-a");
+    }
+
+    @Test
+    public void metadataIsNotLoadedFromStorageWhenUriIsNotChanged() {
+        MetadataCache cache = newRefreshingCache();
+        cache.getServiceMetadata("test-org", "service-a");
+        clock.set(TTL);
+
+        cache.getServiceMetadata("test-org", "service-a");
+        runTasks();
+        clock.set(TTL + TTL / 2);
+        cache.getServiceMetadata("test-org", "service-a");
+
+        assertTrue("Refresh is not started before TTL", tasks.isEmpty());
+        verify(registry, times(2)).getServiceRegistrationById("test-org", "service-a");
+        verify(storage, times(1)).get(any());
+    }
+
+    @Test
+    public void failedRefreshIsRetriedAfterDelay() {
+        MetadataCache cache = newRefreshingCache();
+        cache.getServiceMetadata("test-org", "service-a");
+        doThrow(new IllegalStateException("Ethereum node is unavailable"))
+            .when(registry).getServiceRegistrationById("test-org", "service-a");
+        clock.set(TTL);
+        cache.getServiceMetadata("test-org", "service-a");
+        runTasks();
+
+        clock.set(TTL + RefreshingMetadata.MIN_RETRY_DELAY_MILLIS - 1);
+        ServiceMetadata previous = cache.getServiceMetadata("test-org", "service-a");
+        assertTrue("Refresh is not retried before delay", tasks.isEmpty());
+
+        publishService("test-org", "service-a", "ipfs://QmSecond", "second");
+        clock.set(TTL + RefreshingMetadata.MIN_RETRY_DELAY_MILLIS);
+        cache.getServiceMetadata("test-org", "service-a");
+        runTasks();
+
+        assertEquals("Previous display name", "service-a", previous.getDisplayName());
+        assertEquals("Display name", "second",
+                cache.getServiceMetadata("test-org", "service-a").getDisplayName());
+    }
+
+    @Test
+    public void asyncRequestsShareSingleBackgroundLoad() throws Exception {
+        MetadataCache cache = newRefreshingCache();
+
+        CompletableFuture<ServiceMetadata> first = cache.getServiceMetadataAsync(
+                "test-org", "service-a");
+        CompletableFuture<ServiceMetadata> second = cache.getServiceMetadataAsync(
+                "test-org", "service-a");
+        assertFalse("Metadata is loaded in background", first.isDone());
+        runTasks();
+
+        assertSame("Same load", first, second);
+        assertEquals("Display name", "service-a", first.get().getDisplayName());
+        verify(storage, times(1)).get(any());
+    }
+
+    @Test
+    public void failedLoadIsRetried() {
+        MetadataCache cache = newRefreshingCache();
+        doThrow(new IllegalStateException("Ethereum node is unavailable"))
+            .when(registry).getServiceRegistrationById("test-org", "service-a");
+        CompletableFuture<ServiceMetadata> failed = cache.getServiceMetadataAsync(
+                "test-org", "service-a");
+        runTasks();
+        publishService("test-org", "service-a");
+
+        ServiceMetadata metadata = cache.getServiceMetadata("test-org", "service-a");
+
+        assertTrue("First load failed", failed.isCompletedExceptionally());
+        assertEquals("Display name", "service-a", metadata.getDisplayName());
+    }
+
+    private MetadataCache newRefreshingCache() {
+        return new MetadataCache(registry, storage, 10, TTL, tasks::add, clock::get);
+    }
+
+    private void runTasks() {
+        List<Runnable> toRun = new ArrayList<>(tasks);
+        tasks.clear();
+        toRun.forEach(Runnable::run);
+    }
+
+    private MetadataCache newCache(int maxEntries) {
+        return new MetadataCache(registry, storage, maxEntries,
+                MetadataCache.DEFAULT_TTL_MILLIS, Runnable::run);
+    }
+
+    private void publishOrganization(String orgId) {
+        URI metadataUri = Utils.strToUri("ipfs://Qm" + orgId);
+        when(registry.getOrganizationById(orgId))
+            .thenReturn(Optional.of(OrganizationRegistration.newBuilder()
+                        .setOrgId(orgId)
+                        .setMetadataUri(metadataUri)
+                        .build()));
+        when(storage.get(metadataUri)).thenReturn(Utils.strToBytes(
+                    "{ \"org_id\": \"" + orgId + "\" }"));
+    }
+
+    private void publishService(String orgId, String serviceId) {
+        publishService(orgId, serviceId, "ipfs://Qm" + serviceId, serviceId);
+    }
+
+    private void publishService(String orgId, String serviceId, String uri,
+            String displayName) {
+        URI metadataUri = Utils.strToUri(uri);
+        doReturn(Optional.of(ServiceRegistration.newBuilder()
+                        .setServiceId(serviceId)
+                        .setMetadataUri(metadataUri)
+                        .build()))
+            .when(registry).getServiceRegistrationById(orgId, serviceId);
+        when(storage.get(metadataUri)).thenReturn(Utils.strToBytes(
+                    "{ \"display_name\": \"" + displayName + "\" }"));
+    }
+
+}
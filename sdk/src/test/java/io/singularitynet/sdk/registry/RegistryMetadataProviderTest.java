@@ -151,6 +151,98 @@ public class RegistryMetadataProviderTest {
                 .build())
         .build();
 
+    // service metadata as it is published by snet-cli, with fields which are
+    // not used by SDK
+    private static final String SERVICE_METADATA_JSON_REALISTIC =
+        "{\n" +
+        "    \"version\": 1,\n" +
+        "    \"display_name\": \"Example Service\",\n" +
+        "    \"encoding\": \"proto\",\n" +
+        "    \"service_type\": \"grpc\",\n" +
+        "    \"model_ipfs_hash\": \"QmRmYMW3DLLpdux2CrE86dWobpCGYCDtYXqr9cbjMwLL2g\",\n" +
+        "    \"mpe_address\": \"0x5C7a4290F6F8FF64c69eEffDFAFc8644A4Ec3a4E\",\n" +
+        "    \"groups\": [\n" +
+        "        {\n" +
+        "            \"group_name\": \"default_group\",\n" +
+        "            \"pricing\": [\n" +
+        "                {\n" +
+        "                    \"price_model\": \"fixed_price\",\n" +
+        "                    \"price_in_cogs\": 1,\n" +
+        "                    \"default\": true\n" +
+        "                }\n" +
+        "            ],\n" +
+        "            \"endpoints\": [\n" +
+        "                \"https://example-1.service.io:8088\",\n" +
+        "                \"https://example-2.service.io:8088\"\n" +
+        "            ],\n" +
+        "            \"group_id\": \"7G8/7SPnr5qLDdHOdqsRolu8wx1eQaAmzGwsnYUUI8c=\",\n" +
+        "            \"free_calls\": 15,\n" +
+        "            \"free_call_signer_address\": \"0x592E3C0f3B038A0D673F19a18a773F993d4b2610\",\n" +
+        "            \"daemon_addresses\": [\n" +
+        "                \"0x3b2b3C2e2E7C93db335E69D827F3CC4bC2A2A2cB\"\n" +
+        "            ]\n" +
+        "        },\n" +
+        "        {\n" +
+        "            \"endpoints\": [\n" +
+        "                \"https://example-eu.service.io:8088\"\n" +
+        "            ],\n" +
+        "            \"group_name\": \"eu_group\",\n" +
+        "            \"pricing\": [\n" +
+        "                {\n" +
+        "                    \"price_model\": \"fixed_price\",\n" +
+        "                    \"price_in_cogs\": 2,\n" +
+        "                    \"default\": true\n" +
+        "                }\n" +
+        "            ],\n" +
+        "            \"group_id\": \"EoFmN3nvaXpf6ew8jJbIPVghE5NXfYupFF7PkRmVyGQ=\"\n" +
+        "        }\n" +
+        "    ],\n" +
+        "    \"assets\": {\n" +
+        "        \"hero_image\": \"QmVcE6fEDP764ibadXTjZHk251Lmt5xAxdc4P9mPA4kksk/hero_gene-annotation.png\",\n" +
+        "        \"images\": [\"QmVcE6fEDP764ibadXTjZHk251Lmt5xAxdc4P9mPA4kksk/1.png\"]\n" +
+        "    },\n" +
+        "    \"service_description\": {\n" +
+        "        \"url\": \"https://example.service.users.guide\",\n" +
+        "        \"description\": \"Example service description with \\\"quotes\\\" and unicode \\u00e9\",\n" +
+        "        \"short_description\": \"Example\"\n" +
+        "    },\n" +
+        "    \"contributors\": [\n" +
+        "        {\n" +
+        "            \"name\": \"John Doe\",\n" +
+        "            \"email_id\": \"john@example.com\"\n" +
+        "        }\n" +
+        "    ],\n" +
+        "    \"tags\": [\"example\", \"test\"]\n" +
+        "}";
+
+    private static final ServiceMetadata SERVICE_METADATA_OBJECT_REALISTIC =
+        ServiceMetadata.newBuilder()
+        .setDisplayName("Example Service")
+        .setModelIpfsHash("QmRmYMW3DLLpdux2CrE86dWobpCGYCDtYXqr9cbjMwLL2g")
+        .setMpeAddress(new Address("0x5C7a4290F6F8FF64c69eEffDFAFc8644A4Ec3a4E"))
+        .addEndpointGroup(EndpointGroup.newBuilder()
+                .setGroupName("default_group")
+                .addPricing(Pricing.newBuilder()
+                    .setPriceModel(PriceModel.FIXED_PRICE)
+                    .setPriceInCogs(BigInteger.valueOf(1))
+                    .build())
+                .addEndpoint(Utils.strToUrl("https://example-1.service.io:8088"))
+                .addEndpoint(Utils.strToUrl("https://example-2.service.io:8088"))
+                .setPaymentGroupId(new PaymentGroupId("7G8/7SPnr5qLDdHOdqsRolu8wx1eQaAmzGwsnYUUI8c="))
+                .setFreeCalls(15)
+                .setFreeCallSignerAddress(new Address("0x592E3C0f3B038A0D673F19a18a773F993d4b2610"))
+                .build())
+        .addEndpointGroup(EndpointGroup.newBuilder()
+                .setGroupName("eu_group")
+                .addPricing(Pricing.newBuilder()
+                    .setPriceModel(PriceModel.FIXED_PRICE)
+                    .setPriceInCogs(BigInteger.valueOf(2))
+                    .build())
+                .addEndpoint(Utils.strToUrl("https://example-eu.service.io:8088"))
+                .setPaymentGroupId(new PaymentGroupId("EoFmN3nvaXpf6ew8jJbIPVghE5NXfYupFF7PkRmVyGQ="))
+                .build())
+        .build();
+
     private RegistryContract registry;
     private MetadataStorage storage;
 
@@ -190,6 +282,39 @@ public class RegistryMetadataProviderTest {
                 metadata);
     }
 
+    @Test
+    public void getServiceMetadataRealistic() {
+        addServiceMetadataToRegistry("test-org", "test-service",
+                SERVICE_METADATA_JSON_REALISTIC);
+        RegistryMetadataProvider provider = new RegistryMetadataProvider(
+                "test-org", "test-service", registry, storage);
+
+        ServiceMetadata metadata = provider.getServiceMetadata();
+
+        assertEquals("Service metadata",
+                SERVICE_METADATA_OBJECT_REALISTIC, metadata);
+    }
+
+    @Test
+    public void serviceMetadataIsWrittenInParsedFormat() {
+        String json = RegistryMetadataProvider.GSON.toJson(SERVICE_METADATA_OBJECT_REALISTIC);
+
+        ServiceMetadata metadata = RegistryMetadataProvider.parseServiceMetadata(
+                Utils.strToBytes(json));
+
+        assertEquals("Service metadata", SERVICE_METADATA_OBJECT_REALISTIC, metadata);
+    }
+
+    @Test
+    public void organizationMetadataIsWrittenInParsedFormat() {
+        String json = RegistryMetadataProvider.GSON.toJson(ORGANIZATION_METADATA_OBJECT);
+
+        OrganizationMetadata metadata = RegistryMetadataProvider.parseOrganizationMetadata(
+                Utils.strToBytes(json));
+
+        assertEquals("Organization metadata", ORGANIZATION_METADATA_OBJECT, metadata);
+    }
+
     @Test
     public void getServiceMetadataNoService() {
         thrown.expect(RegistryMetadataProvider.NotFoundException.class);
@@ -23,6 +23,7 @@ public class DaemonMock extends PaymentChannelStateServiceGrpc.PaymentChannelSta
 
     private final List<Payment> payments = Collections.synchronizedList(new ArrayList<>());
     private final Map<BigInteger, StateService.ChannelStateReply> channelStates = new HashMap<>();
+    private volatile Status nextCallStatus = null;
 
     @Override
     public <ReqT,RespT> ServerCall.Listener<ReqT> interceptCall(
@@ -31,10 +32,24 @@ public class DaemonMock extends PaymentChannelStateServiceGrpc.PaymentChannelSta
         Optional<Payment> payment = PaymentSerializer.fromMetadata(headers);
         if (payment.isPresent()) {
             payments.add(payment.get());
+            Status status = nextCallStatus;
+            if (status != null) {
+                nextCallStatus = null;
+                call.close(status, new Metadata());
+                return new ServerCall.Listener<ReqT>() {};
+            }
         }
         return next.startCall(call, headers);
     }
 
+    /**
+     * Fail the next paid call with the status given, payment is recorded
+     * but not passed to the service.
+     */
+    public void failNextCall(Status status) {
+        nextCallStatus = status;
+    }
+
     public List<Payment> getPayments() {
         return payments;
     }
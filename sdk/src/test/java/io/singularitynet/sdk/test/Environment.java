@@ -10,6 +10,8 @@ import org.web3j.protocol.core.Request;
 import org.web3j.protocol.core.methods.response.EthBlockNumber;
 
 import io.singularitynet.sdk.common.Utils;
+import io.singularitynet.sdk.client.Sdk;
+import io.singularitynet.sdk.client.ServiceClient;
 import io.singularitynet.sdk.registry.*;
 import io.singularitynet.sdk.mpe.*;
 import io.singularitynet.sdk.daemon.*;
@@ -254,4 +256,84 @@ public class Environment {
             .setCurrentSignature(payment.getSignature());
     }
 
+    private static final Address TEST_MPE_ADDRESS =
+        new Address("0x5e592F9b1d303183d963635f895f0f0C48284f4e");
+    private static final Address TEST_RECIPIENT_ADDRESS =
+        new Address("0xfA8a01E837c30a3DA3Ea862e6dB5C6232C9b800A");
+
+    /**
+     * New channel of the payment group which is opened and signed by the
+     * address given. Channel has zero nonce and spent amount, value 100 and
+     * expiration block 1000, tests override fields they depend on. Channels
+     * built with the same arguments are equal.
+     */
+    public static PaymentChannel.Builder newPaymentChannel(long channelId,
+            PaymentGroupId groupId, Address signer) {
+        return PaymentChannel.newBuilder()
+            .setChannelId(BigInteger.valueOf(channelId))
+            .setMpeContractAddress(TEST_MPE_ADDRESS)
+            .setNonce(BigInteger.ZERO)
+            .setSender(signer)
+            .setSigner(signer)
+            .setRecipient(TEST_RECIPIENT_ADDRESS)
+            .setPaymentGroupId(groupId)
+            .setValue(BigInteger.valueOf(100))
+            .setExpiration(BigInteger.valueOf(1000))
+            .setSpentAmount(BigInteger.ZERO);
+    }
+
+    /**
+     * New service client mock for the payment strategy tests. Service has
+     * "default_group" endpoint group with fixed price 1 cog, payment group
+     * has expiration threshold 10 blocks and current block is 100. Sdk
+     * returns mocks of the blockchain payment channel manager and Ethereum,
+     * service client returns mock of the payment channel state provider.
+     */
+    public static ServiceClient newServiceClientMock(Identity signer,
+            PaymentGroupId groupId) {
+        Ethereum ethereum = mock(Ethereum.class);
+        when(ethereum.getEthBlockNumber()).thenReturn(BigInteger.valueOf(100));
+
+        BlockchainPaymentChannelManager channelManager =
+            mock(BlockchainPaymentChannelManager.class);
+
+        Sdk sdk = mock(Sdk.class);
+        when(sdk.getIdentity()).thenReturn(signer);
+        when(sdk.getEthereum()).thenReturn(ethereum);
+        when(sdk.getBlockchainPaymentChannelManager()).thenReturn(channelManager);
+        when(sdk.getPaymentChannelAmountAllocator()).thenReturn(new PaymentChannelAmountAllocator());
+
+        MetadataProvider metadataProvider = mock(MetadataProvider.class);
+        when(metadataProvider.getServiceMetadata()).thenReturn(
+                ServiceMetadata.newBuilder()
+                .addEndpointGroup(EndpointGroup.newBuilder()
+                    .setGroupName("default_group")
+                    .setPaymentGroupId(groupId)
+                    .addPricing(Pricing.newBuilder()
+                        .setPriceModel(PriceModel.FIXED_PRICE)
+                        .setPriceInCogs(BigInteger.ONE)
+                        .build())
+                    .build())
+                .build());
+        when(metadataProvider.getOrganizationMetadata()).thenReturn(
+                OrganizationMetadata.newBuilder()
+                .addPaymentGroup(PaymentGroup.newBuilder()
+                    .setPaymentGroupId(groupId)
+                    .setPaymentDetails(PaymentDetails.newBuilder()
+                        .setPaymentAddress(randomAddress())
+                        .setPaymentExpirationThreshold(BigInteger.valueOf(10))
+                        .build())
+                    .build())
+                .build());
+
+        PaymentChannelStateProvider stateProvider = mock(PaymentChannelStateProvider.class);
+
+        ServiceClient serviceClient = mock(ServiceClient.class);
+        when(serviceClient.getSdk()).thenReturn(sdk);
+        when(serviceClient.getMetadataProvider()).thenReturn(metadataProvider);
+        when(serviceClient.getPaymentChannelStateProvider()).thenReturn(stateProvider);
+        when(serviceClient.getEndpointGroupName()).thenReturn("default_group");
+        return serviceClient;
+    }
+
 }
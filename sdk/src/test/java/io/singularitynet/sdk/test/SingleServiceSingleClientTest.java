@@ -3,13 +3,17 @@ package io.singularitynet.sdk.test;
 import org.junit.*;
 import static org.junit.Assert.*;
 
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import java.math.BigInteger;
+import java.util.List;
 
 import io.singularitynet.sdk.registry.*;
 import io.singularitynet.sdk.mpe.*;
 import io.singularitynet.sdk.client.*;
 import io.singularitynet.sdk.ethereum.*;
 import io.singularitynet.sdk.daemon.*;
+import io.singularitynet.sdk.payment.Payment;
 import io.singularitynet.sdk.paymentstrategy.FixedPaymentChannelPaymentStrategy;
 import io.singularitynet.sdk.test.TestServiceGrpc.TestServiceBlockingStub;
 
@@ -104,4 +108,23 @@ public class SingleServiceSingleClientTest {
         assertEquals("Payment received by daemon", expectedPayment, env.daemon().getPayments().get(0));
     }
 
+    @Test
+    public void sendSameAmountAfterUnavailableCall() {
+        env.daemon().failNextCall(Status.UNAVAILABLE);
+        try {
+            serviceStub.echo(Input.newBuilder().setInput("ping").build());
+            fail("Call is expected to fail");
+        } catch (StatusRuntimeException e) {
+            assertEquals("Failed call status", Status.Code.UNAVAILABLE,
+                    e.getStatus().getCode());
+        }
+
+        Output output = serviceStub.echo(Input.newBuilder().setInput("ping").build());
+
+        EscrowPayment expectedPayment = env.newEscrowPayment(paymentChannel).setAmount(price).build();
+        List<Payment> payments = env.daemon().getPayments();
+        assertEquals("Payment received by daemon", expectedPayment,
+                payments.get(payments.size() - 1));
+    }
+
 }